@@ -18,8 +18,10 @@
  * along with this program. If not, see <https://www.gnu.org/licenses/>.
  */
 
+import groovy.json.JsonSlurper
 import org.jetbrains.kotlin.gradle.dsl.JvmTarget
 import org.jetbrains.kotlin.gradle.tasks.KotlinJvmCompile
+import java.io.DataOutputStream
 
 plugins {
     id("com.android.application")
@@ -75,6 +77,92 @@ android {
     }
 }
 
+abstract class CompileStationCatalogTask : DefaultTask() {
+
+    @get:InputDirectory
+    abstract val stationsDirectory: DirectoryProperty
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    @TaskAction
+    fun compile() {
+        val stations = stationsDirectory.get().asFile
+        val catalogs = listOf(
+            "temperature" to readGeoJSON(stations.resolve("latest_1min_temperature.json")),
+            "humidity" to readGeoJSON(stations.resolve("latest_1min_humidity.json")),
+            "wind" to readGeoJSON(stations.resolve("latest_10min_wind.json")),
+            "forecast" to readCoordinates(stations.resolve("forecast_stations.json"))
+        )
+        val output = outputDirectory.get().asFile
+        output.mkdirs()
+        DataOutputStream(output.resolve("station_catalog.bin").outputStream().buffered()).use { out ->
+            out.writeInt(0x484B5753)
+            out.writeInt(1)
+            out.writeShort(catalogs.size)
+            for ((name, entries) in catalogs) {
+                out.writeUTF(name)
+                out.writeShort(entries.size)
+                for (entry in entries) {
+                    out.writeUTF(entry[0] as String)
+                    out.writeUTF(entry[1] as String)
+                    out.writeUTF(entry[2] as String)
+                    out.writeDouble(entry[3] as Double)
+                    out.writeDouble(entry[4] as Double)
+                }
+            }
+        }
+    }
+
+    private fun readGeoJSON(file: File): List<List<Any>> {
+        val json = JsonSlurper().parse(file) as Map<*, *>
+        return (json["features"] as List<*>).map { feature ->
+            val properties = (feature as Map<*, *>)["properties"] as Map<*, *>
+            val coordinates = (feature["geometry"] as Map<*, *>)["coordinates"] as List<*>
+            listOf(
+                properties["gml_id"].toString(),
+                properties["AutomaticWeatherStation_en"].toString(),
+                properties["AutomaticWeatherStation_uc"].toString(),
+                (coordinates[1] as Number).toDouble(),
+                (coordinates[0] as Number).toDouble()
+            )
+        }
+    }
+
+    private fun readCoordinates(file: File): List<List<Any>> {
+        val json = JsonSlurper().parse(file) as Map<*, *>
+        return (json["stations"] as Map<*, *>).map { (id, position) ->
+            val coordinates = position as List<*>
+            listOf(id.toString(), id.toString(), id.toString(), (coordinates[0] as Number).toDouble(), (coordinates[1] as Number).toDouble())
+        }
+    }
+
+}
+
+val compileStationCatalog = tasks.register<CompileStationCatalogTask>("compileStationCatalog") {
+    stationsDirectory.set(layout.projectDirectory.dir("src/main/stations"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(compileStationCatalog, CompileStationCatalogTask::outputDirectory)
+    }
+}
+
+tasks.withType<Test>().configureEach {
+    val stationCatalog = compileStationCatalog.flatMap { it.outputDirectory.file("station_catalog.bin") }
+    inputs.file(stationCatalog)
+    doFirst {
+        systemProperty("station.catalog", stationCatalog.get().asFile.absolutePath)
+    }
+    if (project.hasProperty("benchmark")) {
+        include("**/*Benchmark.class")
+        systemProperty("benchmark.output", layout.buildDirectory.dir("benchmarks").get().asFile.absolutePath)
+    } else {
+        exclude("**/*Benchmark.class")
+    }
+}
+
 dependencies {
     implementation("com.google.guava:guava:33.4.8-android")
     implementation("androidx.core:core-splashscreen:1.0.1")
@@ -109,10 +197,16 @@ dependencies {
     implementation("androidx.wear:wear-remote-interactions:1.1.0")
     implementation("androidx.work:work-runtime-ktx:2.10.3")
     implementation("androidx.wear.watchface:watchface-complications-data-source-ktx:1.2.1")
+    implementation("com.squareup.okhttp3:okhttp:4.12.0")
     implementation("io.coil-kt:coil-compose:2.7.0")
     implementation("me.saket.telephoto:zoomable:0.16.0")
     implementation(platform("com.google.firebase:firebase-bom:34.1.0"))
     implementation("com.google.firebase:firebase-analytics")
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.json:json:20231013")
+    testImplementation("cn.6tail:lunar:1.6.3")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
+    testImplementation("org.shredzone.commons:commons-suncalc:3.11")
     androidTestImplementation(platform("androidx.compose:compose-bom:2025.08.00"))
     androidTestImplementation("androidx.compose.ui:ui-test-junit4")
     debugImplementation("androidx.compose.ui:ui-tooling")
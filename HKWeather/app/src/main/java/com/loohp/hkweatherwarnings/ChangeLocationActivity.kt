@@ -336,12 +336,11 @@ fun MainElements(instance: ChangeLocationActivity) {
                             }
                         )
                     }
-                    val stations = Registry.getInstance(instance).weatherStations.sortedBy { -it.optJSONObject("geometry")!!.optJSONArray("coordinates")!!.optDouble(1) }
+                    val weatherStations = Registry.getInstance(instance).getWeatherStations(instance)
+                    val stations = (0 until weatherStations.size()).sortedBy { -weatherStations.getLatitude(it) }
                     for (station in stations) {
-                        val properties = station.optJSONObject("properties")!!
-                        val name = properties.optString("AutomaticWeatherStation_".plus(if (Registry.getInstance(instance).language == "en") "en" else "uc"))
-                        val coordinates = station.optJSONObject("geometry")!!.optJSONArray("coordinates")!!
-                        val location = LocationResult.fromLatLng(coordinates.optDouble(1), coordinates.optDouble(0)).location
+                        val name = if (Registry.getInstance(instance).language == "en") weatherStations.getNameEn(station) else weatherStations.getNameZh(station)
+                        val location = LocationResult.fromLatLng(weatherStations.getLatitude(station), weatherStations.getLongitude(station)).location
                         item {
                             Spacer(modifier = Modifier.size(StringUtils.scaledSize(7, instance).dp))
                         }
@@ -349,7 +348,7 @@ fun MainElements(instance: ChangeLocationActivity) {
                             Button(
                                 onClick = {
                                     Firebase.analytics.logEvent("set_weather_location", Bundle().apply {
-                                        putString("value", properties.optString("AutomaticWeatherStation_en"))
+                                        putString("value", weatherStations.getNameEn(station))
                                     })
                                     Registry.getInstance(instance).setLocation(location, instance)
                                     Shared.currentWeatherInfo.reset(instance)
@@ -52,6 +52,7 @@ import androidx.compose.material.icons.automirrored.filled.List
 import androidx.compose.material3.CircularProgressIndicator
 import androidx.compose.material3.LinearProgressIndicator
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.DisposableEffect
 import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.runtime.Stable
 import androidx.compose.runtime.derivedStateOf
@@ -100,6 +101,7 @@ import me.saket.telephoto.zoomable.rememberZoomableState
 import me.saket.telephoto.zoomable.zoomable
 import java.text.SimpleDateFormat
 import java.time.format.DateTimeFormatter
+import java.util.concurrent.CancellationException
 import java.util.concurrent.ForkJoinPool
 import java.util.concurrent.TimeUnit
 
@@ -149,7 +151,7 @@ fun RainfallMapElement(instance: RainfallMapActivity) {
     HKWeatherTheme {
         var rainfallMapsInfo: RainfallMapsInfo? by remember { mutableStateOf(null) }
 
-        var rainfallMapsFuture: FutureWithProgress<RainfallMapsInfo>? by remember { mutableStateOf(null) }
+        val rainfallMapsFuture: FutureWithProgress<RainfallMapsInfo> = remember { Registry.getInstance(instance).getRainfallMaps(instance) }
         var currentProgress by remember { mutableFloatStateOf(0F) }
 
         val focusRequester = remember { FocusRequester() }
@@ -163,19 +165,26 @@ fun RainfallMapElement(instance: RainfallMapActivity) {
         LaunchedEffect (rainfallMapsInfo, currentMode) {
             currentPosition = (rainfallMapsInfo?.past1HourUrls?.size ?: 1) - 1
         }
+        DisposableEffect (Unit) {
+            onDispose {
+                rainfallMapsFuture.cancel(true)
+            }
+        }
         LaunchedEffect (Unit) {
             ForkJoinPool.commonPool().execute {
                 var error = false
                 try {
-                    rainfallMapsFuture = Registry.getInstance(instance).getRainfallMaps(instance)
-                    val info = rainfallMapsFuture!!.get(60, TimeUnit.SECONDS)
+                    val info = rainfallMapsFuture.get(60, TimeUnit.SECONDS)
                     if (info == null) {
                         error = true
                     } else {
                         rainfallMapsInfo = info
                     }
+                } catch (e: CancellationException) {
+                    return@execute
                 } catch (e: Exception) {
                     e.printStackTrace()
+                    rainfallMapsFuture.cancel(true)
                     error = true
                 }
                 if (error) {
@@ -239,7 +248,7 @@ fun RainfallMapElement(instance: RainfallMapActivity) {
                         )
                         LaunchedEffect (Unit) {
                             while (true) {
-                                currentProgress = rainfallMapsFuture?.progress?: 0F
+                                currentProgress = rainfallMapsFuture.progress
                                 delay(500)
                             }
                         }
@@ -45,6 +45,7 @@ import androidx.compose.foundation.pager.rememberPagerState
 import androidx.compose.foundation.shape.CircleShape
 import androidx.compose.material3.CircularProgressIndicator
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.DisposableEffect
 import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.runtime.Stable
 import androidx.compose.runtime.derivedStateOf
@@ -100,6 +101,7 @@ import kotlinx.coroutines.sync.Mutex
 import kotlinx.coroutines.sync.withLock
 import me.saket.telephoto.zoomable.rememberZoomableState
 import me.saket.telephoto.zoomable.zoomable
+import java.util.concurrent.CancellationException
 import java.util.concurrent.ForkJoinPool
 import java.util.concurrent.TimeUnit
 import kotlin.math.absoluteValue
@@ -165,11 +167,17 @@ class TCTrackActivity : ComponentActivity() {
 @Composable
 fun TCTrackElement(instance: TCTrackActivity) {
     var tropicalCyclones: List<TropicalCycloneInfo>? by remember { mutableStateOf(null) }
+    val tropicalCyclonesFuture = remember { Registry.getInstance(instance).getTropicalCycloneInfo(instance) }
 
+    DisposableEffect (Unit) {
+        onDispose {
+            tropicalCyclonesFuture.cancel(true)
+        }
+    }
     LaunchedEffect (Unit) {
         ForkJoinPool.commonPool().execute {
             try {
-                val data = Registry.getInstance(instance).getTropicalCycloneInfo(instance).get(60, TimeUnit.SECONDS)
+                val data = tropicalCyclonesFuture.get(60, TimeUnit.SECONDS)
                     .filter { it.trackStaticImageUrl != null }
                     .sortedBy { it.displayOrder }
                 tropicalCyclones = data
@@ -179,8 +187,11 @@ fun TCTrackElement(instance: TCTrackActivity) {
                         launch { instance.imageLoader.execute(ImageRequest.Builder(instance).data(cyclone.trackStaticZoomImageUrl).transformations(ZoomedTrackImageTransformation(), RoundedCornersTransformation(10F)).build()) }
                     }
                 }
+            } catch (e: CancellationException) {
+                return@execute
             } catch (e: Exception) {
                 e.printStackTrace()
+                tropicalCyclonesFuture.cancel(true)
                 instance.runOnUiThread {
                     Toast.makeText(instance, if (Registry.getInstance(instance).language == "en") "Unable to download data" else "無法下載資料", Toast.LENGTH_SHORT).show()
                 }
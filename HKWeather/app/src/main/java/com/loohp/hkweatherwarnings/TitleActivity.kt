@@ -142,7 +142,6 @@ import java.time.format.DateTimeFormatter
 import java.time.format.TextStyle
 import java.util.Date
 import java.util.Locale
-import java.util.concurrent.ForkJoinPool
 
 
 enum class Section {
@@ -226,10 +225,10 @@ fun MainElements(todayState: State<LocalDate>, launchSection: Section? = null, i
     val updateSuccessful by remember { derivedStateOf { weatherInfoUpdateSuccessful && weatherWarningsUpdateSuccessful && weatherTipsUpdateSuccessful } }
 
     LaunchedEffect (Unit) {
-        Shared.currentWeatherInfo.getLatestValue(instance, ForkJoinPool.commonPool())
-        Shared.currentWarnings.getLatestValue(instance, ForkJoinPool.commonPool())
-        Shared.currentTips.getLatestValue(instance, ForkJoinPool.commonPool())
-        Shared.convertedLunarDates.getValue(today, instance, ForkJoinPool.commonPool())
+        Shared.currentWeatherInfo.getLatestValue(instance)
+        Shared.currentWarnings.getLatestValue(instance)
+        Shared.currentTips.getLatestValue(instance)
+        Shared.convertedLunarDates.getValue(today, instance)
         Registry.getInstance(instance).updateTileServices(instance)
     }
 
@@ -454,9 +453,9 @@ fun UpdateFailedElements(instance: TitleActivity) {
                 Shared.currentWeatherInfo.reset(instance)
                 Shared.currentWarnings.reset(instance)
                 Shared.currentTips.reset(instance)
-                Shared.currentWeatherInfo.getLatestValue(instance, ForkJoinPool.commonPool(), true)
-                Shared.currentWarnings.getLatestValue(instance, ForkJoinPool.commonPool(), true)
-                Shared.currentTips.getLatestValue(instance, ForkJoinPool.commonPool(), true)
+                Shared.currentWeatherInfo.getLatestValue(instance, true)
+                Shared.currentWarnings.getLatestValue(instance, true)
+                Shared.currentTips.getLatestValue(instance, true)
             },
             modifier = Modifier
                 .width(StringUtils.scaledSize(90, instance).dp)
@@ -698,17 +697,14 @@ fun generateWeatherInfoItems(updating: Boolean, combinedUpdating: Boolean, lastU
                                     onClick = {
                                         Shared.currentWeatherInfo.getLatestValue(
                                             instance,
-                                            ForkJoinPool.commonPool(),
                                             true
                                         )
                                         Shared.currentWarnings.getLatestValue(
                                             instance,
-                                            ForkJoinPool.commonPool(),
                                             true
                                         )
                                         Shared.currentTips.getLatestValue(
                                             instance,
-                                            ForkJoinPool.commonPool(),
                                             true
                                         )
                                     },
@@ -719,17 +715,14 @@ fun generateWeatherInfoItems(updating: Boolean, combinedUpdating: Boolean, lastU
                                         Shared.currentTips.reset(instance)
                                         Shared.currentWeatherInfo.getLatestValue(
                                             instance,
-                                            ForkJoinPool.commonPool(),
                                             true
                                         )
                                         Shared.currentWarnings.getLatestValue(
                                             instance,
-                                            ForkJoinPool.commonPool(),
                                             true
                                         )
                                         Shared.currentTips.getLatestValue(
                                             instance,
-                                            ForkJoinPool.commonPool(),
                                             true
                                         )
                                     }
@@ -2416,9 +2409,9 @@ fun UpdateTilesButton(updating: Boolean, instance: TitleActivity) {
             Shared.currentWeatherInfo.reset(instance)
             Shared.currentWarnings.reset(instance)
             Shared.currentTips.reset(instance)
-            Shared.currentWeatherInfo.getLatestValue(instance, ForkJoinPool.commonPool(), true)
-            Shared.currentWarnings.getLatestValue(instance, ForkJoinPool.commonPool(), true)
-            Shared.currentTips.getLatestValue(instance, ForkJoinPool.commonPool(), true)
+            Shared.currentWeatherInfo.getLatestValue(instance, true)
+            Shared.currentWarnings.getLatestValue(instance, true)
+            Shared.currentTips.getLatestValue(instance, true)
             instance.runOnUiThread {
                 Toast.makeText(instance, if (Registry.getInstance(instance).language == "en") "Refreshing..." else "正在更新...", Toast.LENGTH_SHORT).show()
             }
@@ -21,27 +21,61 @@
 package com.loohp.hkweatherwarnings.background
 
 import android.content.Context
+import android.os.Bundle
+import androidx.work.ExistingWorkPolicy
 import androidx.work.ListenableWorker
 import androidx.work.WorkerParameters
-import com.google.common.util.concurrent.Futures
 import com.google.common.util.concurrent.ListenableFuture
+import com.google.firebase.Firebase
+import com.google.firebase.analytics.analytics
+import com.loohp.hkweatherwarnings.shared.DataState
+import com.loohp.hkweatherwarnings.shared.Registry
 import com.loohp.hkweatherwarnings.shared.Shared
-import java.util.concurrent.Callable
-import java.util.concurrent.ForkJoinPool
+import com.loohp.hkweatherwarnings.utils.FetchPriority
+import com.loohp.hkweatherwarnings.utils.HTTPRequestUtils
+import com.loohp.hkweatherwarnings.utils.toListenableFuture
+import java.util.concurrent.CompletableFuture
 
 class PeriodicUpdateWorker(private val context: Context, workerParams: WorkerParameters) : ListenableWorker(context, workerParams) {
 
     override fun startWork(): ListenableFuture<Result> {
-        @Suppress("UnstableApiUsage")
-        return Futures.submit(Callable {
-            val futures = listOf(
-                Shared.currentWeatherInfo.getLatestValue(context, ForkJoinPool.commonPool(), true),
-                Shared.currentWarnings.getLatestValue(context, ForkJoinPool.commonPool(), true),
-                Shared.currentTips.getLatestValue(context, ForkJoinPool.commonPool(), true)
-            )
-            futures.forEach { try { it.get() } catch (e: Exception) { e.printStackTrace() } }
+        val cacheHits = HTTPRequestUtils.getCacheHitCount()
+        val cacheMisses = HTTPRequestUtils.getCacheMissCount()
+        val coalescedRequests = HTTPRequestUtils.getCoalescedRequestCount()
+        val cancelledCalls = HTTPRequestUtils.getCancelledCallCount()
+        val policy = RefreshPolicy.current(context)
+        val dueSources = policy.getDueSources(context)
+        val futures = dueSources.map { it.state.invoke().getLatestValue(context, true, FetchPriority.BACKGROUND) }
+        return CompletableFuture.allOf(*futures.toTypedArray()).handle { _, error ->
+            error?.printStackTrace()
+            Firebase.analytics.logEvent("background_refresh_http_cache", Bundle().apply {
+                putLong("hits", HTTPRequestUtils.getCacheHitCount() - cacheHits)
+                putLong("misses", HTTPRequestUtils.getCacheMissCount() - cacheMisses)
+                putLong("coalesced", HTTPRequestUtils.getCoalescedRequestCount() - coalescedRequests)
+                putLong("cancelled", HTTPRequestUtils.getCancelledCallCount() - cancelledCalls)
+            })
+            Firebase.analytics.logEvent("data_state_served", Bundle().apply {
+                putLong("fresh", DataState.takeServedFreshCount())
+                putLong("stale", DataState.takeServedStaleCount())
+            })
+            Firebase.analytics.logEvent("background_refresh_schedule", Bundle().apply {
+                putString("value", policy.severity.name)
+                putString("sources", dueSources.joinToString(",") { it.name })
+                putString("restriction", policy.restriction.name)
+                putBoolean("overnight", policy.overnight)
+            })
+            val publicationModel = Registry.getInstance(context).publicationModel
+            val displayAge = publicationModel.takeDisplayAge()
+            if (displayAge.count > 0) {
+                Firebase.analytics.logEvent("data_age_at_display", Bundle().apply {
+                    putLong("value", displayAge.average / 1000)
+                    putLong("count", displayAge.count)
+                })
+            }
+            publicationModel.saveIfChanged(context)
+            Shared.scheduleBackgroundRefresh(context, ExistingWorkPolicy.APPEND_OR_REPLACE)
             Result.success()
-        }, ForkJoinPool.commonPool())
+        }.toListenableFuture()
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.background
+
+import android.content.Context
+import com.loohp.hkweatherwarnings.cache.PublicationModel
+import com.loohp.hkweatherwarnings.shared.DataState
+import com.loohp.hkweatherwarnings.shared.Registry
+import com.loohp.hkweatherwarnings.shared.Shared
+import com.loohp.hkweatherwarnings.utils.ConnectionUtils
+import com.loohp.hkweatherwarnings.utils.ConnectionUtils.BackgroundRestrictionType
+import com.loohp.hkweatherwarnings.weather.CurrentWeatherInfo
+import com.loohp.hkweatherwarnings.weather.WeatherWarningsCategory
+import com.loohp.hkweatherwarnings.weather.WeatherWarningsType
+import java.time.LocalTime
+
+
+enum class RefreshSeverity {
+
+    CALM, ELEVATED, SEVERE;
+
+    companion object {
+
+        fun of(warnings: Collection<WeatherWarningsType>, weatherInfo: CurrentWeatherInfo?): RefreshSeverity {
+            return when {
+                weatherInfo?.specialTyphoonInfo != null -> SEVERE
+                warnings.any { it.category == WeatherWarningsCategory.WTCSGNL || it.category == WeatherWarningsCategory.WRAIN } -> SEVERE
+                warnings.isNotEmpty() -> ELEVATED
+                else -> CALM
+            }
+        }
+
+    }
+
+}
+
+
+enum class RefreshSource(
+    val state: () -> DataState<*>,
+    private val severeFactor: Float,
+    private val elevatedFactor: Float,
+    private val calmFactor: Float,
+    private val overnightFactor: Float,
+    val publicationAligned: Boolean
+) {
+
+    WARNINGS({ Shared.currentWarnings }, 0.25F, 0.5F, 1F, 1F, false),
+    WEATHER({ Shared.currentWeatherInfo }, 0.5F, 1F, 1F, 2F, true),
+    TIPS({ Shared.currentTips }, 0.5F, 1F, 2F, 2F, false);
+
+    fun getInterval(baseInterval: Long, severity: RefreshSeverity, overnight: Boolean, restriction: BackgroundRestrictionType): Long {
+        val factor = when (severity) {
+            RefreshSeverity.SEVERE -> severeFactor
+            RefreshSeverity.ELEVATED -> elevatedFactor
+            RefreshSeverity.CALM -> if (overnight) calmFactor * overnightFactor else calmFactor
+        }
+        var interval = (baseInterval * factor).toLong()
+        if (restriction != BackgroundRestrictionType.NONE) {
+            interval = interval.coerceAtLeast(baseInterval) * RefreshPolicy.RESTRICTED_FACTOR
+        }
+        return interval.coerceAtLeast(RefreshPolicy.MIN_INTERVAL)
+    }
+
+}
+
+
+class RefreshPolicy(
+    val baseInterval: Long,
+    val severity: RefreshSeverity,
+    val overnight: Boolean,
+    val restriction: BackgroundRestrictionType
+) {
+
+    companion object {
+
+        const val MIN_INTERVAL = 300000L
+        const val RESTRICTED_FACTOR = 4L
+        const val DUE_TOLERANCE = 60000L
+        val OVERNIGHT_END: LocalTime = LocalTime.of(7, 0)
+
+        fun current(context: Context): RefreshPolicy {
+            val severity = RefreshSeverity.of(Shared.currentWarnings.getCachedValue(context).keys, Shared.currentWeatherInfo.getCachedValue(context))
+            val overnight = LocalTime.now(Shared.HK_TIMEZONE.toZoneId()).isBefore(OVERNIGHT_END)
+            return RefreshPolicy(Shared.REFRESH_INTERVAL.invoke(context), severity, overnight, ConnectionUtils.isBackgroundRestricted(context))
+        }
+
+    }
+
+    fun getInterval(source: RefreshSource): Long {
+        return source.getInterval(baseInterval, severity, overnight, restriction)
+    }
+
+    fun getDueTime(context: Context, source: RefreshSource): Long {
+        return getDueTime(source, source.state.invoke().getLastSuccessfulUpdateTime(context), Registry.getInstance(context).publicationModel)
+    }
+
+    fun getDueTime(source: RefreshSource, lastUpdate: Long, publicationModel: PublicationModel?): Long {
+        val interval = getInterval(source)
+        val due = lastUpdate + interval
+        if (!source.publicationAligned || publicationModel == null) {
+            return due
+        }
+        val aligned = publicationModel.getLatestExpectedPublication(lastUpdate + MIN_INTERVAL, due, MIN_INTERVAL, interval)
+        return if (aligned > 0) aligned else due
+    }
+
+    fun getDueSources(context: Context, now: Long = System.currentTimeMillis()): List<RefreshSource> {
+        return getDueSources(now) { getDueTime(context, it) }
+    }
+
+    fun getDueSources(now: Long, dueTime: (RefreshSource) -> Long): List<RefreshSource> {
+        val dueTimes = RefreshSource.entries.associateWith { dueTime.invoke(it) }
+        val due = dueTimes.filterValues { now >= it - DUE_TOLERANCE }.keys
+        val nextWakeup = due.minOfOrNull { now + getInterval(it) } ?: return emptyList()
+        // batch sources that would otherwise need their own wakeup before the next one
+        return RefreshSource.entries.filter { it in due || (dueTimes[it]!! < nextWakeup && dueTimes[it]!! - now <= getInterval(it) / 2) }
+    }
+
+    fun getNextDelay(context: Context, now: Long = System.currentTimeMillis()): Long {
+        return getNextDelay(now) { getDueTime(context, it) }
+    }
+
+    fun getNextDelay(now: Long, dueTime: (RefreshSource) -> Long): Long {
+        val nextDue = RefreshSource.entries.minOf { dueTime.invoke(it) }
+        return (nextDue - now).coerceAtLeast(MIN_INTERVAL)
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.background
+
+import android.content.Context
+import android.os.Bundle
+import androidx.work.ExistingWorkPolicy
+import androidx.work.ListenableWorker
+import androidx.work.WorkerParameters
+import com.google.common.util.concurrent.ListenableFuture
+import com.google.firebase.Firebase
+import com.google.firebase.analytics.analytics
+import com.loohp.hkweatherwarnings.shared.Registry
+import com.loohp.hkweatherwarnings.shared.Shared
+import com.loohp.hkweatherwarnings.utils.FetchGroup
+import com.loohp.hkweatherwarnings.utils.FetchPriority
+import com.loohp.hkweatherwarnings.utils.orElseAsync
+import com.loohp.hkweatherwarnings.utils.toListenableFuture
+import java.time.LocalDate
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class WarningWatcherWorker(private val context: Context, workerParams: WorkerParameters) : ListenableWorker(context, workerParams) {
+
+    override fun startWork(): ListenableFuture<Result> {
+        val registry = Registry.getInstance(context)
+        val state = registry.warningWatcherState
+        val today = LocalDate.now(Shared.HK_TIMEZONE.toZoneId()).toEpochDay()
+        if (state.day != today) {
+            if (state.day >= 0) {
+                Firebase.analytics.logEvent("warning_watcher_daily", Bundle().apply {
+                    putLong("value", state.bytes)
+                    putLong("wakeups", state.wakeups.toLong())
+                    putLong("not_modified", state.notModified.toLong())
+                    putLong("escalations", state.escalations.toLong())
+                })
+            }
+            state.startDay(today)
+        }
+        state.recordWakeup()
+        val group = FetchGroup(FetchPriority.BACKGROUND)
+        return registry.getWarningsSummary(context, state.etag, state.lastModified, group)
+            .orElseAsync(60, TimeUnit.SECONDS, null)
+            .thenCompose { response ->
+                val escalate = when {
+                    response == null -> false
+                    response.isNotModified -> {
+                        state.recordNotModified(response.bytes)
+                        false
+                    }
+                    else -> state.recordSummary(Registry.hashWarningsSummary(response.body), response.etag, response.lastModified, response.bytes)
+                }
+                if (escalate) {
+                    CompletableFuture.allOf(
+                        Shared.currentWarnings.getLatestValue(context, true, FetchPriority.BACKGROUND),
+                        Shared.currentWeatherInfo.getLatestValue(context, true, FetchPriority.BACKGROUND)
+                    )
+                } else {
+                    CompletableFuture.completedFuture(null)
+                }
+            }.handle { _, error ->
+                error?.printStackTrace()
+                group.cancel()
+                state.save(context)
+                if (Shared.isWarningWatcherEnabled(context)) {
+                    Shared.scheduleWarningWatcher(context, ExistingWorkPolicy.APPEND_OR_REPLACE)
+                }
+                Result.success()
+            }.toListenableFuture()
+    }
+
+}
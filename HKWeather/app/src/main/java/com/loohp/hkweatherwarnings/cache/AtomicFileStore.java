@@ -0,0 +1,118 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.cache;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.AtomicFile;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AtomicFileStore {
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "HKWeather-Persist");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String fileName;
+    private final AtomicReference<Content> pending;
+    private volatile AtomicFile file;
+
+    public AtomicFileStore(String fileName) {
+        this.fileName = fileName;
+        this.pending = new AtomicReference<>();
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    private AtomicFile getFile(Context context) {
+        AtomicFile file = this.file;
+        if (file == null) {
+            this.file = file = new AtomicFile(new File(context.getApplicationContext().getFilesDir(), fileName));
+        }
+        return file;
+    }
+
+    public FileInputStream openRead(Context context) throws IOException {
+        return getFile(context).openRead();
+    }
+
+    public void write(Context context, Content content) {
+        if (pending.getAndSet(content) == null) {
+            Context applicationContext = context.getApplicationContext();
+            WRITER.execute(() -> flush(applicationContext));
+        }
+    }
+
+    public void delete(Context context) {
+        pending.set(null);
+        Context applicationContext = context.getApplicationContext();
+        WRITER.execute(() -> getFile(applicationContext).delete());
+    }
+
+    private void flush(Context context) {
+        Content content = pending.getAndSet(null);
+        if (content == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        AtomicFile file = getFile(context);
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            content.writeTo(out);
+            file.finishWrite(out);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            if (out != null) {
+                file.failWrite(out);
+            }
+            return;
+        }
+        long end = System.currentTimeMillis();
+        Bundle bundle = new Bundle();
+        bundle.putLong("value", end - start);
+        bundle.putString("file", fileName);
+        FirebaseAnalytics.getInstance(context).logEvent("persist_file_ms", bundle);
+    }
+
+    @FunctionalInterface
+    public interface Content {
+
+        void writeTo(OutputStream out) throws IOException;
+
+    }
+
+}
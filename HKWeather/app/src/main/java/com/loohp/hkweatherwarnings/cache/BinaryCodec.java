@@ -0,0 +1,170 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinaryCodec {
+
+    public static final int MAGIC = 0x484B5743;
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int NO_TIME = -1;
+
+    public static void writeHeader(DataOutput out) throws IOException {
+        writeHeader(out, FORMAT_VERSION);
+    }
+
+    public static void writeHeader(DataOutput out, int version) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(version);
+    }
+
+    public static void readHeader(DataInput in) throws IOException {
+        readHeader(in, FORMAT_VERSION);
+    }
+
+    public static void readHeader(DataInput in, int expectedVersion) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary snapshot");
+        }
+        int version = in.readInt();
+        if (version != expectedVersion) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static int readLength(DataInput in) throws IOException {
+        return checkLength(in, in.readInt());
+    }
+
+    private static int checkLength(DataInput in, int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Negative length " + length);
+        }
+        if (in instanceof InputStream) {
+            int remaining = ((InputStream) in).available();
+            if (length > remaining) {
+                throw new IOException("Length " + length + " exceeds the remaining " + remaining + " bytes");
+            }
+        }
+        return length;
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        checkLength(in, length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        out.writeUTF(value == null ? "" : value.name());
+    }
+
+    public static <E extends Enum<E>> E readEnum(DataInput in, Class<E> type) throws IOException {
+        String name = in.readUTF();
+        if (name.isEmpty()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + " " + name, e);
+        }
+    }
+
+    public static void writeLocalDate(DataOutput out, LocalDate value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.toEpochDay());
+    }
+
+    public static LocalDate readLocalDate(DataInput in) throws IOException {
+        long epochDay = in.readLong();
+        return epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static void writeLocalTime(DataOutput out, LocalTime value) throws IOException {
+        out.writeInt(value == null ? NO_TIME : value.toSecondOfDay());
+    }
+
+    public static LocalTime readLocalTime(DataInput in) throws IOException {
+        int secondOfDay = in.readInt();
+        return secondOfDay == NO_TIME ? null : LocalTime.ofSecondOfDay(secondOfDay);
+    }
+
+    public static void writeLocalDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    public static LocalDateTime readLocalDateTime(DataInput in) throws IOException {
+        long epochSecond = in.readLong();
+        return epochSecond == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public static void writeList(DataOutput out, List<? extends BinarySerializable> list) throws IOException {
+        out.writeInt(list.size());
+        for (BinarySerializable element : list) {
+            element.serialize(out);
+        }
+    }
+
+    public static <T> List<T> readList(DataInput in, Reader<T> reader) throws IOException {
+        int size = readLength(in);
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(reader.read(in));
+        }
+        return list;
+    }
+
+    @FunctionalInterface
+    public interface Reader<T> {
+
+        T read(DataInput in) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.cache;
+
+import android.content.Context;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+public class PreferencesStore {
+
+    public static final String FILE_NAME = "preferences.json";
+
+    public static PreferencesStore load(Context context) {
+        AtomicFileStore file = new AtomicFileStore(FILE_NAME);
+        Snapshot snapshot;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openRead(context), StandardCharsets.UTF_8))) {
+            snapshot = Snapshot.deserialize(new JSONObject(reader.lines().collect(Collectors.joining("\n"))));
+        } catch (FileNotFoundException e) {
+            snapshot = Snapshot.DEFAULT;
+        } catch (IOException | JSONException | RuntimeException e) {
+            e.printStackTrace();
+            snapshot = Snapshot.DEFAULT;
+        }
+        return new PreferencesStore(context.getApplicationContext(), file, snapshot);
+    }
+
+    private final Context context;
+    private final AtomicFileStore file;
+    private final AtomicReference<Snapshot> snapshot;
+
+    private PreferencesStore(Context context, AtomicFileStore file, Snapshot snapshot) {
+        this.context = context;
+        this.file = file;
+        this.snapshot = new AtomicReference<>(snapshot);
+    }
+
+    public Snapshot get() {
+        return snapshot.get();
+    }
+
+    public void update(UnaryOperator<Snapshot> operator) {
+        Snapshot previous;
+        Snapshot next;
+        do {
+            previous = snapshot.get();
+            next = operator.apply(previous);
+            if (next.equals(previous)) {
+                return;
+            }
+        } while (!snapshot.compareAndSet(previous, next));
+        file.write(context, this::writeTo);
+    }
+
+    private void writeTo(OutputStream out) throws IOException {
+        try {
+            out.write(snapshot.get().serialize().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public static class Snapshot implements JSONSerializable {
+
+        public static final String DEFAULT_LANGUAGE = "zh";
+        public static final long DEFAULT_REFRESH_RATE = 1800000;
+        public static final String GPS_LOCATION = "GPS";
+
+        public static final Snapshot DEFAULT = new Snapshot(DEFAULT_LANGUAGE, DEFAULT_REFRESH_RATE, "", Double.NaN, Double.NaN);
+
+        public static Snapshot deserialize(JSONObject jsonObject) {
+            String language = jsonObject.optString("language");
+            if (language.isEmpty()) {
+                language = DEFAULT_LANGUAGE;
+            }
+            long refreshRate = jsonObject.optLong("refreshRate", -1);
+            if (refreshRate < 0) {
+                refreshRate = DEFAULT_REFRESH_RATE;
+            }
+            Object location = jsonObject.opt("location");
+            if (location instanceof JSONArray) {
+                JSONArray pos = (JSONArray) location;
+                return new Snapshot(language, refreshRate, "", pos.optDouble(0), pos.optDouble(1));
+            }
+            return new Snapshot(language, refreshRate, location instanceof String ? (String) location : "", Double.NaN, Double.NaN);
+        }
+
+        private final String language;
+        private final long refreshRate;
+        private final String locationName;
+        private final double latitude;
+        private final double longitude;
+
+        private Snapshot(String language, long refreshRate, String locationName, double latitude, double longitude) {
+            this.language = language;
+            this.refreshRate = refreshRate;
+            this.locationName = locationName;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public String getLanguage() {
+            return language;
+        }
+
+        public long getRefreshRate() {
+            return refreshRate;
+        }
+
+        public String getLocationName() {
+            return locationName;
+        }
+
+        public boolean hasFixedLocation() {
+            return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public Snapshot withLanguage(String language) {
+            return new Snapshot(language, refreshRate, locationName, latitude, longitude);
+        }
+
+        public Snapshot withRefreshRate(long refreshRate) {
+            return new Snapshot(language, refreshRate, locationName, latitude, longitude);
+        }
+
+        public Snapshot withLocation(double latitude, double longitude) {
+            return new Snapshot(language, refreshRate, "", latitude, longitude);
+        }
+
+        public Snapshot withLocationName(String locationName) {
+            return new Snapshot(language, refreshRate, locationName, Double.NaN, Double.NaN);
+        }
+
+        public Snapshot withoutLocation() {
+            return new Snapshot(language, refreshRate, "", Double.NaN, Double.NaN);
+        }
+
+        @Override
+        public JSONObject serialize() throws JSONException {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("language", language);
+            jsonObject.put("refreshRate", refreshRate);
+            if (hasFixedLocation()) {
+                jsonObject.put("location", new JSONArray(Arrays.asList(latitude, longitude)));
+            } else if (!locationName.isEmpty()) {
+                jsonObject.put("location", locationName);
+            }
+            return jsonObject;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Snapshot snapshot = (Snapshot) o;
+            return refreshRate == snapshot.refreshRate && Double.compare(latitude, snapshot.latitude) == 0 && Double.compare(longitude, snapshot.longitude) == 0 && language.equals(snapshot.language) && locationName.equals(snapshot.locationName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(language, refreshRate, locationName, latitude, longitude);
+        }
+    }
+
+}
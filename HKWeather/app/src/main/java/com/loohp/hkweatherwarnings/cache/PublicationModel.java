@@ -0,0 +1,279 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.cache;
+
+import android.content.Context;
+
+import com.loohp.hkweatherwarnings.weather.CurrentWeatherInfo;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PublicationModel implements JSONSerializable {
+
+    public static final String FILE_NAME = "publication_model.json";
+
+    public static final long PUBLICATION_LAG = 90000;
+    public static final long RETRY_INTERVAL = 300000;
+    public static final double SMOOTHING = 0.25;
+    public static final long MIN_OBSERVED_INTERVAL = 30000;
+    public static final long MAX_OBSERVED_INTERVAL = 86400000;
+
+    public static final Map<CurrentWeatherInfo.DataSource, Long> DEFAULT_INTERVALS;
+
+    static {
+        Map<CurrentWeatherInfo.DataSource, Long> defaultIntervals = new EnumMap<>(CurrentWeatherInfo.DataSource.class);
+        defaultIntervals.put(CurrentWeatherInfo.DataSource.TEMPERATURE, 60000L);
+        defaultIntervals.put(CurrentWeatherInfo.DataSource.HUMIDITY, 60000L);
+        defaultIntervals.put(CurrentWeatherInfo.DataSource.WIND, 600000L);
+        defaultIntervals.put(CurrentWeatherInfo.DataSource.CURRENT_WEATHER, 3600000L);
+        defaultIntervals.put(CurrentWeatherInfo.DataSource.CHANCE_OF_RAIN, 3600000L);
+        defaultIntervals.put(CurrentWeatherInfo.DataSource.TODAY_FORECAST, 43200000L);
+        defaultIntervals.put(CurrentWeatherInfo.DataSource.LOCAL_FORECAST, 10800000L);
+        DEFAULT_INTERVALS = Collections.unmodifiableMap(defaultIntervals);
+    }
+
+    public static PublicationModel load(Context context) {
+        AtomicFileStore file = new AtomicFileStore(FILE_NAME);
+        PublicationModel model = new PublicationModel(file);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openRead(context), StandardCharsets.UTF_8))) {
+            model.deserialize(new JSONObject(reader.lines().collect(Collectors.joining())));
+        } catch (FileNotFoundException ignore) {
+        } catch (IOException | JSONException | RuntimeException e) {
+            e.printStackTrace();
+        }
+        return model;
+    }
+
+    private final AtomicFileStore file;
+    private final Map<CurrentWeatherInfo.DataSource, Entry> entries;
+    private long displayAgeTotal;
+    private long displayCount;
+    private boolean changed;
+
+    private PublicationModel(AtomicFileStore file) {
+        this.file = file;
+        this.entries = new EnumMap<>(CurrentWeatherInfo.DataSource.class);
+    }
+
+    private void deserialize(JSONObject jsonObject) {
+        JSONObject sourcesObject = jsonObject.optJSONObject("sources");
+        if (sourcesObject != null) {
+            for (Iterator<String> itr = sourcesObject.keys(); itr.hasNext();) {
+                String key = itr.next();
+                JSONObject entryObject = sourcesObject.optJSONObject(key);
+                try {
+                    CurrentWeatherInfo.DataSource source = CurrentWeatherInfo.DataSource.valueOf(key);
+                    if (entryObject != null && DEFAULT_INTERVALS.containsKey(source)) {
+                        entries.put(source, new Entry(entryObject.optLong("lastPublished", -1), entryObject.optLong("interval", DEFAULT_INTERVALS.get(source))));
+                    }
+                } catch (IllegalArgumentException ignore) {
+                }
+            }
+        }
+        displayAgeTotal = jsonObject.optLong("displayAgeTotal");
+        displayCount = jsonObject.optLong("displayCount");
+    }
+
+    public synchronized void observe(CurrentWeatherInfo.DataSource source, long publishedAt) {
+        Long defaultInterval = DEFAULT_INTERVALS.get(source);
+        if (defaultInterval == null || publishedAt <= 0) {
+            return;
+        }
+        Entry entry = entries.get(source);
+        if (entry == null) {
+            entries.put(source, new Entry(publishedAt, defaultInterval));
+            changed = true;
+            return;
+        }
+        if (publishedAt <= entry.lastPublished) {
+            return;
+        }
+        if (entry.lastPublished > 0) {
+            long gap = publishedAt - entry.lastPublished;
+            long sample = gap / Math.max(1, Math.round((double) gap / entry.interval));
+            if (sample >= MIN_OBSERVED_INTERVAL && sample <= MAX_OBSERVED_INTERVAL) {
+                entry.interval = Math.round(entry.interval * (1 - SMOOTHING) + sample * SMOOTHING);
+            }
+        }
+        entry.lastPublished = publishedAt;
+        changed = true;
+    }
+
+    public synchronized long getLastPublished(CurrentWeatherInfo.DataSource source) {
+        Entry entry = entries.get(source);
+        return entry == null ? -1 : entry.lastPublished;
+    }
+
+    public synchronized long getInterval(CurrentWeatherInfo.DataSource source) {
+        Entry entry = entries.get(source);
+        if (entry != null) {
+            return entry.interval;
+        }
+        Long defaultInterval = DEFAULT_INTERVALS.get(source);
+        return defaultInterval == null ? -1 : defaultInterval;
+    }
+
+    public synchronized long getNextPublication(CurrentWeatherInfo.DataSource source) {
+        Entry entry = entries.get(source);
+        return entry == null || entry.lastPublished <= 0 ? -1 : entry.lastPublished + entry.interval;
+    }
+
+    public synchronized boolean isDue(CurrentWeatherInfo.DataSource source, long lastFetched, long now) {
+        long nextPublication = getNextPublication(source);
+        if (lastFetched < 0 || nextPublication < 0) {
+            return true;
+        }
+        long fetchAfter = nextPublication + PUBLICATION_LAG;
+        if (now < fetchAfter) {
+            return false;
+        }
+        return lastFetched < fetchAfter || now - lastFetched >= RETRY_INTERVAL;
+    }
+
+    public synchronized long getLatestExpectedPublication(long from, long to, long minInterval, long maxInterval) {
+        long latest = -1;
+        for (Entry entry : entries.values()) {
+            if (entry.lastPublished <= 0 || entry.interval < minInterval || entry.interval > maxInterval) {
+                continue;
+            }
+            long periods = Math.floorDiv(to - PUBLICATION_LAG - entry.lastPublished, entry.interval);
+            if (periods < 1) {
+                continue;
+            }
+            long expected = entry.lastPublished + periods * entry.interval + PUBLICATION_LAG;
+            if (expected >= from && expected > latest) {
+                latest = expected;
+            }
+        }
+        return latest;
+    }
+
+    public synchronized void recordDisplay(CurrentWeatherInfo info, long now) {
+        long total = 0;
+        int count = 0;
+        for (CurrentWeatherInfo.DataSource source : DEFAULT_INTERVALS.keySet()) {
+            long fetched = info.getDataSourceUpdateTime(source);
+            if (fetched < 0) {
+                continue;
+            }
+            Entry entry = entries.get(source);
+            long published = entry != null && entry.lastPublished > 0 && entry.lastPublished <= fetched ? entry.lastPublished : fetched;
+            total += Math.max(0, now - published);
+            count++;
+        }
+        if (count > 0) {
+            displayAgeTotal += total / count;
+            displayCount++;
+            changed = true;
+        }
+    }
+
+    public synchronized DisplayAge takeDisplayAge() {
+        DisplayAge displayAge = new DisplayAge(displayCount == 0 ? -1 : displayAgeTotal / displayCount, displayCount);
+        if (displayCount > 0) {
+            displayAgeTotal = 0;
+            displayCount = 0;
+            changed = true;
+        }
+        return displayAge;
+    }
+
+    public void saveIfChanged(Context context) {
+        synchronized (this) {
+            if (!changed) {
+                return;
+            }
+            changed = false;
+        }
+        save(context);
+    }
+
+    public void save(Context context) {
+        file.write(context, out -> {
+            try {
+                out.write(serialize().toString().getBytes(StandardCharsets.UTF_8));
+            } catch (JSONException e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    @Override
+    public synchronized JSONObject serialize() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        JSONObject sourcesObject = new JSONObject();
+        for (Map.Entry<CurrentWeatherInfo.DataSource, Entry> entry : entries.entrySet()) {
+            JSONObject entryObject = new JSONObject();
+            entryObject.put("lastPublished", entry.getValue().lastPublished);
+            entryObject.put("interval", entry.getValue().interval);
+            sourcesObject.put(entry.getKey().name(), entryObject);
+        }
+        jsonObject.put("sources", sourcesObject);
+        jsonObject.put("displayAgeTotal", displayAgeTotal);
+        jsonObject.put("displayCount", displayCount);
+        return jsonObject;
+    }
+
+    private static class Entry {
+
+        private long lastPublished;
+        private long interval;
+
+        private Entry(long lastPublished, long interval) {
+            this.lastPublished = lastPublished;
+            this.interval = interval;
+        }
+
+    }
+
+    public static class DisplayAge {
+
+        private final long average;
+        private final long count;
+
+        private DisplayAge(long average, long count) {
+            this.average = average;
+            this.count = count;
+        }
+
+        public long getAverage() {
+            return average;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+    }
+
+}
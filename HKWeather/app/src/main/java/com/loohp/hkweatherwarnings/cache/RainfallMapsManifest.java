@@ -0,0 +1,135 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.cache;
+
+import android.content.Context;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class RainfallMapsManifest implements JSONSerializable {
+
+    public static final String FILE_NAME = "rainfall_maps_manifest.json";
+
+    private static final DateTimeFormatter FRAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    public static RainfallMapsManifest load(Context context) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getApplicationContext().openFileInput(FILE_NAME), StandardCharsets.UTF_8))) {
+            return deserialize(new JSONObject(reader.lines().collect(Collectors.joining())));
+        } catch (FileNotFoundException e) {
+            return new RainfallMapsManifest();
+        } catch (IOException | JSONException | RuntimeException e) {
+            e.printStackTrace();
+            return new RainfallMapsManifest();
+        }
+    }
+
+    public static RainfallMapsManifest deserialize(JSONObject jsonObject) {
+        RainfallMapsManifest manifest = new RainfallMapsManifest();
+        for (Iterator<String> itr = jsonObject.keys(); itr.hasNext(); ) {
+            String lang = itr.next();
+            JSONArray array = jsonObject.optJSONArray(lang);
+            if (array == null) {
+                continue;
+            }
+            NavigableSet<LocalDateTime> frames = new TreeSet<>();
+            for (int i = 0; i < array.length(); i++) {
+                frames.add(LocalDateTime.parse(array.optString(i), FRAME_FORMATTER));
+            }
+            manifest.frames.put(lang, frames);
+        }
+        return manifest;
+    }
+
+    private final Map<String, NavigableSet<LocalDateTime>> frames;
+    private boolean changed;
+
+    public RainfallMapsManifest() {
+        this.frames = new HashMap<>();
+        this.changed = false;
+    }
+
+    public synchronized boolean contains(String lang, LocalDateTime frame) {
+        NavigableSet<LocalDateTime> known = frames.get(lang);
+        return known != null && known.contains(frame);
+    }
+
+    public synchronized void add(String lang, LocalDateTime frame) {
+        changed |= frames.computeIfAbsent(lang, k -> new TreeSet<>()).add(frame);
+    }
+
+    public synchronized void prune(String lang, LocalDateTime oldest) {
+        NavigableSet<LocalDateTime> known = frames.get(lang);
+        if (known == null) {
+            return;
+        }
+        NavigableSet<LocalDateTime> expired = known.headSet(oldest, false);
+        if (!expired.isEmpty()) {
+            expired.clear();
+            changed = true;
+        }
+    }
+
+    public synchronized void saveIfChanged(Context context) {
+        if (!changed) {
+            return;
+        }
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(context.getApplicationContext().openFileOutput(FILE_NAME, Context.MODE_PRIVATE), StandardCharsets.UTF_8))) {
+            pw.write(serialize().toString());
+            pw.flush();
+            changed = false;
+        } catch (IOException | JSONException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized JSONObject serialize() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        for (Map.Entry<String, NavigableSet<LocalDateTime>> entry : frames.entrySet()) {
+            JSONArray array = new JSONArray();
+            for (LocalDateTime frame : entry.getValue()) {
+                array.put(frame.format(FRAME_FORMATTER));
+            }
+            jsonObject.put(entry.getKey(), array);
+        }
+        return jsonObject;
+    }
+
+}
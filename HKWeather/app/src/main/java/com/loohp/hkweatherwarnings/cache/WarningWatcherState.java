@@ -0,0 +1,170 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.cache;
+
+import android.content.Context;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+public class WarningWatcherState implements JSONSerializable {
+
+    public static final String FILE_NAME = "warning_watcher.json";
+
+    public static WarningWatcherState load(Context context) {
+        AtomicFileStore file = new AtomicFileStore(FILE_NAME);
+        WarningWatcherState state = new WarningWatcherState(file);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openRead(context), StandardCharsets.UTF_8))) {
+            state.deserialize(new JSONObject(reader.lines().collect(Collectors.joining())));
+        } catch (FileNotFoundException ignore) {
+        } catch (IOException | JSONException | RuntimeException e) {
+            e.printStackTrace();
+        }
+        return state;
+    }
+
+    private final AtomicFileStore file;
+    private String summaryHash;
+    private String etag;
+    private String lastModified;
+    private long day;
+    private long bytes;
+    private int wakeups;
+    private int notModified;
+    private int escalations;
+
+    private WarningWatcherState(AtomicFileStore file) {
+        this.file = file;
+        this.day = -1;
+    }
+
+    private void deserialize(JSONObject jsonObject) {
+        summaryHash = jsonObject.optString("summaryHash", null);
+        etag = jsonObject.optString("etag", null);
+        lastModified = jsonObject.optString("lastModified", null);
+        day = jsonObject.optLong("day", -1);
+        bytes = jsonObject.optLong("bytes");
+        wakeups = jsonObject.optInt("wakeups");
+        notModified = jsonObject.optInt("notModified");
+        escalations = jsonObject.optInt("escalations");
+    }
+
+    public synchronized String getEtag() {
+        return etag;
+    }
+
+    public synchronized String getLastModified() {
+        return lastModified;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getWakeups() {
+        return wakeups;
+    }
+
+    public synchronized int getNotModified() {
+        return notModified;
+    }
+
+    public synchronized int getEscalations() {
+        return escalations;
+    }
+
+    public synchronized long getDay() {
+        return day;
+    }
+
+    public synchronized boolean isOverBudget(long byteBudget, int wakeupBudget) {
+        return bytes >= byteBudget || wakeups >= wakeupBudget;
+    }
+
+    public synchronized boolean startDay(long day) {
+        if (this.day == day) {
+            return false;
+        }
+        this.day = day;
+        bytes = 0;
+        wakeups = 0;
+        notModified = 0;
+        escalations = 0;
+        return true;
+    }
+
+    public synchronized void recordWakeup() {
+        wakeups++;
+    }
+
+    public synchronized void recordNotModified(long bytes) {
+        this.bytes += bytes;
+        notModified++;
+    }
+
+    public synchronized boolean recordSummary(String summaryHash, String etag, String lastModified, long bytes) {
+        this.bytes += bytes;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        if (summaryHash.equals(this.summaryHash)) {
+            return false;
+        }
+        boolean escalate = this.summaryHash != null;
+        this.summaryHash = summaryHash;
+        if (escalate) {
+            escalations++;
+        }
+        return escalate;
+    }
+
+    public void save(Context context) {
+        file.write(context, out -> {
+            try {
+                out.write(serialize().toString().getBytes(StandardCharsets.UTF_8));
+            } catch (JSONException e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    @Override
+    public synchronized JSONObject serialize() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("summaryHash", summaryHash);
+        jsonObject.put("etag", etag);
+        jsonObject.put("lastModified", lastModified);
+        jsonObject.put("day", day);
+        jsonObject.put("bytes", bytes);
+        jsonObject.put("wakeups", wakeups);
+        jsonObject.put("notModified", notModified);
+        jsonObject.put("escalations", escalations);
+        return jsonObject;
+    }
+
+}
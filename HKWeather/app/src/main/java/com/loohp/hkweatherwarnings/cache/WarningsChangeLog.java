@@ -0,0 +1,94 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.cache;
+
+import android.content.Context;
+
+import com.loohp.hkweatherwarnings.weather.WeatherWarningsChange;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class WarningsChangeLog {
+
+    public static final String FILE_NAME = "warnings_changes.bin";
+    public static final int MAX_ENTRIES = 64;
+
+    public static WarningsChangeLog load(Context context) {
+        AtomicFileStore file = new AtomicFileStore(FILE_NAME);
+        List<WeatherWarningsChange> entries;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(file.openRead(context)))) {
+            BinaryCodec.readHeader(input);
+            entries = BinaryCodec.readList(input, WeatherWarningsChange::deserialize);
+        } catch (FileNotFoundException e) {
+            entries = new ArrayList<>();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            entries = new ArrayList<>();
+        }
+        return new WarningsChangeLog(context.getApplicationContext(), file, entries);
+    }
+
+    private final Context context;
+    private final AtomicFileStore file;
+    private volatile List<WeatherWarningsChange> entries;
+
+    private WarningsChangeLog(Context context, AtomicFileStore file, List<WeatherWarningsChange> entries) {
+        this.context = context;
+        this.file = file;
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public List<WeatherWarningsChange> getEntries() {
+        return entries;
+    }
+
+    public synchronized void record(List<WeatherWarningsChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<WeatherWarningsChange> updated = new ArrayList<>(entries);
+        updated.addAll(changes);
+        if (updated.size() > MAX_ENTRIES) {
+            updated = new ArrayList<>(updated.subList(updated.size() - MAX_ENTRIES, updated.size()));
+        }
+        List<WeatherWarningsChange> snapshot = Collections.unmodifiableList(updated);
+        entries = snapshot;
+        file.write(context, out -> writeTo(out, snapshot));
+    }
+
+    private static void writeTo(OutputStream out, List<WeatherWarningsChange> entries) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out));
+        BinaryCodec.writeHeader(output);
+        BinaryCodec.writeList(output, entries);
+        output.flush();
+    }
+
+}
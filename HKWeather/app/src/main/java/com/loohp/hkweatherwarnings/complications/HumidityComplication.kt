@@ -37,7 +37,7 @@ import com.loohp.hkweatherwarnings.MainActivity
 import com.loohp.hkweatherwarnings.R
 import com.loohp.hkweatherwarnings.Section
 import com.loohp.hkweatherwarnings.shared.Shared
-import java.util.concurrent.ForkJoinPool
+import com.loohp.hkweatherwarnings.utils.FetchPriority
 import java.util.concurrent.ThreadLocalRandom
 
 class HumidityComplication : ComplicationDataSourceService() {
@@ -82,11 +82,11 @@ class HumidityComplication : ComplicationDataSourceService() {
     }
 
     override fun onComplicationRequest(request: ComplicationRequest, listener: ComplicationRequestListener) {
-        ForkJoinPool.commonPool().execute {
-            val weatherInfo = Shared.currentWeatherInfo.getLatestValue(this, ForkJoinPool.commonPool()).orIntermediateValue
+        Shared.currentWeatherInfo.getValueWithin(this, Shared.COMPLICATION_RESPONSE_DEADLINE, priority = FetchPriority.TILE).thenAccept { served ->
+            val weatherInfo = served.value
             if (weatherInfo == null) {
                 listener.onComplicationData(null)
-                return@execute
+                return@thenAccept
             }
             val humidity = weatherInfo.currentHumidity
             val icon = Icon.createWithResource(this, R.mipmap.humidity)
@@ -32,8 +32,8 @@ import androidx.wear.watchface.complications.datasource.ComplicationRequest
 import com.loohp.hkweatherwarnings.MainActivity
 import com.loohp.hkweatherwarnings.Section
 import com.loohp.hkweatherwarnings.shared.Shared
+import com.loohp.hkweatherwarnings.utils.FetchPriority
 import java.time.LocalDate
-import java.util.concurrent.ForkJoinPool
 import java.util.concurrent.ThreadLocalRandom
 
 class LunarDateComplication : ComplicationDataSourceService() {
@@ -62,11 +62,10 @@ class LunarDateComplication : ComplicationDataSourceService() {
     }
 
     override fun onComplicationRequest(request: ComplicationRequest, listener: ComplicationRequestListener) {
-        ForkJoinPool.commonPool().execute {
-            val lunarDate = Shared.convertedLunarDates.getValue(LocalDate.now(Shared.HK_TIMEZONE.toZoneId()), this, ForkJoinPool.commonPool()).get()
+        Shared.convertedLunarDates.getValue(LocalDate.now(Shared.HK_TIMEZONE.toZoneId()), this, FetchPriority.TILE).thenAccept { lunarDate ->
             if (lunarDate == null) {
                 listener.onComplicationData(null)
-                return@execute
+                return@thenAccept
             }
             val intent = Intent(this, MainActivity::class.java)
             intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK)
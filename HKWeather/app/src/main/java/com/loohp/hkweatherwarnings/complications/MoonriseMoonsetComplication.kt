@@ -35,12 +35,15 @@ import androidx.wear.watchface.complications.datasource.ComplicationRequest
 import com.loohp.hkweatherwarnings.MainActivity
 import com.loohp.hkweatherwarnings.R
 import com.loohp.hkweatherwarnings.Section
+import com.loohp.hkweatherwarnings.shared.Registry
 import com.loohp.hkweatherwarnings.shared.Shared
+import com.loohp.hkweatherwarnings.utils.AstronomyUtils
+import com.loohp.hkweatherwarnings.utils.FetchPriority
 import com.loohp.hkweatherwarnings.utils.nextOccurrenceIsCloserThan
 import java.text.SimpleDateFormat
+import java.time.LocalDate
 import java.time.LocalTime
 import java.time.format.DateTimeFormatter
-import java.util.concurrent.ForkJoinPool
 import java.util.concurrent.ThreadLocalRandom
 
 class MoonriseMoonsetComplication : ComplicationDataSourceService() {
@@ -73,17 +76,24 @@ class MoonriseMoonsetComplication : ComplicationDataSourceService() {
     }
 
     override fun onComplicationRequest(request: ComplicationRequest, listener: ComplicationRequestListener) {
-        ForkJoinPool.commonPool().execute {
-            val weatherInfo = Shared.currentWeatherInfo.getLatestValue(this, ForkJoinPool.commonPool()).orIntermediateValue
-            if (weatherInfo == null) {
+        Shared.currentWeatherInfo.getValueWithin(this, Shared.COMPLICATION_RESPONSE_DEADLINE, priority = FetchPriority.TILE).thenAccept { served ->
+            val weatherInfo = served.value
+            val (moonriseTime, moonsetTime) = if (weatherInfo == null) {
+                val zone = Shared.HK_TIMEZONE.toZoneId()
+                val location = Registry.getInstance(this).location.second ?: Shared.DEFAULT_LOCATION.location
+                AstronomyUtils.getMoonRiseTransitSet(LocalDate.now(zone), location.latitude, location.longitude, zone).let { it.riseTime to it.setTime }
+            } else {
+                weatherInfo.moonriseTime to weatherInfo.moonsetTime
+            }
+            if (moonriseTime == null || moonsetTime == null) {
                 listener.onComplicationData(null)
-                return@execute
+                return@thenAccept
             }
             val timeFormat = DateTimeFormatter.ofPattern(DateFormat.getTimeFormat(this).let { if (it is SimpleDateFormat) it.toPattern() else "HH:mm" })
-            val (time, icon) = if (weatherInfo.moonriseTime.nextOccurrenceIsCloserThan(weatherInfo.moonsetTime)) {
-                timeFormat.format(weatherInfo.moonriseTime) to Icon.createWithResource(this, R.mipmap.moonrise)
+            val (time, icon) = if (moonriseTime.nextOccurrenceIsCloserThan(moonsetTime)) {
+                timeFormat.format(moonriseTime) to Icon.createWithResource(this, R.mipmap.moonrise)
             } else {
-                timeFormat.format(weatherInfo.moonsetTime) to Icon.createWithResource(this, R.mipmap.moonset)
+                timeFormat.format(moonsetTime) to Icon.createWithResource(this, R.mipmap.moonset)
             }
             val intent = Intent(this, MainActivity::class.java)
             intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK)
@@ -35,8 +35,10 @@ import com.loohp.hkweatherwarnings.R
 import com.loohp.hkweatherwarnings.Section
 import com.loohp.hkweatherwarnings.shared.Registry
 import com.loohp.hkweatherwarnings.shared.Shared
-import java.util.concurrent.ForkJoinPool
+import com.loohp.hkweatherwarnings.utils.FetchPriority
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
 
 class WeatherAlertsComplication : ComplicationDataSourceService() {
 
@@ -58,13 +60,17 @@ class WeatherAlertsComplication : ComplicationDataSourceService() {
     }
 
     override fun onComplicationRequest(request: ComplicationRequest, listener: ComplicationRequestListener) {
-        ForkJoinPool.commonPool().execute {
-            val weatherInfo = Shared.currentWeatherInfo.getLatestValue(this, ForkJoinPool.commonPool()).orIntermediateValue
-            val warnings = Shared.currentWarnings.getLatestValue(this, ForkJoinPool.commonPool()).orIntermediateValue
-            val tips = Shared.currentTips.getLatestValue(this, ForkJoinPool.commonPool()).orIntermediateValue
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Shared.COMPLICATION_RESPONSE_DEADLINE)
+        val weatherInfoFuture = Shared.currentWeatherInfo.serveWithin(this, Shared.currentWeatherInfo.getLatestValue(this, priority = FetchPriority.TILE), deadline)
+        val warningsFuture = Shared.currentWarnings.serveWithin(this, Shared.currentWarnings.getLatestValue(this, priority = FetchPriority.TILE), deadline)
+        val tipsFuture = Shared.currentTips.serveWithin(this, Shared.currentTips.getLatestValue(this, priority = FetchPriority.TILE), deadline)
+        CompletableFuture.allOf(weatherInfoFuture, warningsFuture, tipsFuture).thenAccept {
+            val weatherInfo = weatherInfoFuture.join().value
+            val warnings = warningsFuture.join().value
+            val tips = tipsFuture.join().value
             if (weatherInfo == null || tips == null || warnings == null) {
                 listener.onComplicationData(null)
-                return@execute
+                return@thenAccept
             }
             val (text, icon) = if (warnings.isEmpty() && tips.isEmpty()) {
                 (if (Registry.getInstance(this).language == "en") "No weather alerts" else "沒有任何天氣警告或提示") to Icon.createWithResource(this, weatherInfo.weatherIcon.iconId)
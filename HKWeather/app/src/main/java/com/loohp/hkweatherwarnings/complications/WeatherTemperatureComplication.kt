@@ -39,8 +39,8 @@ import com.loohp.hkweatherwarnings.R
 import com.loohp.hkweatherwarnings.Section
 import com.loohp.hkweatherwarnings.shared.Registry
 import com.loohp.hkweatherwarnings.shared.Shared
+import com.loohp.hkweatherwarnings.utils.FetchPriority
 import com.loohp.hkweatherwarnings.weather.WeatherStatusIcon
-import java.util.concurrent.ForkJoinPool
 import java.util.concurrent.ThreadLocalRandom
 
 class WeatherTemperatureComplication : ComplicationDataSourceService() {
@@ -80,11 +80,11 @@ class WeatherTemperatureComplication : ComplicationDataSourceService() {
     }
 
     override fun onComplicationRequest(request: ComplicationRequest, listener: ComplicationRequestListener) {
-        ForkJoinPool.commonPool().execute {
-            val weatherInfo = Shared.currentWeatherInfo.getLatestValue(this, ForkJoinPool.commonPool()).orIntermediateValue
+        Shared.currentWeatherInfo.getValueWithin(this, Shared.COMPLICATION_RESPONSE_DEADLINE, priority = FetchPriority.TILE).thenAccept { served ->
+            val weatherInfo = served.value
             if (weatherInfo == null) {
                 listener.onComplicationData(null)
-                return@execute
+                return@thenAccept
             }
             val temperature = weatherInfo.currentTemperature
             val icon = Icon.createWithResource(this, weatherInfo.weatherIcon.iconId)
@@ -0,0 +1,175 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.shared;
+
+import com.loohp.hkweatherwarnings.utils.AstronomyUtils;
+import com.loohp.hkweatherwarnings.weather.LunarDate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LunarCalendar {
+
+    public static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(2100, 12, 31);
+
+    private static final ZoneOffset CHINA_STANDARD_TIME = ZoneOffset.ofHours(8);
+    private static final ZoneOffset BEIJING_MEAN_TIME = ZoneOffset.ofHoursMinutesSeconds(7, 45, 40);
+    private static final LocalDate BEIJING_MEAN_TIME_START = LocalDate.of(1912, 1, 1);
+    private static final LocalDate BEIJING_MEAN_TIME_END = LocalDate.of(1929, 1, 1);
+
+    private static final String HEAVENLY_STEMS = "甲乙丙丁戊己庚辛壬癸";
+    private static final String EARTHLY_BRANCHES = "子丑寅卯辰巳午未申酉戌亥";
+    private static final String ZODIACS = "鼠牛虎兔龍蛇馬羊猴雞狗豬";
+    private static final String[] MONTH_NAMES = {"正月", "二月", "三月", "四月", "五月", "六月", "七月", "八月", "九月", "十月", "十一月", "十二月"};
+    private static final String[] DAY_NAMES = {
+            "初一", "初二", "初三", "初四", "初五", "初六", "初七", "初八", "初九", "初十",
+            "十一", "十二", "十三", "十四", "十五", "十六", "十七", "十八", "十九", "二十",
+            "廿一", "廿二", "廿三", "廿四", "廿五", "廿六", "廿七", "廿八", "廿九", "三十"
+    };
+    private static final String[] SOLAR_TERMS = {
+            "春分", "清明", "穀雨", "立夏", "小滿", "芒種", "夏至", "小暑", "大暑", "立秋", "處暑", "白露",
+            "秋分", "寒露", "霜降", "立冬", "小雪", "大雪", "冬至", "小寒", "大寒", "立春", "雨水", "驚蟄"
+    };
+
+    private static final Map<Integer, Sui> SUI_CACHE = new ConcurrentHashMap<>();
+
+    public static boolean isSupported(LocalDate date) {
+        return !date.isBefore(MIN_DATE) && !date.isAfter(MAX_DATE);
+    }
+
+    public static LunarDate toLunarDate(LocalDate date) {
+        if (!isSupported(date)) {
+            throw new IllegalArgumentException(date + " is outside of " + MIN_DATE + " to " + MAX_DATE);
+        }
+        Sui sui = SUI_CACHE.computeIfAbsent(date.getYear(), Sui::new);
+        if (!date.isBefore(sui.monthStarts[sui.monthStarts.length - 1])) {
+            sui = SUI_CACHE.computeIfAbsent(date.getYear() + 1, Sui::new);
+        }
+        int index = sui.monthStarts.length - 2;
+        while (date.isBefore(sui.monthStarts[index])) {
+            index--;
+        }
+        int lunarYear = index < sui.firstMonthIndex ? sui.year - 1 : sui.year;
+        int day = (int) ChronoUnit.DAYS.between(sui.monthStarts[index], date);
+        String year = String.valueOf(HEAVENLY_STEMS.charAt(Math.floorMod(lunarYear - 4, 10))) + EARTHLY_BRANCHES.charAt(Math.floorMod(lunarYear - 4, 12));
+        String zodiac = String.valueOf(ZODIACS.charAt(Math.floorMod(lunarYear - 4, 12)));
+        String monthDay = (index == sui.leapMonthIndex ? "閏" : "") + MONTH_NAMES[sui.monthNumbers[index] - 1] + DAY_NAMES[day];
+        return new LunarDate(year, zodiac, monthDay, getSolarTerm(date));
+    }
+
+    public static String getSolarTerm(LocalDate date) {
+        double start = AstronomyUtils.toJulianDay(date.atStartOfDay(CHINA_STANDARD_TIME).toInstant());
+        int termAtStart = (int) (AstronomyUtils.getSunApparentLongitude(start) / 15);
+        int termAtEnd = (int) (AstronomyUtils.getSunApparentLongitude(start + 1) / 15);
+        return termAtStart == termAtEnd ? null : SOLAR_TERMS[termAtEnd];
+    }
+
+    private static LocalDate toChinaDate(double julianDay) {
+        return AstronomyUtils.fromJulianDay(julianDay).atOffset(CHINA_STANDARD_TIME).toLocalDate();
+    }
+
+    private static LocalDate toNewMoonDate(double julianDay) {
+        Instant instant = AstronomyUtils.fromJulianDay(julianDay);
+        LocalDate date = instant.atOffset(CHINA_STANDARD_TIME).toLocalDate();
+        if (!date.isBefore(BEIJING_MEAN_TIME_START) && date.isBefore(BEIJING_MEAN_TIME_END)) {
+            return instant.atOffset(BEIJING_MEAN_TIME).toLocalDate();
+        }
+        return date;
+    }
+
+    private static double winterSolstice(int year) {
+        double estimate = AstronomyUtils.toJulianDay(LocalDate.of(year, 12, 21).atTime(LocalTime.NOON).toInstant(ZoneOffset.UTC));
+        return AstronomyUtils.findSunApparentLongitude(270, estimate);
+    }
+
+    private static long lunationOnOrBefore(LocalDate date) {
+        double endOfDay = AstronomyUtils.toJulianDay(date.plusDays(1).atStartOfDay(CHINA_STANDARD_TIME).toInstant());
+        long lunation = AstronomyUtils.getLunationNumber(endOfDay) + 1;
+        while (toNewMoonDate(AstronomyUtils.getNewMoon(lunation)).isAfter(date)) {
+            lunation--;
+        }
+        return lunation;
+    }
+
+    private static class Sui {
+
+        private final int year;
+        private final LocalDate[] monthStarts;
+        private final int[] monthNumbers;
+        private final int leapMonthIndex;
+        private final int firstMonthIndex;
+
+        private Sui(int year) {
+            this.year = year;
+            double previousSolstice = winterSolstice(year - 1);
+            long firstLunation = lunationOnOrBefore(toChinaDate(previousSolstice));
+            long lastLunation = lunationOnOrBefore(toChinaDate(winterSolstice(year)));
+            int months = (int) (lastLunation - firstLunation);
+            this.monthStarts = new LocalDate[months + 1];
+            for (int i = 0; i <= months; i++) {
+                monthStarts[i] = toNewMoonDate(AstronomyUtils.getNewMoon(firstLunation + i));
+            }
+
+            int leapMonthIndex = -1;
+            if (months == 13) {
+                LocalDate[] principalTerms = new LocalDate[13];
+                for (int i = 0; i < principalTerms.length; i++) {
+                    principalTerms[i] = toChinaDate(AstronomyUtils.findSunApparentLongitude((270 + 30 * i) % 360, previousSolstice + i * 30.44));
+                }
+                for (int i = 0; i < months && leapMonthIndex < 0; i++) {
+                    boolean hasPrincipalTerm = false;
+                    for (LocalDate term : principalTerms) {
+                        if (!term.isBefore(monthStarts[i]) && term.isBefore(monthStarts[i + 1])) {
+                            hasPrincipalTerm = true;
+                            break;
+                        }
+                    }
+                    if (!hasPrincipalTerm) {
+                        leapMonthIndex = i;
+                    }
+                }
+            }
+            this.leapMonthIndex = leapMonthIndex;
+
+            this.monthNumbers = new int[months];
+            int firstMonthIndex = months;
+            int number = 10;
+            for (int i = 0; i < months; i++) {
+                if (i != leapMonthIndex) {
+                    number = number % 12 + 1;
+                }
+                monthNumbers[i] = number;
+                if (number == 1 && i != leapMonthIndex && firstMonthIndex == months) {
+                    firstMonthIndex = i;
+                }
+            }
+            this.firstMonthIndex = firstMonthIndex;
+        }
+
+    }
+
+}
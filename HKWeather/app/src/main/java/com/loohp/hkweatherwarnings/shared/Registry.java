@@ -26,18 +26,29 @@ import android.os.Bundle;
 import android.util.Pair;
 
 import androidx.wear.tiles.TileService;
+import androidx.work.ExistingWorkPolicy;
 
-import com.google.common.util.concurrent.AtomicDouble;
 import com.google.firebase.analytics.FirebaseAnalytics;
-import com.loohp.hkweatherwarnings.R;
+import com.loohp.hkweatherwarnings.cache.PreferencesStore;
+import com.loohp.hkweatherwarnings.cache.PublicationModel;
+import com.loohp.hkweatherwarnings.cache.RainfallMapsManifest;
+import com.loohp.hkweatherwarnings.cache.WarningWatcherState;
+import com.loohp.hkweatherwarnings.cache.WarningsChangeLog;
 import com.loohp.hkweatherwarnings.tiles.WeatherOverviewTile;
 import com.loohp.hkweatherwarnings.tiles.WeatherTipsTile;
 import com.loohp.hkweatherwarnings.tiles.WeatherWarningsTile;
+import com.loohp.hkweatherwarnings.utils.AstronomyUtils;
+import com.loohp.hkweatherwarnings.utils.CSVUtils;
 import com.loohp.hkweatherwarnings.utils.CompletableFutureWithProgress;
+import com.loohp.hkweatherwarnings.utils.FetchGraph;
+import com.loohp.hkweatherwarnings.utils.FetchGroup;
+import com.loohp.hkweatherwarnings.utils.FetchPriority;
 import com.loohp.hkweatherwarnings.utils.FutureWithProgress;
 import com.loohp.hkweatherwarnings.utils.HTTPRequestUtils;
 import com.loohp.hkweatherwarnings.utils.JsonUtils;
 import com.loohp.hkweatherwarnings.utils.LocationUtils;
+import com.loohp.hkweatherwarnings.utils.StationCatalog;
+import com.loohp.hkweatherwarnings.utils.StationIndex;
 import com.loohp.hkweatherwarnings.utils.TimeUtils;
 import com.loohp.hkweatherwarnings.weather.CurrentWeatherInfo;
 import com.loohp.hkweatherwarnings.weather.DisplayableInfo;
@@ -52,20 +63,15 @@ import com.loohp.hkweatherwarnings.weather.RainfallMapsInfo;
 import com.loohp.hkweatherwarnings.weather.SpecialTyphoonInfo;
 import com.loohp.hkweatherwarnings.weather.TropicalCycloneInfo;
 import com.loohp.hkweatherwarnings.weather.WeatherInfo;
-import com.loohp.hkweatherwarnings.weather.WeatherStatusIcon;
 import com.loohp.hkweatherwarnings.weather.WeatherWarningsType;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -84,16 +90,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.Spliterator;
-import java.util.Spliterators;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 public class Registry {
 
@@ -106,21 +110,31 @@ public class Registry {
         return INSTANCE;
     }
 
-    private static final String PREFERENCES_FILE_NAME = "preferences.json";
+    private static final DateTimeFormatter WARNING_DISPATCH_FORMAT_EN = DateTimeFormatter.ofPattern("HH:mm' HKT on 'dd.MM.yyyy", Locale.ENGLISH);
+    private static final DateTimeFormatter WARNING_DISPATCH_FORMAT_ZH = DateTimeFormatter.ofPattern("yyyy年MM月dd日HH時mm分", Locale.TRADITIONAL_CHINESE);
+    private static final Set<CurrentWeatherInfo.DataSource> FIRST_PARTIAL_SOURCES = Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(CurrentWeatherInfo.DataSource.LOCAL_FORECAST, CurrentWeatherInfo.DataSource.HEAT_STRESS_AT_WORK, CurrentWeatherInfo.DataSource.SPECIAL_TYPHOON)));
 
-    private static JSONObject PREFERENCES = null;
+    private static final int LUNAR_CROSS_CHECK_SAMPLE = 20;
 
-    private static List<JSONObject> WEATHER_STATIONS = null;
-    private static List<JSONObject> HUMIDITY_STATIONS = null;
-    private static List<JSONObject> WIND_STATIONS = null;
-    private static JSONObject FORECAST_STATIONS = null;
+    private static volatile PreferencesStore PREFERENCES = null;
+
+    private static RainfallMapsManifest RAINFALL_MAPS_MANIFEST = null;
+    private static WarningsChangeLog WARNINGS_CHANGE_LOG = null;
+    private static WarningWatcherState WARNING_WATCHER_STATE = null;
+    private static PublicationModel PUBLICATION_MODEL = null;
 
     private Registry(Context context) {
+        long start = System.currentTimeMillis();
         try {
+            HTTPRequestUtils.init(context);
             ensureData(context);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        long end = System.currentTimeMillis();
+        Bundle bundle = new Bundle();
+        bundle.putLong("value", end - start);
+        FirebaseAnalytics.getInstance(context).logEvent("registry_init_ms", bundle);
     }
 
     public void updateTileServices(Context context) {
@@ -130,192 +144,95 @@ public class Registry {
     }
 
     public void setLanguage(String language, Context context) {
-        try {
-            if (PREFERENCES == null) {
-                PREFERENCES = new JSONObject();
-            }
-            PREFERENCES.put("language", language);
-            try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(context.getApplicationContext().openFileOutput(PREFERENCES_FILE_NAME, Context.MODE_PRIVATE), StandardCharsets.UTF_8))) {
-                pw.write(PREFERENCES.toString());
-                pw.flush();
-            }
-            updateTileServices(context);
-        } catch (IOException | JSONException e) {
-            throw new RuntimeException(e);
-        }
+        PREFERENCES.update(p -> p.withLanguage(language));
+        updateTileServices(context);
     }
 
     public String getLanguage() {
-        if (PREFERENCES == null) {
-            return "zh";
-        }
-        String language = PREFERENCES.optString("language");
-        if (language.isEmpty()) {
-            return "zh";
-        }
-        return language;
+        return PREFERENCES == null ? PreferencesStore.Snapshot.DEFAULT_LANGUAGE : PREFERENCES.get().getLanguage();
     }
 
     public void setRefreshRate(long refreshRate, Context context) {
-        try {
-            if (PREFERENCES == null) {
-                PREFERENCES = new JSONObject();
-            }
-            PREFERENCES.put("refreshRate", refreshRate);
-            try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(context.getApplicationContext().openFileOutput(PREFERENCES_FILE_NAME, Context.MODE_PRIVATE), StandardCharsets.UTF_8))) {
-                pw.write(PREFERENCES.toString());
-                pw.flush();
-            }
-            Shared.Companion.startBackgroundService(context);
-        } catch (IOException | JSONException e) {
-            throw new RuntimeException(e);
-        }
+        PREFERENCES.update(p -> p.withRefreshRate(refreshRate));
+        Shared.Companion.startBackgroundService(context, ExistingWorkPolicy.REPLACE);
     }
 
     public long getRefreshRate() {
-        if (PREFERENCES == null) {
-            return 1800000;
-        }
-        long refreshRate = PREFERENCES.optLong("refreshRate", -1);
-        if (refreshRate < 0) {
-            return 1800000;
-        }
-        return refreshRate;
+        return PREFERENCES == null ? PreferencesStore.Snapshot.DEFAULT_REFRESH_RATE : PREFERENCES.get().getRefreshRate();
     }
 
     public Pair<String, Location> getLocation() {
         if (PREFERENCES == null) {
             return Pair.create("", null);
         }
-        Object location = PREFERENCES.opt("location");
-        if (location == null) {
-            return Pair.create("", null);
-        }
-        if (location instanceof String) {
-            return Pair.create((String) location, null);
+        PreferencesStore.Snapshot preferences = PREFERENCES.get();
+        if (preferences.hasFixedLocation()) {
+            return Pair.create("", LocationUtils.LocationResult.fromLatLng(preferences.getLatitude(), preferences.getLongitude()).getLocation());
         }
-        JSONArray pos = (JSONArray) location;
-        return Pair.create("", LocationUtils.LocationResult.fromLatLng(pos.optDouble(0), pos.optDouble(1)).getLocation());
+        return Pair.create(preferences.getLocationName(), null);
     }
 
     public void setLocation(Location location, Context context) {
-        try {
-            if (PREFERENCES == null) {
-                PREFERENCES = new JSONObject();
-            }
-            PREFERENCES.put("location", new JSONArray(Arrays.asList(location.getLatitude(), location.getLongitude())));
-            try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(context.getApplicationContext().openFileOutput(PREFERENCES_FILE_NAME, Context.MODE_PRIVATE), StandardCharsets.UTF_8))) {
-                pw.write(PREFERENCES.toString());
-                pw.flush();
-            }
-            updateTileServices(context);
-        } catch (IOException | JSONException e) {
-            throw new RuntimeException(e);
-        }
+        PREFERENCES.update(p -> p.withLocation(location.getLatitude(), location.getLongitude()));
+        updateTileServices(context);
     }
 
     public void setLocationGPS(Context context) {
-        try {
-            if (PREFERENCES == null) {
-                PREFERENCES = new JSONObject();
-            }
-            PREFERENCES.put("location", "GPS");
-            try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(context.getApplicationContext().openFileOutput(PREFERENCES_FILE_NAME, Context.MODE_PRIVATE), StandardCharsets.UTF_8))) {
-                pw.write(PREFERENCES.toString());
-                pw.flush();
-            }
-            updateTileServices(context);
-        } catch (IOException | JSONException e) {
-            throw new RuntimeException(e);
-        }
+        PREFERENCES.update(p -> p.withLocationName(PreferencesStore.Snapshot.GPS_LOCATION));
+        updateTileServices(context);
     }
 
     public void clearLocation(Context context) {
-        try {
-            if (PREFERENCES == null) {
-                return;
-            }
-            PREFERENCES.remove("location");
-            try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(context.getApplicationContext().openFileOutput(PREFERENCES_FILE_NAME, Context.MODE_PRIVATE), StandardCharsets.UTF_8))) {
-                pw.write(PREFERENCES.toString());
-                pw.flush();
-            }
-            updateTileServices(context);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        PREFERENCES.update(PreferencesStore.Snapshot::withoutLocation);
+        updateTileServices(context);
     }
 
-    public List<JSONObject> getWeatherStations() {
-        return WEATHER_STATIONS;
+    public StationIndex getWeatherStations(Context context) {
+        return StationCatalog.getInstance(context).getTemperatureStations();
     }
 
     public double findDistance(double lat1, double lng1, double lat2, double lng2) {
-        lat1 = Math.toRadians(lat1);
-        lat2 = Math.toRadians(lat2);
-        lng1 = Math.toRadians(lng1);
-        lng2 = Math.toRadians(lng2);
-
-        double d_lon = lng2 - lng1;
-        double d_lat = lat2 - lat1;
-        double a = Math.pow(Math.sin(d_lat / 2), 2) + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(d_lon / 2), 2);
-
-        double c = 2 * Math.asin(Math.sqrt(a));
-
-        return c * 6371;
+        return StationIndex.haversine(lat1, lng1, lat2, lng2);
     }
 
-    private void ensureData(Context context) throws IOException {
+    private void ensureData(Context context) {
         if (PREFERENCES != null) {
             return;
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getResources().openRawResource(R.raw.latest_1min_temperature), StandardCharsets.UTF_8))) {
-            WEATHER_STATIONS = JsonUtils.toList(new JSONObject(reader.lines().collect(Collectors.joining())).optJSONArray("features"), JSONObject.class);
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
-        }
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getResources().openRawResource(R.raw.latest_1min_humidity), StandardCharsets.UTF_8))) {
-            HUMIDITY_STATIONS = JsonUtils.toList(new JSONObject(reader.lines().collect(Collectors.joining())).optJSONArray("features"), JSONObject.class);
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
-        }
+        RAINFALL_MAPS_MANIFEST = RainfallMapsManifest.load(context);
+        WARNINGS_CHANGE_LOG = WarningsChangeLog.load(context);
+        WARNING_WATCHER_STATE = WarningWatcherState.load(context);
+        PUBLICATION_MODEL = PublicationModel.load(context);
+        PREFERENCES = PreferencesStore.load(context);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getResources().openRawResource(R.raw.latest_10min_wind), StandardCharsets.UTF_8))) {
-            WIND_STATIONS = JsonUtils.toList(new JSONObject(reader.lines().collect(Collectors.joining())).optJSONArray("features"), JSONObject.class);
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
-        }
+    public WarningsChangeLog getWarningsChangeLog() {
+        return WARNINGS_CHANGE_LOG;
+    }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getResources().openRawResource(R.raw.forecast_stations), StandardCharsets.UTF_8))) {
-            FORECAST_STATIONS = new JSONObject(reader.lines().collect(Collectors.joining())).optJSONObject("stations");
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
-        }
+    public WarningWatcherState getWarningWatcherState() {
+        return WARNING_WATCHER_STATE;
+    }
 
-        List<String> files = Arrays.asList(context.getApplicationContext().fileList());
-        if (files.contains(PREFERENCES_FILE_NAME)) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getApplicationContext().openFileInput(PREFERENCES_FILE_NAME), StandardCharsets.UTF_8))) {
-                PREFERENCES = new JSONObject(reader.lines().collect(Collectors.joining("\n")));
-            } catch (JSONException e) {
-                throw new RuntimeException(e);
-            }
-        } else {
-            try {
-                PREFERENCES = new JSONObject();
-                PREFERENCES.put("language", "zh");
-                PREFERENCES.put("refreshRate", 1800000L);
-            } catch (JSONException e) {
-                throw new RuntimeException(e);
-            }
-        }
+    public PublicationModel getPublicationModel() {
+        return PUBLICATION_MODEL;
     }
 
     public FutureWithProgress<RainfallMapsInfo> getRainfallMaps(Context context) {
+        return getRainfallMaps(context, new FetchGroup(FetchPriority.USER_INTERACTIVE));
+    }
+
+    public FutureWithProgress<RainfallMapsInfo> getRainfallMaps(Context context, FetchGroup group) {
         CompletableFutureWithProgress<RainfallMapsInfo> future = new CompletableFutureWithProgress<>();
         long start = System.currentTimeMillis();
-        new Thread(() -> {
+        future.whenComplete((r, e) -> {
+            long end = System.currentTimeMillis();
+            Bundle bundle = new Bundle();
+            bundle.putLong("value", end - start);
+            FirebaseAnalytics.getInstance(context).logEvent("fetch_rainfall_maps_ms", bundle);
+        });
+        group.submit(() -> {
             try {
                 String lang = getLanguage().equals("en") ? "e" : "c";
                 LocalDateTime now = TimeUtils.findClosestUnitInThePast(LocalDateTime.now(Shared.Companion.getHK_TIMEZONE().toZoneId()).minusMinutes(11).withSecond(0).withNano(0), 15, ChronoField.MINUTE_OF_HOUR);
@@ -325,57 +242,70 @@ public class Registry {
                 String todayUrl = "https://www.hko.gov.hk/wxinfo/rainfall/cokrig_barnes/rfmapmid" + closest15 + lang + ".png";
                 String yesterdayUrl = "https://www.hko.gov.hk/wxinfo/rainfall/cokrig_barnes/rfmap24hrs0000" + lang + ".png";
 
+                LocalDateTime oldest = now.minusDays(1);
+                RAINFALL_MAPS_MANIFEST.prune(lang, oldest);
+
                 LocalDateTime time = now;
-                List<Future<Pair<LocalDateTime, String>>> hourFutures = new ArrayList<>(24);
-                ExecutorService service = Executors.newCachedThreadPool();
-                while (Duration.between(time, now).getSeconds() <= 86400) {
+                Map<LocalDateTime, String> past1HourUrls = new TreeMap<>();
+                List<CompletableFuture<Pair<LocalDateTime, String>>> hourFutures = new ArrayList<>();
+                while (!time.isBefore(oldest)) {
                     String timeFormat = time.format(DateTimeFormatter.ofPattern("yyyyMMddHHmm"));
                     String hourUrl = "https://www.hko.gov.hk/wxinfo/rainfall/cokrig_barnes/rfmap" + timeFormat + lang + ".png";
                     LocalDateTime mapTime = time;
-                    hourFutures.add(service.submit(() -> {
-                        try {
-                            return HTTPRequestUtils.isResponseOk(hourUrl) ? Pair.create(mapTime, hourUrl) : null;
-                        } finally {
-                            future.addProgress(1F / 24F);
-                        }
-                    }));
+                    if (RAINFALL_MAPS_MANIFEST.contains(lang, mapTime)) {
+                        past1HourUrls.put(mapTime, hourUrl);
+                        future.addProgress(1F / 24F);
+                    } else {
+                        hourFutures.add(group.submit(() -> {
+                            try {
+                                return HTTPRequestUtils.isResponseOk(hourUrl) ? Pair.create(mapTime, hourUrl) : null;
+                            } finally {
+                                future.addProgress(1F / 24F);
+                            }
+                        }));
+                    }
                     if (time.getMinute() == 0) {
                         time = time.minusHours(1);
                     } else {
                         time = time.withMinute(0);
                     }
                 }
-                Map<LocalDateTime, String> past1HourUrls = new TreeMap<>();
-                for (Future<Pair<LocalDateTime, String>> hourFuture : hourFutures) {
-                    Pair<LocalDateTime, String> result = hourFuture.get();
-                    if (result != null) {
-                        past1HourUrls.put(result.first, result.second);
+                CompletableFuture.allOf(hourFutures.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+                    for (CompletableFuture<Pair<LocalDateTime, String>> hourFuture : hourFutures) {
+                        Pair<LocalDateTime, String> result = hourFuture.join();
+                        if (result != null) {
+                            past1HourUrls.put(result.first, result.second);
+                            RAINFALL_MAPS_MANIFEST.add(lang, result.first);
+                        }
                     }
-                }
-                service.shutdown();
+                    RAINFALL_MAPS_MANIFEST.saveIfChanged(context);
 
-                if (past1HourUrls.isEmpty()) {
-                    throw new IllegalStateException("There are no past 1 hour urls");
-                }
+                    if (past1HourUrls.isEmpty()) {
+                        throw new IllegalStateException("There are no past 1 hour urls");
+                    }
 
-                future.complete(new RainfallMapsInfo(past1HourUrls, past24HoursUrl, todayUrl, yesterdayUrl));
+                    future.complete(new RainfallMapsInfo(past1HourUrls, past24HoursUrl, todayUrl, yesterdayUrl));
+                }).exceptionally(e -> {
+                    e.printStackTrace();
+                    future.complete(null);
+                    return null;
+                });
             } catch (Throwable e) {
                 e.printStackTrace();
                 future.complete(null);
-            } finally {
-                long end = System.currentTimeMillis();
-                Bundle bundle = new Bundle();
-                bundle.putLong("value", end - start);
-                FirebaseAnalytics.getInstance(context).logEvent("fetch_rainfall_maps_ms", bundle);
             }
-        }).start();
-        return future;
+        });
+        return group.bind(future);
     }
 
     public Future<List<TropicalCycloneInfo>> getTropicalCycloneInfo(Context context) {
+        return getTropicalCycloneInfo(context, new FetchGroup(FetchPriority.USER_INTERACTIVE));
+    }
+
+    public Future<List<TropicalCycloneInfo>> getTropicalCycloneInfo(Context context, FetchGroup group) {
         CompletableFuture<List<TropicalCycloneInfo>> future = new CompletableFuture<>();
         long start = System.currentTimeMillis();
-        new Thread(() -> {
+        group.submit(() -> {
             try {
                 JSONObject data = HTTPRequestUtils.getJSONResponse("https://pda.weather.gov.hk/locspc/android_data/TCTrackData/TC/tcFront.json");
                 if (data == null) {
@@ -407,14 +337,21 @@ public class Registry {
                 bundle.putLong("value", end - start);
                 FirebaseAnalytics.getInstance(context).logEvent("fetch_tropical_cyclone_info_ms", bundle);
             }
-        }).start();
-        return future;
+        });
+        return group.bind(future);
     }
 
-    public Future<LunarDate> getLunarDate(Context context, LocalDate date) {
+    public CompletableFuture<LunarDate> getLunarDate(Context context, LocalDate date, FetchGroup group) {
+        if (LunarCalendar.isSupported(date)) {
+            LunarDate lunarDate = LunarCalendar.toLunarDate(date);
+            if (ThreadLocalRandom.current().nextInt(LUNAR_CROSS_CHECK_SAMPLE) == 0) {
+                crossCheckLunarDate(context, date, lunarDate);
+            }
+            return CompletableFuture.completedFuture(lunarDate);
+        }
         CompletableFuture<LunarDate> future = new CompletableFuture<>();
         long start = System.currentTimeMillis();
-        new Thread(() -> {
+        group.submit(() -> {
             try {
                 String climatology = null;
                 if (date.equals(LocalDate.now(Shared.Companion.getHK_TIMEZONE().toZoneId()))) {
@@ -424,13 +361,7 @@ public class Registry {
                         climatology = term.isEmpty() ? null : term;
                     }
                 }
-                String dateStr = date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                JSONObject data = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/lunardate.php?date=" + dateStr);
-                if (data == null) {
-                    throw new RuntimeException();
-                }
-                String[] s = data.optString("LunarYear").split("，");
-                future.complete(new LunarDate(s[0].replace("年", ""), s[1], data.optString("LunarDate"), climatology));
+                future.complete(fetchLunarDate(date, climatology));
             } catch (Throwable e) {
                 e.printStackTrace();
                 future.complete(null);
@@ -440,24 +371,84 @@ public class Registry {
                 bundle.putLong("value", end - start);
                 FirebaseAnalytics.getInstance(context).logEvent("fetch_lunar_date_ms", bundle);
             }
-        }).start();
-        return future;
+        });
+        return group.bind(future);
     }
 
-    public FutureWithProgress<CurrentWeatherInfo> getCurrentWeatherInfo(Context context, LocationUtils.LocationResult locationResult) {
+    private LunarDate fetchLunarDate(LocalDate date, String climatology) {
+        String dateStr = date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        JSONObject data = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/lunardate.php?date=" + dateStr);
+        if (data == null) {
+            throw new RuntimeException();
+        }
+        String[] s = data.optString("LunarYear").split("，");
+        return new LunarDate(s[0].replace("年", ""), s[1], data.optString("LunarDate"), climatology);
+    }
+
+    private void crossCheckLunarDate(Context context, LocalDate date, LunarDate local) {
+        new FetchGroup(FetchPriority.PREFETCH).submit(() -> {
+            try {
+                LunarDate remote = fetchLunarDate(date, null);
+                if (!remote.getYear().equals(local.getYear()) || !remote.getZodiac().equals(local.getZodiac()) || !remote.getDate().equals(local.getDate())) {
+                    Bundle bundle = new Bundle();
+                    bundle.putString("value", date.toString());
+                    bundle.putString("local", local.toString());
+                    bundle.putString("remote", remote.toString());
+                    FirebaseAnalytics.getInstance(context).logEvent("lunar_date_mismatch", bundle);
+                }
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public CompletableFutureWithProgress<CurrentWeatherInfo> getCurrentWeatherInfo(Context context, LocationUtils.LocationResult locationResult, CurrentWeatherInfo lastKnown, Consumer<CurrentWeatherInfo> partialListener, FetchGroup group) {
         CompletableFutureWithProgress<CurrentWeatherInfo> future = new CompletableFutureWithProgress<>();
         float totalStages = 16F;
         long start = System.currentTimeMillis();
-        new Thread(() -> {
+        future.whenComplete((r, e) -> {
+            long end = System.currentTimeMillis();
+            Bundle bundle = new Bundle();
+            bundle.putLong("value", end - start);
+            FirebaseAnalytics.getInstance(context).logEvent("fetch_current_weather_info_ms", bundle);
+        });
+        group.submit(() -> {
             try {
-                CurrentWeatherInfo.Builder currentWeatherInfoBuilder = new CurrentWeatherInfo.Builder();
-
                 LocalDate today = LocalDate.now(Shared.Companion.getHK_TIMEZONE().toZoneId());
+                CurrentWeatherInfo.Builder currentWeatherInfoBuilder = lastKnown == null ? new CurrentWeatherInfo.Builder() : new CurrentWeatherInfo.Builder(lastKnown);
                 currentWeatherInfoBuilder.setDate(today);
 
-                DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-                DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-                DateTimeFormatter dateHourFormatter = DateTimeFormatter.ofPattern("yyyyMMddHH");
+                EnumSet<CurrentWeatherInfo.DataSource> updatedSources = EnumSet.noneOf(CurrentWeatherInfo.DataSource.class);
+                BiConsumer<CurrentWeatherInfo.DataSource, Consumer<CurrentWeatherInfo.Builder>> update = (source, setter) -> {
+                    synchronized (currentWeatherInfoBuilder) {
+                        setter.accept(currentWeatherInfoBuilder);
+                        currentWeatherInfoBuilder.setDataSourceUpdateTime(source, System.currentTimeMillis());
+                        updatedSources.add(source);
+                        if (lastKnown != null || updatedSources.containsAll(FIRST_PARTIAL_SOURCES)) {
+                            partialListener.accept(currentWeatherInfoBuilder.build());
+                        }
+                    }
+                    future.addProgress(1 / totalStages);
+                };
+
+                PublicationModel publicationModel = PUBLICATION_MODEL;
+                Set<CurrentWeatherInfo.DataSource> skippedSources = EnumSet.noneOf(CurrentWeatherInfo.DataSource.class);
+                if (group.getPriority() == FetchPriority.BACKGROUND && lastKnown != null && lastKnown.getDate().equals(today)) {
+                    long now = System.currentTimeMillis();
+                    for (CurrentWeatherInfo.DataSource source : EnumSet.of(CurrentWeatherInfo.DataSource.TEMPERATURE, CurrentWeatherInfo.DataSource.HUMIDITY, CurrentWeatherInfo.DataSource.WIND, CurrentWeatherInfo.DataSource.LOCAL_FORECAST)) {
+                        if (!publicationModel.isDue(source, lastKnown.getDataSourceUpdateTime(source), now)) {
+                            skippedSources.add(source);
+                        }
+                    }
+                    Set<CurrentWeatherInfo.DataSource> forecastSources = EnumSet.of(CurrentWeatherInfo.DataSource.CURRENT_WEATHER, CurrentWeatherInfo.DataSource.CHANCE_OF_RAIN, CurrentWeatherInfo.DataSource.TODAY_FORECAST);
+                    if (forecastSources.stream().noneMatch(source -> publicationModel.isDue(source, lastKnown.getDataSourceUpdateTime(source), now))) {
+                        skippedSources.addAll(forecastSources);
+                        skippedSources.add(CurrentWeatherInfo.DataSource.FORECAST);
+                        skippedSources.add(CurrentWeatherInfo.DataSource.HOURLY_FORECAST);
+                    }
+                    future.addProgress(skippedSources.size() / totalStages);
+                }
+
                 String lang = getLanguage().equals("en") ? "en" : "tc";
                 String lang2 = getLanguage().equals("en") ? "en" : "uc";
                 Location location;
@@ -470,426 +461,434 @@ public class Registry {
                 }
                 future.addProgress(1 / totalStages);
 
-                AtomicDouble minDistance = new AtomicDouble(Double.MAX_VALUE);
-                JSONObject weatherStation = WEATHER_STATIONS.stream().min(Comparator.comparing(s -> {
-                    JSONArray pos = s.optJSONObject("geometry").optJSONArray("coordinates");
-                    double distance = findDistance(location.getLatitude(), location.getLongitude(), pos.optDouble(1), pos.optDouble(0));
-                    if (distance < minDistance.get()) {
-                        minDistance.set(distance);
-                    }
-                    return distance;
-                })).orElseThrow(RuntimeException::new).optJSONObject("properties");
+                StationCatalog stationCatalog = StationCatalog.getInstance(context);
+                StationIndex weatherStations = stationCatalog.getTemperatureStations();
+                int weatherStation = weatherStations.findNearest(location.getLatitude(), location.getLongitude());
+                if (weatherStation < 0) {
+                    throw new RuntimeException();
+                }
                 future.addProgress(1 / totalStages);
 
                 String actualWeatherStationName;
-                if (minDistance.get() > 100) {
+                if (weatherStations.getDistance(weatherStation, location.getLatitude(), location.getLongitude()) > 100) {
                     tempWeatherStationName = getLanguage().equals("en") ? "Hong Kong" : "香港";
                     actualWeatherStationName = "";
                 } else if (tempWeatherStationName == null) {
-                    tempWeatherStationName = weatherStation.optString("AutomaticWeatherStation_" + lang2);
+                    tempWeatherStationName = getStationName(weatherStations, weatherStation, lang2);
                     actualWeatherStationName = tempWeatherStationName;
                 } else {
-                    actualWeatherStationName = weatherStation.optString("AutomaticWeatherStation_" + lang2);
+                    actualWeatherStationName = getStationName(weatherStations, weatherStation, lang2);
                 }
-                currentWeatherInfoBuilder.setWeatherStation(tempWeatherStationName);
-                future.addProgress(1 / totalStages);
+                String weatherStationName = tempWeatherStationName;
+                update.accept(CurrentWeatherInfo.DataSource.WEATHER_STATION, b -> b.setWeatherStation(weatherStationName));
 
-                ExecutorService service = Executors.newFixedThreadPool(12);
-                List<Future<?>> subTasks = new ArrayList<>((int) totalStages - 3);
-                try {
-                    subTasks.add(service.submit(() -> {
+                FetchGraph graph = new FetchGraph(group);
+                if (!skippedSources.contains(CurrentWeatherInfo.DataSource.TEMPERATURE)) {
+                    graph.node("temperature", () -> {
                         String temperatureLang = lang.equals("en") ? "" : "_uc";
-                        List<JSONObject> temperatureData = HTTPRequestUtils.getCSVResponse("https://data.weather.gov.hk/weatherAPI/hko_data/regional-weather/latest_1min_temperature" + temperatureLang + ".csv");
-                        if (temperatureData == null) {
-                            throw new RuntimeException();
-                        }
                         String temperatureStationField = lang.equals("en") ? "Automatic Weather Station" : "自動氣象站";
+                        String temperatureField = lang.equals("en") ? "Air Temperature(degree Celsius)" : "氣溫（攝氏）";
                         String defaultTemperatureStation = lang.equals("en") ? "HK Observatory" : "天文台";
-                        JSONObject temperatureHere = temperatureData.stream().filter(e -> e.optString(temperatureStationField).equals(actualWeatherStationName) && !Double.isNaN(e.optDouble(lang.equals("en") ? "Air Temperature(degree Celsius)" : "氣溫（攝氏）"))).findFirst()
-                                .orElseGet(() -> temperatureData.stream().filter(e -> e.optString(temperatureStationField).equals(defaultTemperatureStation)).findFirst().orElse(null));
+                        String temperatureUrl = "https://data.weather.gov.hk/weatherAPI/hko_data/regional-weather/latest_1min_temperature" + temperatureLang + ".csv";
+                        CSVUtils.Row temperatureHere = HTTPRequestUtils.getCSVRow(temperatureUrl, header -> {
+                            int stationColumn = header.indexOf(temperatureStationField);
+                            int valueColumn = header.indexOf(temperatureField);
+                            return Arrays.asList(
+                                    e -> e.get(stationColumn).equals(actualWeatherStationName) && !Double.isNaN(e.getDouble(valueColumn)),
+                                    e -> e.get(stationColumn).equals(defaultTemperatureStation)
+                            );
+                        });
+                        publicationModel.observe(CurrentWeatherInfo.DataSource.TEMPERATURE, HTTPRequestUtils.getLastModified(temperatureUrl));
                         if (temperatureHere == null) {
                             throw new RuntimeException();
                         }
-                        currentWeatherInfoBuilder.setCurrentTemperature((float) temperatureHere.optDouble(lang.equals("en") ? "Air Temperature(degree Celsius)" : "氣溫（攝氏）"));
-                        future.addProgress(1 / totalStages);
-                    }));
+                        float currentTemperature = (float) temperatureHere.getDouble(temperatureField);
+                        update.accept(CurrentWeatherInfo.DataSource.TEMPERATURE, b -> b.setCurrentTemperature(currentTemperature));
+                    });
+                }
 
-                    subTasks.add(service.submit(() -> {
-                        String humidityStation = HUMIDITY_STATIONS.stream().min(Comparator.comparing(s -> {
-                            JSONArray pos = s.optJSONObject("geometry").optJSONArray("coordinates");
-                            return findDistance(location.getLatitude(), location.getLongitude(), pos.optDouble(1), pos.optDouble(0));
-                        })).map(e -> e.optJSONObject("properties").optString("AutomaticWeatherStation_" + lang2)).orElse("");
+                if (!skippedSources.contains(CurrentWeatherInfo.DataSource.HUMIDITY)) {
+                    graph.node("humidity", () -> {
+                        String humidityStation = getStationName(stationCatalog.getHumidityStations(), stationCatalog.getHumidityStations().findNearest(location.getLatitude(), location.getLongitude()), lang2);
 
                         String humidityLang = lang.equals("en") ? "" : "_uc";
-                        List<JSONObject> humidityData = HTTPRequestUtils.getCSVResponse("https://data.weather.gov.hk/weatherAPI/hko_data/regional-weather/latest_1min_humidity" + humidityLang + ".csv");
-                        if (humidityData == null) {
-                            throw new RuntimeException();
-                        }
                         String humidityStationField = lang.equals("en") ? "Automatic Weather Station" : "自動氣象站";
+                        String humidityField = lang.equals("en") ? "Relative Humidity(percent)" : "相對濕度（百分比）";
                         String defaultHumidityStation = lang.equals("en") ? "HK Observatory" : "天文台";
-                        JSONObject humidityHere = humidityData.stream().filter(e -> e.optString(humidityStationField).equals(humidityStation) && !Double.isNaN(e.optDouble(lang.equals("en") ? "Relative Humidity(percent)" : "相對濕度（百分比）"))).findFirst()
-                                .orElseGet(() -> humidityData.stream().filter(e -> e.optString(humidityStationField).equals(defaultHumidityStation)).findFirst().orElse(null));
+                        String humidityUrl = "https://data.weather.gov.hk/weatherAPI/hko_data/regional-weather/latest_1min_humidity" + humidityLang + ".csv";
+                        CSVUtils.Row humidityHere = HTTPRequestUtils.getCSVRow(humidityUrl, header -> {
+                            int stationColumn = header.indexOf(humidityStationField);
+                            int valueColumn = header.indexOf(humidityField);
+                            return Arrays.asList(
+                                    e -> e.get(stationColumn).equals(humidityStation) && !Double.isNaN(e.getDouble(valueColumn)),
+                                    e -> e.get(stationColumn).equals(defaultHumidityStation)
+                            );
+                        });
+                        publicationModel.observe(CurrentWeatherInfo.DataSource.HUMIDITY, HTTPRequestUtils.getLastModified(humidityUrl));
                         if (humidityHere == null) {
                             throw new RuntimeException();
                         }
-                        currentWeatherInfoBuilder.setCurrentHumidity((float) humidityHere.optDouble(lang.equals("en") ? "Relative Humidity(percent)" : "相對濕度（百分比）"));
-                        future.addProgress(1 / totalStages);
-                    }));
-
-                    subTasks.add(service.submit(() -> {
-                        JSONObject currentWeatherData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=rhrread&lang=" + lang);
-                        currentWeatherInfoBuilder.setUvIndex(currentWeatherData.opt("uvindex") instanceof JSONObject ? (float) currentWeatherData.optJSONObject("uvindex").optJSONArray("data").optJSONObject(0).optDouble("value") : -1F);
-                        JSONArray iconsArray = currentWeatherData.optJSONArray("icon");
-                        WeatherStatusIcon weatherIcon = WeatherStatusIcon.getByCode(iconsArray.optInt(0));
-                        currentWeatherInfoBuilder.setWeatherIcon(weatherIcon);
-                        currentWeatherInfoBuilder.setNextWeatherIcon(iconsArray.length() > 1 ? WeatherStatusIcon.getByCode(iconsArray.optInt(1)) : null);
-                        future.addProgress(1 / totalStages);
-
-                        String forecastStation = StreamSupport.stream(Spliterators.spliteratorUnknownSize(FORECAST_STATIONS.keys(), Spliterator.ORDERED), false).min(Comparator.comparing(k -> {
-                            JSONArray pos = FORECAST_STATIONS.optJSONArray(k);
-                            return findDistance(location.getLatitude(), location.getLongitude(), pos.optDouble(0), pos.optDouble(1));
-                        })).orElse(null);
-                        JSONObject forecastStationData = HTTPRequestUtils.getJSONResponse("https://maps.weather.gov.hk/ocf/dat/" + forecastStation + ".xml");
-                        JSONArray forecastDailyData = forecastStationData.optJSONArray("DailyForecast");
-                        List<JSONObject> dailyForecastArray = JsonUtils.toList(forecastDailyData, JSONObject.class);
-
-                        String chanceOfRainStr = dailyForecastArray.get(0).optString("ForecastChanceOfRain");
-                        WeatherInfo.RangeSign chanceOfRainRangeSign = WeatherInfo.RangeSign.NONE;
-                        for (WeatherInfo.RangeSign rangeSign : WeatherInfo.RangeSign.values()) {
-                            if (chanceOfRainStr.contains(rangeSign.getSymbol())) {
-                                currentWeatherInfoBuilder.setChanceOfRainRangeSign(chanceOfRainRangeSign = rangeSign);
-                                break;
-                            }
-                        }
-                        currentWeatherInfoBuilder.setChanceOfRain(Float.parseFloat(chanceOfRainStr.substring(chanceOfRainRangeSign.getSymbolWithSpace().length(), chanceOfRainStr.length() - 1)));
-                        future.addProgress(1 / totalStages);
+                        float currentHumidity = (float) humidityHere.getDouble(humidityField);
+                        update.accept(CurrentWeatherInfo.DataSource.HUMIDITY, b -> b.setCurrentHumidity(currentHumidity));
+                    });
+                }
 
-                        JSONObject forecastData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=fnd&lang=" + lang);
-                        if (forecastData == null) {
+                if (!skippedSources.contains(CurrentWeatherInfo.DataSource.CURRENT_WEATHER)) {
+                    CompletableFuture<WeatherDataDecoders.CurrentWeatherReport> currentWeatherReport = graph.node("rhrread", () -> {
+                        WeatherDataDecoders.CurrentWeatherReport currentWeatherData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=rhrread&lang=" + lang, WeatherDataDecoders::decodeCurrentWeatherReport);
+                        if (currentWeatherData == null) {
                             throw new RuntimeException();
                         }
-
-                        currentWeatherInfoBuilder.setForecastGeneralSituation(forecastData.optString("generalSituation"));
-
-                        JSONArray dayArray = forecastData.optJSONArray("weatherForecast");
-                        List<ForecastWeatherInfo> forecastInfo = new ArrayList<>(dayArray.length() - 1);
-
-                        JSONObject dayObj = dayArray.optJSONObject(0);
-                        currentWeatherInfoBuilder.setHighestTemperature((float) dayObj.optJSONObject("forecastMaxtemp").optDouble("value", -Float.MAX_VALUE));
-                        currentWeatherInfoBuilder.setLowestTemperature((float) dayObj.optJSONObject("forecastMintemp").optDouble("value", -Float.MAX_VALUE));
-                        currentWeatherInfoBuilder.setMaxRelativeHumidity((float) dayObj.optJSONObject("forecastMaxrh").optDouble("value", -Float.MAX_VALUE));
-                        currentWeatherInfoBuilder.setMinRelativeHumidity((float) dayObj.optJSONObject("forecastMinrh").optDouble("value", -Float.MAX_VALUE));
-                        future.addProgress(1 / totalStages);
-
-                        for (int i = 0; i < dayArray.length(); i++) {
-                            JSONObject forecastDayObj = dayArray.optJSONObject(i);
-
-                            String forecastDateStr = forecastDayObj.optString("forecastDate");
-                            JSONObject forecastStationDayObj = dailyForecastArray.stream().filter(e -> e.optString("ForecastDate").equals(forecastDateStr)).findFirst().orElse(null);
-
-                            LocalDate forecastDate = LocalDate.parse(forecastDateStr, dateFormatter);
-                            float forecastHighestTemperature = (float) forecastDayObj.optJSONObject("forecastMaxtemp").optDouble("value", -Float.MAX_VALUE);
-                            float forecastLowestTemperature = (float) forecastDayObj.optJSONObject("forecastMintemp").optDouble("value", -Float.MAX_VALUE);
-                            float forecastMaxRelativeHumidity = (float) forecastDayObj.optJSONObject("forecastMaxrh").optDouble("value", -Float.MAX_VALUE);
-                            float forecastMinRelativeHumidity = (float) forecastDayObj.optJSONObject("forecastMinrh").optDouble("value", -Float.MAX_VALUE);
-                            WeatherStatusIcon forecastWeatherIcon = WeatherStatusIcon.getByCode(forecastDayObj.optInt("ForecastIcon"));
-                            String forecastWind = forecastDayObj.optString("forecastWind");
-                            String forecastWeather = forecastDayObj.optString("forecastWeather");
-
-                            float forecastChanceOfRain;
-                            WeatherInfo.RangeSign forecastChanceOfRainRangeSign = WeatherInfo.RangeSign.NONE;
-                            if (forecastStationDayObj == null) {
-                                forecastChanceOfRain = -1F;
-                            } else {
-                                String forecastChanceOfRainStr = forecastStationDayObj.optString("ForecastChanceOfRain");
-                                for (WeatherInfo.RangeSign rangeSign : WeatherInfo.RangeSign.values()) {
-                                    if (forecastChanceOfRainStr.contains(rangeSign.getSymbol())) {
-                                        forecastChanceOfRainRangeSign = rangeSign;
-                                        break;
-                                    }
-                                }
-                                forecastChanceOfRain = Float.parseFloat(forecastChanceOfRainStr.substring(forecastChanceOfRainRangeSign.getSymbolWithSpace().length(), forecastChanceOfRainStr.length() - 1));
-                            }
-
-                            forecastInfo.add(new ForecastWeatherInfo(forecastDate, forecastHighestTemperature, forecastLowestTemperature, forecastMaxRelativeHumidity, forecastMinRelativeHumidity, forecastChanceOfRain, forecastChanceOfRainRangeSign, forecastWeatherIcon, forecastWind, forecastWeather));
+                        publicationModel.observe(CurrentWeatherInfo.DataSource.CURRENT_WEATHER, currentWeatherData.getUpdateTime());
+                        update.accept(CurrentWeatherInfo.DataSource.CURRENT_WEATHER, b -> b.setUvIndex(currentWeatherData.getUvIndex()).setWeatherIcon(currentWeatherData.getWeatherIcon()).setNextWeatherIcon(currentWeatherData.getNextWeatherIcon()));
+                        return currentWeatherData;
+                    });
+
+                    CompletableFuture<WeatherDataDecoders.StationForecast> stationForecast = graph.node("ocf", () -> {
+                        StationIndex forecastStations = stationCatalog.getForecastStations();
+                        int forecastStationIndex = forecastStations.findNearest(location.getLatitude(), location.getLongitude());
+                        String forecastStation = forecastStationIndex < 0 ? null : forecastStations.getId(forecastStationIndex);
+                        String forecastStationUrl = "https://maps.weather.gov.hk/ocf/dat/" + forecastStation + ".xml";
+                        WeatherDataDecoders.StationForecast forecastStationData = HTTPRequestUtils.getJSONResponse(forecastStationUrl, WeatherDataDecoders::decodeStationForecast);
+                        if (forecastStationData == null) {
+                            throw new RuntimeException();
                         }
-                        currentWeatherInfoBuilder.setForecastInfo(forecastInfo);
-                        future.addProgress(1 / totalStages);
-
-                        JSONArray hourArray = forecastStationData.optJSONArray("HourlyWeatherForecast");
-                        List<HourlyWeatherInfo> hourlyWeatherInfo = new ArrayList<>(hourArray.length());
-                        WeatherStatusIcon lastHourIcon = weatherIcon;
-                        for (int i = 0; i < hourArray.length(); i++) {
-                            JSONObject hourObj = hourArray.optJSONObject(i);
-
-                            LocalDateTime hour = LocalDateTime.parse(hourObj.optString("ForecastHour"), dateHourFormatter);
-                            float hourTemperature = (float) hourObj.optDouble("ForecastTemperature", -Float.MAX_VALUE);
-                            float hourHumidity = (float) hourObj.optDouble("ForecastRelativeHumidity", -Float.MAX_VALUE);
-                            float hourWindDirection = (float) hourObj.optDouble("ForecastWindDirection", -Float.MAX_VALUE);
-                            float hourWindSpeed = (float) hourObj.optDouble("ForecastWindSpeed", -Float.MAX_VALUE);
-                            WeatherStatusIcon hourIcon;
-                            if (hourObj.has("ForecastWeather")) {
-                                hourIcon = WeatherStatusIcon.getByCode(hourObj.optInt("ForecastWeather"));
-                                if (hourIcon == null) {
-                                    hourIcon = lastHourIcon;
-                                } else {
-                                    lastHourIcon = hourIcon;
-                                }
-                            } else {
-                                hourIcon = lastHourIcon;
-                            }
-
-                            hourlyWeatherInfo.add(new HourlyWeatherInfo(hour, hourTemperature, hourHumidity, hourWindDirection, hourWindSpeed, hourIcon));
+                        publicationModel.observe(CurrentWeatherInfo.DataSource.CHANCE_OF_RAIN, HTTPRequestUtils.getLastModified(forecastStationUrl));
+                        WeatherDataDecoders.ChanceOfRain chanceOfRain = forecastStationData.getFirstChanceOfRain();
+                        if (chanceOfRain == null) {
+                            throw new RuntimeException();
                         }
-                        currentWeatherInfoBuilder.setHourlyWeatherInfo(hourlyWeatherInfo);
-                        future.addProgress(1 / totalStages);
-                    }));
+                        update.accept(CurrentWeatherInfo.DataSource.CHANCE_OF_RAIN, b -> b.setChanceOfRain(chanceOfRain.getValue()).setChanceOfRainRangeSign(chanceOfRain.getRangeSign()));
+                        return forecastStationData;
+                    });
 
-                    subTasks.add(service.submit(() -> {
-                        String windLang = lang.equals("en") ? "" : "_uc";
-                        List<JSONObject> windData = HTTPRequestUtils.getCSVResponse("https://data.weather.gov.hk/weatherAPI/hko_data/regional-weather/latest_10min_wind" + windLang + ".csv");
-                        if (windData == null) {
+                    CompletableFuture<WeatherDataDecoders.NineDayForecast> nineDayForecast = graph.node("fnd", () -> {
+                        WeatherDataDecoders.NineDayForecast forecastData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=fnd&lang=" + lang, WeatherDataDecoders::decodeNineDayForecast);
+                        if (forecastData == null) {
                             throw new RuntimeException();
                         }
+                        publicationModel.observe(CurrentWeatherInfo.DataSource.TODAY_FORECAST, forecastData.getUpdateTime());
+                        ForecastWeatherInfo todayForecast = forecastData.getToday();
+                        update.accept(CurrentWeatherInfo.DataSource.TODAY_FORECAST, b -> {
+                            b.setForecastGeneralSituation(forecastData.getGeneralSituation());
+                            b.setHighestTemperature(todayForecast.getHighestTemperature());
+                            b.setLowestTemperature(todayForecast.getLowestTemperature());
+                            b.setMaxRelativeHumidity(todayForecast.getMaxRelativeHumidity());
+                            b.setMinRelativeHumidity(todayForecast.getMinRelativeHumidity());
+                        });
+                        return forecastData;
+                    });
+
+                    graph.node("forecast_merge", () -> {
+                        List<ForecastWeatherInfo> forecastInfo = nineDayForecast.join().getForecastInfo(stationForecast.join());
+                        update.accept(CurrentWeatherInfo.DataSource.FORECAST, b -> b.setForecastInfo(forecastInfo));
+                    }, nineDayForecast, stationForecast);
+
+                    graph.node("hourly_merge", () -> {
+                        List<HourlyWeatherInfo> hourlyWeatherInfo = stationForecast.join().getHourlyWeatherInfo(currentWeatherReport.join().getWeatherIcon());
+                        update.accept(CurrentWeatherInfo.DataSource.HOURLY_FORECAST, b -> b.setHourlyWeatherInfo(hourlyWeatherInfo));
+                    }, stationForecast, currentWeatherReport);
+                }
 
+                if (!skippedSources.contains(CurrentWeatherInfo.DataSource.WIND)) {
+                    graph.node("wind", () -> {
+                        String windLang = lang.equals("en") ? "" : "_uc";
                         String windStationField = lang.equals("en") ? "Automatic Weather Station" : "自動氣象站";
+                        String windDirectionField = lang.equals("en") ? "10-Minute Mean Wind Direction(Compass points)" : "十分鐘平均風向（方位點）";
                         String defaultWindStation = lang.equals("en") ? "Star Ferry" : "天星碼頭";
-                        JSONObject windHere = WIND_STATIONS.stream().min(Comparator.comparing(s -> {
-                            JSONArray pos = s.optJSONObject("geometry").optJSONArray("coordinates");
-                            return findDistance(location.getLatitude(), location.getLongitude(), pos.optDouble(1), pos.optDouble(0));
-                        })).map(e -> {
-                            String stationName = e.optJSONObject("properties").optString("AutomaticWeatherStation_" + lang2);
-                            return windData.stream().filter(s -> s.optString(windStationField).equals(stationName)).findFirst().orElse(null);
-                        }).filter(e -> {
-                            return !Double.isNaN(e.optDouble(lang.equals("en") ? "10-Minute Mean Wind Direction(Compass points)" : "十分鐘平均風向（方位點）"));
-                        }).orElseGet(() -> {
-                            return windData.stream().filter(e -> e.optString(windStationField).equals(defaultWindStation)).findFirst().orElse(null);
+                        String windStation = getStationName(stationCatalog.getWindStations(), stationCatalog.getWindStations().findNearest(location.getLatitude(), location.getLongitude()), lang2);
+                        String windUrl = "https://data.weather.gov.hk/weatherAPI/hko_data/regional-weather/latest_10min_wind" + windLang + ".csv";
+                        CSVUtils.Row windHere = HTTPRequestUtils.getCSVRow(windUrl, header -> {
+                            int stationColumn = header.indexOf(windStationField);
+                            int valueColumn = header.indexOf(windDirectionField);
+                            return Arrays.asList(
+                                    e -> e.get(stationColumn).equals(windStation) && !Double.isNaN(e.getDouble(valueColumn)),
+                                    e -> e.get(stationColumn).equals(defaultWindStation)
+                            );
                         });
-                        String windDirection;
-                        float windSpeed;
-                        float gust;
-                        if (windHere == null) {
-                            windDirection = null;
-                            windSpeed = -1F;
-                            gust = -1F;
-                        } else {
-                            String tempWindDirection = windHere.optString(lang.equals("en") ? "10-Minute Mean Wind Direction(Compass points)" : "十分鐘平均風向（方位點）");
-                            if (tempWindDirection.equals("N/A")) {
-                                windDirection = null;
-                                windSpeed = -1F;
-                                gust = -1F;
+                        publicationModel.observe(CurrentWeatherInfo.DataSource.WIND, HTTPRequestUtils.getLastModified(windUrl));
+                        update.accept(CurrentWeatherInfo.DataSource.WIND, b -> {
+                            if (windHere == null) {
+                                b.setWindDirection(null).setWindSpeed(-1F).setGust(-1F);
                             } else {
-                                windDirection = tempWindDirection;
-                                windSpeed = (float) windHere.optDouble(lang.equals("en") ? "10-Minute Mean Speed(km/hour)" : "十分鐘平均風速（公里/小時）", 0);
-                                gust = (float) windHere.optDouble(lang.equals("en") ? "10-Minute Maximum Gust(km/hour)" : "十分鐘最高陣風風速（公里/小時）", 0);
-                                if (windDirection.equals("無風") || windDirection.equals("Calm")) {
-                                    gust = windSpeed;
-                                    windSpeed = 0F;
+                                String windDirection = windHere.get(windDirectionField);
+                                if (windDirection.equals("N/A")) {
+                                    b.setWindDirection(null).setWindSpeed(-1F).setGust(-1F);
+                                } else {
+                                    float windSpeed = (float) windHere.getDouble(lang.equals("en") ? "10-Minute Mean Speed(km/hour)" : "十分鐘平均風速（公里/小時）", 0);
+                                    float gust = (float) windHere.getDouble(lang.equals("en") ? "10-Minute Maximum Gust(km/hour)" : "十分鐘最高陣風風速（公里/小時）", 0);
+                                    if (windDirection.equals("無風") || windDirection.equals("Calm")) {
+                                        gust = windSpeed;
+                                        windSpeed = 0F;
+                                    }
+                                    b.setWindDirection(windDirection).setWindSpeed(windSpeed).setGust(gust);
                                 }
                             }
-                        }
-                        currentWeatherInfoBuilder.setWindDirection(windDirection).setWindSpeed(windSpeed).setGust(gust);
-                        future.addProgress(1 / totalStages);
-                    }));
-
-                    String todayDateStr = today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                    subTasks.add(service.submit(() -> {
-                        List<JSONObject> sunData = HTTPRequestUtils.getCSVResponse("https://data.weather.gov.hk/weatherAPI/opendata/opendata.php?dataType=SRS&year=" + today.getYear() + "&rformat=csv", s -> s.replaceAll("[^a-zA-Z.0-9:\\-,]", ""));
-                        if (sunData == null) {
-                            throw new RuntimeException();
-                        }
-                        JSONObject todaySun = sunData.stream().filter(e -> e.optString("YYYY-MM-DD").equals(todayDateStr)).findFirst().orElse(null);
-                        LocalTime sunriseTime = LocalTime.parse(todaySun.optString("RISE"), timeFormatter);
-                        LocalTime sunTransitTime = LocalTime.parse(todaySun.optString("TRAN."), timeFormatter);
-                        LocalTime sunsetTime = LocalTime.parse(todaySun.optString("SET"), timeFormatter);
-                        currentWeatherInfoBuilder.setSunriseTime(sunriseTime).setSunTransitTime(sunTransitTime).setSunsetTime(sunsetTime);
-                        future.addProgress(1 / totalStages);
-                    }));
-                    subTasks.add(service.submit(() -> {
-                        List<JSONObject> moonData = HTTPRequestUtils.getCSVResponse("https://data.weather.gov.hk/weatherAPI/opendata/opendata.php?dataType=MRS&year=" + today.getYear() + "&rformat=csv", s -> s.replaceAll("[^a-zA-Z.0-9:\\-,]", ""));
-                        if (moonData == null) {
-                            throw new RuntimeException();
-                        }
-                        JSONObject todayMoon = moonData.stream().filter(e -> e.optString("YYYY-MM-DD").equals(todayDateStr)).findFirst().orElse(null);
-                        LocalTime moonriseTime = todayMoon.optString("RISE").isEmpty() ? null : LocalTime.parse(todayMoon.optString("RISE"), timeFormatter);
-                        LocalTime moonTransitTime = todayMoon.optString("TRAN.").isEmpty() ? null : LocalTime.parse(todayMoon.optString("TRAN."), timeFormatter);
-                        LocalTime moonsetTime = todayMoon.optString("SET").isEmpty() ? null : LocalTime.parse(todayMoon.optString("SET"), timeFormatter);
-                        currentWeatherInfoBuilder.setMoonriseTime(moonriseTime).setMoonTransitTime(moonTransitTime).setMoonsetTime(moonsetTime);
-                        future.addProgress(1 / totalStages);
-                    }));
-
-                    subTasks.add(service.submit(() -> {
-                        JSONObject localForecastData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=flw&lang=" + lang);
-                        if (localForecastData == null) {
-                            throw new RuntimeException();
-                        }
-                        String generalSituation = localForecastData.optString("generalSituation");
-                        String tcInfo = localForecastData.optString("tcInfo");
-                        String fireDangerWarning = localForecastData.optString("fireDangerWarning");
-                        String forecastPeriod = localForecastData.optString("forecastPeriod");
-                        String forecastDesc = localForecastData.optString("forecastDesc");
-                        String outlook = localForecastData.optString("outlook");
-                        LocalDateTime updateTime = LocalDateTime.parse(localForecastData.optString("updateTime"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                        LocalForecastInfo localForecastInfo = new LocalForecastInfo(generalSituation, tcInfo, fireDangerWarning, forecastPeriod, forecastDesc, outlook, updateTime);
-                        currentWeatherInfoBuilder.setLocalForecastInfo(localForecastInfo);
-                        future.addProgress(1 / totalStages);
-                    }));
-
-                    subTasks.add(service.submit(() -> {
-                        JSONObject heatStressAtWorkData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/hsww.php?lang=" + lang);
-                        if (heatStressAtWorkData == null) {
+                        });
+                    });
+                }
+
+                graph.node("srs", () -> {
+                    AstronomyUtils.RiseTransitSet sun = AstronomyUtils.getSunRiseTransitSet(today, location.getLatitude(), location.getLongitude(), Shared.Companion.getHK_TIMEZONE().toZoneId());
+                    LocalTime sunriseTime = sun.getRiseTime();
+                    LocalTime sunTransitTime = sun.getTransitTime();
+                    LocalTime sunsetTime = sun.getSetTime();
+                    if (sunriseTime == null || sunTransitTime == null || sunsetTime == null) {
+                        throw new RuntimeException();
+                    }
+                    update.accept(CurrentWeatherInfo.DataSource.SUN, b -> b.setSunriseTime(sunriseTime).setSunTransitTime(sunTransitTime).setSunsetTime(sunsetTime));
+                });
+                graph.node("mrs", () -> {
+                    AstronomyUtils.RiseTransitSet moon = AstronomyUtils.getMoonRiseTransitSet(today, location.getLatitude(), location.getLongitude(), Shared.Companion.getHK_TIMEZONE().toZoneId());
+                    LocalTime moonriseTime = moon.getRiseTime();
+                    LocalTime moonTransitTime = moon.getTransitTime();
+                    LocalTime moonsetTime = moon.getSetTime();
+                    update.accept(CurrentWeatherInfo.DataSource.MOON, b -> b.setMoonriseTime(moonriseTime).setMoonTransitTime(moonTransitTime).setMoonsetTime(moonsetTime));
+                });
+
+                if (!skippedSources.contains(CurrentWeatherInfo.DataSource.LOCAL_FORECAST)) {
+                    graph.node("flw", () -> {
+                        LocalForecastInfo localForecastInfo = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=flw&lang=" + lang, WeatherDataDecoders::decodeLocalForecastInfo);
+                        if (localForecastInfo == null) {
                             throw new RuntimeException();
                         }
-                        HeatStressAtWorkInfo heatStressAtWorkInfo;
-                        if (heatStressAtWorkData.has("hsww")) {
-                            JSONObject hswwData = heatStressAtWorkData.optJSONObject("hsww");
-                            String description = hswwData.optString("desc");
-                            HeatStressAtWorkWarningLevel warningsLevel = HeatStressAtWorkWarningLevel.getByName(hswwData.optString("warningLevel").toUpperCase());
-                            HeatStressAtWorkWarningAction action = HeatStressAtWorkWarningAction.valueOf(hswwData.optString("actionCode").toUpperCase());
-                            LocalDateTime effectiveTime = LocalDateTime.parse(hswwData.optString("effectiveTime"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                            LocalDateTime issueTime = LocalDateTime.parse(hswwData.optString("issueTime"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                            heatStressAtWorkInfo = new HeatStressAtWorkInfo(description, warningsLevel, action, effectiveTime, issueTime);
-                        } else {
-                            heatStressAtWorkInfo = null;
-                        }
-                        currentWeatherInfoBuilder.setHeatStressAtWorkInfo(heatStressAtWorkInfo);
-                        future.addProgress(1 / totalStages);
-                    }));
+                        publicationModel.observe(CurrentWeatherInfo.DataSource.LOCAL_FORECAST, localForecastInfo.getUpdateTime().atZone(Shared.Companion.getHK_TIMEZONE().toZoneId()).toInstant().toEpochMilli());
+                        update.accept(CurrentWeatherInfo.DataSource.LOCAL_FORECAST, b -> b.setLocalForecastInfo(localForecastInfo));
+                    });
+                }
 
-                    subTasks.add(service.submit(() -> {
-                        String specialTyphoonInfoLang = lang.equals("en") ? "" : "_tc";
-                        JSONObject specialTyphoonInfoData = HTTPRequestUtils.getJSONResponse("https://pda.weather.gov.hk/locspc/android_data/tc_part2" + specialTyphoonInfoLang + ".json");
-                        SpecialTyphoonInfo specialTyphoonInfo;
-                        if (specialTyphoonInfoData == null) {
-                            specialTyphoonInfo = null;
-                        } else if (specialTyphoonInfoData.has("WTCB") && specialTyphoonInfoData.optJSONObject("WTCB").optBoolean("isTCPart2Display", false)) {
-                            JSONObject wtcb = specialTyphoonInfoData.optJSONObject("WTCB");
-                            JSONObject typhoonData = wtcb.optJSONObject("part2Content");
+                graph.node("hsww", () -> {
+                    JSONObject heatStressAtWorkData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/hsww.php?lang=" + lang);
+                    if (heatStressAtWorkData == null) {
+                        throw new RuntimeException();
+                    }
+                    HeatStressAtWorkInfo heatStressAtWorkInfo;
+                    if (heatStressAtWorkData.has("hsww")) {
+                        JSONObject hswwData = heatStressAtWorkData.optJSONObject("hsww");
+                        String description = hswwData.optString("desc");
+                        HeatStressAtWorkWarningLevel warningsLevel = HeatStressAtWorkWarningLevel.getByName(hswwData.optString("warningLevel").toUpperCase());
+                        HeatStressAtWorkWarningAction action = HeatStressAtWorkWarningAction.valueOf(hswwData.optString("actionCode").toUpperCase());
+                        LocalDateTime effectiveTime = LocalDateTime.parse(hswwData.optString("effectiveTime"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+                        LocalDateTime issueTime = LocalDateTime.parse(hswwData.optString("issueTime"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+                        heatStressAtWorkInfo = new HeatStressAtWorkInfo(description, warningsLevel, action, effectiveTime, issueTime);
+                    } else {
+                        heatStressAtWorkInfo = null;
+                    }
+                    update.accept(CurrentWeatherInfo.DataSource.HEAT_STRESS_AT_WORK, b -> b.setHeatStressAtWorkInfo(heatStressAtWorkInfo));
+                });
 
-                            WeatherWarningsType signalType = null;
-                            try { signalType = WeatherWarningsType.valueOf(wtcb.optString("signalType")); } catch (Throwable ignore) {}
+                graph.node("tc_part2", () -> {
+                    String specialTyphoonInfoLang = lang.equals("en") ? "" : "_tc";
+                    JSONObject specialTyphoonInfoData = HTTPRequestUtils.getJSONResponse("https://pda.weather.gov.hk/locspc/android_data/tc_part2" + specialTyphoonInfoLang + ".json");
+                    SpecialTyphoonInfo specialTyphoonInfo;
+                    if (specialTyphoonInfoData == null) {
+                        specialTyphoonInfo = null;
+                    } else if (specialTyphoonInfoData.has("WTCB") && specialTyphoonInfoData.optJSONObject("WTCB").optBoolean("isTCPart2Display", false)) {
+                        JSONObject wtcb = specialTyphoonInfoData.optJSONObject("WTCB");
+                        JSONObject typhoonData = wtcb.optJSONObject("part2Content");
 
-                            JSONObject considerationsData = typhoonData.optJSONObject("Consideration");
-                            DisplayableInfo considerations = considerationsData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(considerationsData.optBoolean("isDisplay"), JsonUtils.toList(considerationsData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
+                        WeatherWarningsType signalType = null;
+                        try { signalType = WeatherWarningsType.valueOf(wtcb.optString("signalType")); } catch (Throwable ignore) {}
 
-                            JSONObject infoData = typhoonData.optJSONObject("Info");
-                            DisplayableInfo info = infoData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(infoData.optBoolean("isDisplay"), JsonUtils.toList(infoData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
+                        JSONObject considerationsData = typhoonData.optJSONObject("Consideration");
+                        DisplayableInfo considerations = considerationsData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(considerationsData.optBoolean("isDisplay"), JsonUtils.toList(considerationsData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
 
-                            JSONObject windsInfoData = typhoonData.optJSONObject("WindsInfo");
-                            DisplayableInfo windsInfo = windsInfoData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(windsInfoData.optBoolean("isDisplay"), JsonUtils.toList(windsInfoData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
+                        JSONObject infoData = typhoonData.optJSONObject("Info");
+                        DisplayableInfo info = infoData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(infoData.optBoolean("isDisplay"), JsonUtils.toList(infoData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
 
-                            JSONObject windsHighlightData = typhoonData.optJSONObject("WindsHighlight");
-                            DisplayableInfo windsHighlight = windsHighlightData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(windsHighlightData.optBoolean("isDisplay"), JsonUtils.toList(windsHighlightData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
+                        JSONObject windsInfoData = typhoonData.optJSONObject("WindsInfo");
+                        DisplayableInfo windsInfo = windsInfoData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(windsInfoData.optBoolean("isDisplay"), JsonUtils.toList(windsInfoData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
 
-                            JSONObject tideInfoData = typhoonData.optJSONObject("TideInfo");
-                            DisplayableInfo tideInfo = tideInfoData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(tideInfoData.optBoolean("isDisplay"), JsonUtils.toList(tideInfoData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
+                        JSONObject windsHighlightData = typhoonData.optJSONObject("WindsHighlight");
+                        DisplayableInfo windsHighlight = windsHighlightData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(windsHighlightData.optBoolean("isDisplay"), JsonUtils.toList(windsHighlightData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
 
-                            specialTyphoonInfo = new SpecialTyphoonInfo(signalType, considerations, info, windsInfo, windsHighlight, tideInfo);
+                        JSONObject tideInfoData = typhoonData.optJSONObject("TideInfo");
+                        DisplayableInfo tideInfo = tideInfoData == null ? DisplayableInfo.EMPTY : new DisplayableInfo(tideInfoData.optBoolean("isDisplay"), JsonUtils.toList(tideInfoData.optJSONArray("value"), String.class).stream().map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.joining("\n")));
+
+                        specialTyphoonInfo = new SpecialTyphoonInfo(signalType, considerations, info, windsInfo, windsHighlight, tideInfo);
+                    } else {
+                        specialTyphoonInfo = null;
+                    }
+                    update.accept(CurrentWeatherInfo.DataSource.SPECIAL_TYPHOON, b -> b.setSpecialTyphoonInfo(specialTyphoonInfo));
+                });
+
+                graph.whenAllSettled().thenRun(() -> {
+                    Set<CurrentWeatherInfo.DataSource> fallbackSources;
+                    CurrentWeatherInfo currentWeatherInfo;
+                    synchronized (currentWeatherInfoBuilder) {
+                        fallbackSources = EnumSet.complementOf(updatedSources);
+                        fallbackSources.removeAll(skippedSources);
+                        boolean sameDay = lastKnown != null && lastKnown.getDate().equals(today);
+                        if (fallbackSources.isEmpty()) {
+                            currentWeatherInfo = currentWeatherInfoBuilder.build();
+                        } else if (lastKnown == null || updatedSources.size() <= 1 || (!sameDay && fallbackSources.stream().anyMatch(CurrentWeatherInfo.DataSource::isDateScoped))) {
+                            currentWeatherInfo = null;
                         } else {
-                            specialTyphoonInfo = null;
+                            currentWeatherInfo = currentWeatherInfoBuilder.build();
                         }
-                        currentWeatherInfoBuilder.setSpecialTyphoonInfo(specialTyphoonInfo);
-                        future.addProgress(1 / totalStages);
-                    }));
-
-                    for (Future<?> subTask : subTasks) {
-                        subTask.get();
                     }
-                    future.complete(currentWeatherInfoBuilder.build());
-                } finally {
-                    service.shutdown();
-                }
+                    future.complete(currentWeatherInfo);
+                    publicationModel.saveIfChanged(context);
+
+                    if (currentWeatherInfo != null && !fallbackSources.isEmpty()) {
+                        Bundle fallbackBundle = new Bundle();
+                        fallbackBundle.putLong("value", fallbackSources.size());
+                        fallbackBundle.putString("sources", fallbackSources.stream().map(Enum::name).collect(Collectors.joining(",")));
+                        FirebaseAnalytics.getInstance(context).logEvent("fetch_current_weather_info_fallback", fallbackBundle);
+                    }
+
+                    List<FetchGraph.Node> criticalPath = graph.getCriticalPath();
+                    Bundle bundle = new Bundle();
+                    bundle.putLong("value", graph.getCriticalPathTime());
+                    bundle.putString("path", criticalPath.stream().map(FetchGraph.Node::getName).collect(Collectors.joining(">")));
+                    criticalPath.stream().max(Comparator.comparingLong(FetchGraph.Node::getDuration)).ifPresent(n -> {
+                        bundle.putString("bottleneck", n.getName());
+                        bundle.putLong("bottleneck_ms", n.getDuration());
+                    });
+                    FirebaseAnalytics.getInstance(context).logEvent("fetch_current_weather_info_critical_path", bundle);
+                }).exceptionally(e -> {
+                    e.printStackTrace();
+                    future.complete(null);
+                    return null;
+                });
             } catch (Throwable e) {
                 e.printStackTrace();
                 future.complete(null);
-            } finally {
-                long end = System.currentTimeMillis();
-                Bundle bundle = new Bundle();
-                bundle.putLong("value", end - start);
-                FirebaseAnalytics.getInstance(context).logEvent("fetch_current_weather_info_ms", bundle);
             }
-        }).start();
-        return future;
+        });
+        return group.bind(future);
+    }
+
+    private static String getStationName(StationIndex stations, int index, String lang) {
+        if (index < 0) {
+            return "";
+        }
+        return lang.equals("en") ? stations.getNameEn(index) : stations.getNameZh(index);
     }
 
-    public Future<Map<WeatherWarningsType, String>> getActiveWarnings(Context context) {
+    public CompletableFuture<Map<WeatherWarningsType, String>> getActiveWarnings(Context context, FetchGroup group) {
         CompletableFuture<Map<WeatherWarningsType, String>> future = new CompletableFuture<>();
         long start = System.currentTimeMillis();
-        new Thread(() -> {
-            try {
-                String lang = getLanguage().equals("en") ? "en" : "tc";
-
-                JSONObject sumData = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=warnsum&lang=" + lang);
-                if (sumData == null) {
-                    throw new RuntimeException();
-                }
-                Map<WeatherWarningsType, String> warnings = new EnumMap<>(WeatherWarningsType.class);
-                for (Iterator<String> itr = sumData.keys(); itr.hasNext();) {
-                    String key = itr.next();
-                    JSONObject obj = sumData.optJSONObject(key);
-                    if (obj != null && !obj.optString("actionCode").equals("CANCEL")) {
-                        warnings.put(WeatherWarningsType.valueOf(obj.optString("code").toUpperCase()), null);
-                    }
+        boolean english = getLanguage().equals("en");
+        String lang = english ? "en" : "tc";
+        CompletableFuture<JSONObject> sumFuture = group.submit(() -> HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=warnsum&lang=" + lang));
+        CompletableFuture<JSONObject> infoFuture = group.submit(() -> HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=warningInfo&lang=" + lang));
+        sumFuture.thenAcceptBoth(infoFuture.exceptionally(e -> null), (sumData, data) -> {
+            if (sumData == null) {
+                throw new RuntimeException();
+            }
+            Map<WeatherWarningsType, String> warnings = new EnumMap<>(WeatherWarningsType.class);
+            for (Iterator<String> itr = sumData.keys(); itr.hasNext();) {
+                String key = itr.next();
+                JSONObject obj = sumData.optJSONObject(key);
+                if (obj != null && !obj.optString("actionCode").equals("CANCEL")) {
+                    warnings.put(WeatherWarningsType.valueOf(obj.optString("code").toUpperCase()), null);
                 }
-
-                JSONObject data = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=warningInfo&lang=" + lang);
-                if (data != null) {
-                    JSONArray array = data.optJSONArray("details");
-                    if (array != null) {
-                        for (int i = 0; i < array.length(); i++) {
-                            JSONObject details = array.optJSONObject(i);
-                            try {
-                                WeatherWarningsType warningType = WeatherWarningsType.valueOf((details.has("subtype") ? details.optString("subtype") : details.optString("warningStatementCode")).toUpperCase());
-                                if (warnings.containsKey(warningType)) {
-                                    String warningName = getLanguage().equals("en") ? warningType.getNameEn() : warningType.getNameZh();
-                                    JSONArray contentsArray = details.optJSONArray("contents");
-                                    String contents;
-                                    if (contentsArray == null || contentsArray.length() == 0) {
-                                        contents = null;
-                                    } else {
-                                        List<String> lines = JsonUtils.toList(contentsArray, String.class);
-                                        if (!lines.get(0).trim().equalsIgnoreCase(warningName)) {
-                                            lines.add(0, warningName);
-                                        }
-                                        contents = String.join("\n", lines);
-                                        OffsetDateTime time = OffsetDateTime.parse(details.optString("updateTime"));
-                                        if (getLanguage().equals("en")) {
-                                            contents += "\nDispatched by the Hong Kong Observatory at " + DateTimeFormatter.ofPattern("HH:mm' HKT on 'dd.MM.yyyy", Locale.ENGLISH).format(time);
-                                        } else {
-                                            contents += "\n以上天氣稿由天文台於" + DateTimeFormatter.ofPattern("yyyy年MM月dd日HH時mm分", Locale.TRADITIONAL_CHINESE).format(time) + "發出";
-                                        }
-                                    }
-                                    warnings.put(warningType, contents);
-                                }
-                            } catch (Throwable e) {
-                                e.printStackTrace();
-                            }
+            }
+            JSONArray array = data == null ? null : data.optJSONArray("details");
+            if (array != null) {
+                for (int i = 0; i < array.length(); i++) {
+                    JSONObject details = array.optJSONObject(i);
+                    try {
+                        WeatherWarningsType warningType = WeatherWarningsType.valueOf((details.has("subtype") ? details.optString("subtype") : details.optString("warningStatementCode")).toUpperCase());
+                        if (warnings.containsKey(warningType)) {
+                            warnings.put(warningType, formatWarningContents(warningType, details, english));
                         }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
                     }
                 }
-
-                future.complete(warnings);
-            } catch (Throwable e) {
+            }
+            future.complete(warnings);
+        }).whenComplete((r, e) -> {
+            if (e != null) {
                 e.printStackTrace();
                 future.complete(null);
-            } finally {
-                long end = System.currentTimeMillis();
-                Bundle bundle = new Bundle();
-                bundle.putLong("value", end - start);
-                FirebaseAnalytics.getInstance(context).logEvent("fetch_active_warnings_ms", bundle);
             }
-        }).start();
-        return future;
+            long end = System.currentTimeMillis();
+            Bundle bundle = new Bundle();
+            bundle.putLong("value", end - start);
+            FirebaseAnalytics.getInstance(context).logEvent("fetch_active_warnings_ms", bundle);
+        });
+        return group.bind(future);
+    }
+
+    public CompletableFuture<HTTPRequestUtils.ConditionalResponse> getWarningsSummary(Context context, String etag, String lastModified, FetchGroup group) {
+        long start = System.currentTimeMillis();
+        CompletableFuture<HTTPRequestUtils.ConditionalResponse> future = group.submit(() -> HTTPRequestUtils.getConditionalTextResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=warnsum&lang=en", etag, lastModified));
+        future.whenComplete((r, e) -> {
+            long end = System.currentTimeMillis();
+            Bundle bundle = new Bundle();
+            bundle.putLong("value", end - start);
+            bundle.putBoolean("notModified", r != null && r.isNotModified());
+            FirebaseAnalytics.getInstance(context).logEvent("fetch_warnings_summary_ms", bundle);
+        });
+        return group.bind(future);
+    }
+
+    public static String hashWarningsSummary(String body) throws JSONException {
+        JSONObject sumData = new JSONObject(body);
+        List<String> entries = new ArrayList<>();
+        for (Iterator<String> itr = sumData.keys(); itr.hasNext();) {
+            JSONObject obj = sumData.optJSONObject(itr.next());
+            if (obj != null) {
+                entries.add(obj.optString("code") + "|" + obj.optString("actionCode") + "|" + obj.optString("issueTime") + "|" + obj.optString("updateTime"));
+            }
+        }
+        Collections.sort(entries);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.join("\n", entries).getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    public Future<List<Pair<String, Long>>> getWeatherTips(Context context) {
-        CompletableFuture<List<Pair<String, Long>>> future = new CompletableFuture<>();
+    private static String formatWarningContents(WeatherWarningsType warningType, JSONObject details, boolean english) {
+        JSONArray contentsArray = details.optJSONArray("contents");
+        if (contentsArray == null || contentsArray.length() == 0) {
+            return null;
+        }
+        String warningName = english ? warningType.getNameEn() : warningType.getNameZh();
+        List<String> lines = JsonUtils.toList(contentsArray, String.class);
+        if (!lines.get(0).trim().equalsIgnoreCase(warningName)) {
+            lines.add(0, warningName);
+        }
+        String contents = String.join("\n", lines);
+        OffsetDateTime time = OffsetDateTime.parse(details.optString("updateTime"));
+        if (english) {
+            return contents + "\nDispatched by the Hong Kong Observatory at " + WARNING_DISPATCH_FORMAT_EN.format(time);
+        } else {
+            return contents + "\n以上天氣稿由天文台於" + WARNING_DISPATCH_FORMAT_ZH.format(time) + "發出";
+        }
+    }
+
+    public CompletableFuture<List<Pair<String, Long>>> getWeatherTips(Context context, FetchGroup group) {
+        return getWeatherTips(context, group, CompletableFuture.completedFuture(null));
+    }
+
+    public CompletableFuture<List<Pair<String, Long>>> getWeatherTips(Context context, FetchGroup group, CompletableFuture<?> after) {
         long start = System.currentTimeMillis();
-        new Thread(() -> {
+        String lang = getLanguage().equals("en") ? "en" : "tc";
+        CompletableFuture<List<Pair<String, Long>>> future = fetchWeatherTips(group, after, "https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=swt&lang=" + lang, Pair::create);
+        future.whenComplete((r, e) -> {
+            long end = System.currentTimeMillis();
+            Bundle bundle = new Bundle();
+            bundle.putLong("value", end - start);
+            FirebaseAnalytics.getInstance(context).logEvent("fetch_weather_tips_ms", bundle);
+        });
+        return future;
+    }
+
+    static <T> CompletableFuture<List<T>> fetchWeatherTips(FetchGroup group, CompletableFuture<?> after, String link, BiFunction<String, Long, T> tipFactory) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        group.submitAfter(after, () -> {
             try {
-                TimeUnit.SECONDS.sleep(5);
-                String lang = getLanguage().equals("en") ? "en" : "tc";
-                JSONObject data = HTTPRequestUtils.getJSONResponse("https://data.weather.gov.hk/weatherAPI/opendata/weather.php?dataType=swt&lang=" + lang);
+                JSONObject data = HTTPRequestUtils.getJSONResponse(link);
                 if (data == null) {
                     throw new RuntimeException();
                 }
@@ -898,24 +897,19 @@ public class Registry {
                     return;
                 }
                 JSONArray array = data.getJSONArray("swt");
-                List<Pair<String, Long>> tips = new ArrayList<>();
+                List<T> tips = new ArrayList<>();
                 for (int i = 0; i < array.length(); i++) {
                     JSONObject obj = array.getJSONObject(i);
                     ZonedDateTime zonedDateTime = ZonedDateTime.parse(obj.optString("updateTime"), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                    tips.add(Pair.create(obj.optString("desc"), zonedDateTime.toInstant().toEpochMilli()));
+                    tips.add(tipFactory.apply(obj.optString("desc"), zonedDateTime.toInstant().toEpochMilli()));
                 }
                 future.complete(tips);
             } catch (Throwable e) {
                 e.printStackTrace();
                 future.complete(null);
-            } finally {
-                long end = System.currentTimeMillis();
-                Bundle bundle = new Bundle();
-                bundle.putLong("value", end - start);
-                FirebaseAnalytics.getInstance(context).logEvent("fetch_weather_tips_ms", bundle);
             }
-        }).start();
-        return future;
+        });
+        return group.bind(future);
     }
 
 }
@@ -22,16 +22,22 @@ package com.loohp.hkweatherwarnings.shared
 
 import android.content.ComponentName
 import android.content.Context
+import android.os.Bundle
 import android.util.Pair
 import androidx.wear.tiles.TileService
 import androidx.wear.watchface.complications.datasource.ComplicationDataSourceUpdateRequester
 import androidx.work.Constraints
-import androidx.work.ExistingPeriodicWorkPolicy
+import androidx.work.ExistingWorkPolicy
 import androidx.work.NetworkType
-import androidx.work.PeriodicWorkRequest
-import androidx.work.PeriodicWorkRequestBuilder
+import androidx.work.OneTimeWorkRequestBuilder
 import androidx.work.WorkManager
+import com.google.firebase.Firebase
+import com.google.firebase.analytics.analytics
 import com.loohp.hkweatherwarnings.background.PeriodicUpdateWorker
+import com.loohp.hkweatherwarnings.background.RefreshPolicy
+import com.loohp.hkweatherwarnings.background.WarningWatcherWorker
+import com.loohp.hkweatherwarnings.cache.AtomicFileStore
+import com.loohp.hkweatherwarnings.cache.BinaryCodec
 import com.loohp.hkweatherwarnings.complications.ChanceOfRainComplication
 import com.loohp.hkweatherwarnings.complications.HumidityComplication
 import com.loohp.hkweatherwarnings.complications.MoonriseMoonsetComplication
@@ -44,27 +50,27 @@ import com.loohp.hkweatherwarnings.complications.WindComplication
 import com.loohp.hkweatherwarnings.tiles.WeatherOverviewTile
 import com.loohp.hkweatherwarnings.tiles.WeatherTipsTile
 import com.loohp.hkweatherwarnings.tiles.WeatherWarningsTile
+import com.loohp.hkweatherwarnings.utils.ConnectionUtils
 import com.loohp.hkweatherwarnings.utils.LocationUtils
 import com.loohp.hkweatherwarnings.utils.LocationUtils.LocationResult
-import com.loohp.hkweatherwarnings.utils.orElse
+import com.loohp.hkweatherwarnings.utils.orElseAsync
 import com.loohp.hkweatherwarnings.weather.CurrentWeatherInfo
 import com.loohp.hkweatherwarnings.weather.LunarDate
+import com.loohp.hkweatherwarnings.weather.WeatherWarningsChange
 import com.loohp.hkweatherwarnings.weather.WeatherWarningsType
-import org.json.JSONArray
-import org.json.JSONObject
-import java.io.BufferedReader
-import java.io.InputStreamReader
-import java.io.OutputStreamWriter
-import java.io.PrintWriter
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.FileNotFoundException
 import java.lang.Long.min
-import java.nio.charset.StandardCharsets
 import java.time.LocalDate
 import java.time.ZoneId
 import java.util.EnumMap
 import java.util.TimeZone
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
-import java.util.stream.Collectors
 
 class Shared {
 
@@ -75,38 +81,82 @@ class Shared {
         val DEFAULT_LOCATION: LocationResult = LocationResult.fromLatLng(22.3019444, 114.1741666)
 
         const val NEVER_REFRESH_INTERVAL = Long.MAX_VALUE - 600000L
-        private const val BACKGROUND_SERVICE_REQUEST_TAG: String = "HK_WEATHER_BG_SERVICE"
+        const val TILE_RESPONSE_DEADLINE = 300L
+        const val COMPLICATION_RESPONSE_DEADLINE = 100L
+        const val WARNING_WATCHER_INTERVAL = 300000L
+        const val WARNING_WATCHER_DAILY_BYTE_BUDGET = 1048576L
+        const val WARNING_WATCHER_DAILY_WAKEUP_BUDGET = 300
+        private const val LEGACY_BACKGROUND_SERVICE_REQUEST_TAG: String = "HK_WEATHER_BG_SERVICE"
+        private const val BACKGROUND_REFRESH_REQUEST_TAG: String = "HK_WEATHER_BG_REFRESH"
+        private const val WARNING_WATCHER_REQUEST_TAG: String = "HK_WEATHER_WARNING_WATCHER"
 
         val REFRESH_INTERVAL: (Context) -> Long = { min(Registry.getInstance(it).refreshRate, NEVER_REFRESH_INTERVAL) }
         val FRESHNESS_TIME: (Context) -> Long = { REFRESH_INTERVAL.invoke(it) + 600000L }
 
-        private const val WEATHER_CACHE_FILE = "weather_cache.json"
-        private const val WARNINGS_CACHE_FILE = "warnings_cache.json"
-        private const val TIPS_CACHE_FILE = "tips_cache.json"
+        private val WEATHER_CACHE_FILE = AtomicFileStore("weather_cache.bin")
+        private val WARNINGS_CACHE_FILE = AtomicFileStore("warnings_cache.bin")
+        private val TIPS_CACHE_FILE = AtomicFileStore("tips_cache.bin")
+        private const val WEATHER_CACHE_VERSION = 2
 
-        val currentWeatherInfo: DataState<CurrentWeatherInfo?> = DataState(null, {
-            if (it.applicationContext.fileList().contains(WEATHER_CACHE_FILE)) {
-                try {
-                    BufferedReader(InputStreamReader(it.applicationContext.openFileInput(WEATHER_CACHE_FILE), StandardCharsets.UTF_8)).use { reader ->
-                        val json = JSONObject(reader.lines().collect(Collectors.joining()))
-                        val data = if (json.has("weather")) CurrentWeatherInfo.deserialize(json.optJSONObject("weather")!!) else null
-                        val updateTime = json.optLong("updateTime")
-                        val updateSuccessful = json.optBoolean("updateSuccessful")
-                        return@DataState DataStateInitializeResult(data, updateTime, updateSuccessful, false)
-                    }
-                } catch (e: Exception) {
-                    e.printStackTrace()
-                    it.applicationContext.deleteFile(WEATHER_CACHE_FILE)
+        private val LEGACY_CACHE_FILES = listOf("weather_cache.json", "warnings_cache.json", "tips_cache.json")
+
+        private fun <T> loadCache(context: Context, file: AtomicFileStore, defaultValue: T, version: Int = BinaryCodec.FORMAT_VERSION, reader: (DataInputStream) -> T): DataStateInitializeResult<T> {
+            val applicationContext = context.applicationContext
+            val start = System.nanoTime()
+            try {
+                DataInputStream(BufferedInputStream(file.openRead(applicationContext))).use { input ->
+                    BinaryCodec.readHeader(input, version)
+                    val updateTime = input.readLong()
+                    val updateSuccessful = input.readBoolean()
+                    val value = reader.invoke(input)
+                    Firebase.analytics.logEvent("load_cache_us", Bundle().apply {
+                        putLong("value", (System.nanoTime() - start) / 1000)
+                        putString("file", file.fileName)
+                    })
+                    return DataStateInitializeResult(value, updateTime, updateSuccessful, false)
+                }
+            } catch (e: FileNotFoundException) {
+                LEGACY_CACHE_FILES.forEach { applicationContext.deleteFile(it) }
+            } catch (e: Exception) {
+                e.printStackTrace()
+                file.delete(applicationContext)
+            }
+            return DataStateInitializeResult.defaultEmpty(defaultValue)
+        }
+
+        private fun <T> saveCache(context: Context, file: AtomicFileStore, self: DataState<T>, value: T, version: Int = BinaryCodec.FORMAT_VERSION, writer: (DataOutputStream, T) -> Unit) {
+            val updateTime = self.getLastSuccessfulUpdateTime(context)
+            val updateSuccessful = self.isLastUpdateSuccess(context)
+            file.write(context) {
+                val output = DataOutputStream(BufferedOutputStream(it))
+                BinaryCodec.writeHeader(output, version)
+                output.writeLong(updateTime)
+                output.writeBoolean(updateSuccessful)
+                writer.invoke(output, value)
+                output.flush()
+            }
+        }
+
+        private fun saveWarningsCache(context: Context, self: DataState<Map<WeatherWarningsType, String?>>, value: Map<WeatherWarningsType, String?>) {
+            saveCache(context, WARNINGS_CACHE_FILE, self, value) { output, v ->
+                output.writeInt(v.size)
+                for ((type, text) in v.entries) {
+                    BinaryCodec.writeEnum(output, type)
+                    BinaryCodec.writeString(output, text)
                 }
             }
-            DataStateInitializeResult.defaultEmpty(null)
+        }
+
+        val currentWeatherInfo: DataState<CurrentWeatherInfo?> = DataState(null, {
+            loadCache(it, WEATHER_CACHE_FILE, null, WEATHER_CACHE_VERSION) { input -> if (input.readBoolean()) CurrentWeatherInfo.deserialize(input) else null }
         }, {
-            it.applicationContext.deleteFile(WEATHER_CACHE_FILE)
-        }, FRESHNESS_TIME, { context, _, updateProgress ->
+            WEATHER_CACHE_FILE.delete(it)
+        }, FRESHNESS_TIME, { context, self, updateProgress, group ->
             val locationType = Registry.getInstance(context).location
-            val location = if (locationType.first == "GPS") LocationUtils.getGPSLocation(context).get() else LocationResult.ofNullable(locationType.second)
-            val result = Registry.getInstance(context).getCurrentWeatherInfo(context, location).listen { _, value -> updateProgress.value = value }.orElse(60, TimeUnit.SECONDS, null)
-            if (result == null) UpdateResult.failed() else UpdateResult.success(result)
+            val location = if (locationType.first == "GPS") LocationUtils.getGPSLocation(context) else CompletableFuture.completedFuture(LocationResult.ofNullable(locationType.second))
+            location.thenCompose {
+                Registry.getInstance(context).getCurrentWeatherInfo(context, it, self.getCachedValue(context), { v -> self.publishIntermediateValue(context, v) }, group).listen { _, value -> updateProgress.value = value }.orElseAsync(60, TimeUnit.SECONDS, null)
+            }.thenApply { if (it == null) UpdateResult.failed() else UpdateResult.success(it) }
         }, { context, self, value ->
             TileService.getUpdater(context).requestUpdate(WeatherOverviewTile::class.java)
             ComplicationDataSourceUpdateRequester.create(context, ComponentName(context, WeatherTemperatureComplication::class.java)).requestUpdateAll()
@@ -118,128 +168,84 @@ class Shared {
             ComplicationDataSourceUpdateRequester.create(context, ComponentName(context, MoonriseMoonsetComplication::class.java)).requestUpdateAll()
             ComplicationDataSourceUpdateRequester.create(context, ComponentName(context, WindComplication::class.java)).requestUpdateAll()
             ComplicationDataSourceUpdateRequester.create(context, ComponentName(context, WeatherAlertsComplication::class.java)).requestUpdateAll()
-            try {
-                PrintWriter(OutputStreamWriter(context.applicationContext.openFileOutput(WEATHER_CACHE_FILE, Context.MODE_PRIVATE), StandardCharsets.UTF_8)).use {
-                    val json = JSONObject()
-                    value?.let { v -> json.put("weather", v.serialize()) }
-                    json.put("updateTime", self.getLastSuccessfulUpdateTime(context))
-                    json.put("updateSuccessful", self.isLastUpdateSuccess(context))
-                    it.write(json.toString())
-                    it.flush()
-                }
-            } catch (e: Exception) {
-                e.printStackTrace()
+            saveCache(context, WEATHER_CACHE_FILE, self, value, WEATHER_CACHE_VERSION) { output, v ->
+                output.writeBoolean(v != null)
+                v?.serialize(output)
             }
         }, { context, _ ->
             TileService.getUpdater(context).requestUpdate(WeatherOverviewTile::class.java)
+        }, { context, _, _ ->
+            TileService.getUpdater(context).requestUpdate(WeatherOverviewTile::class.java)
+            ComplicationDataSourceUpdateRequester.create(context, ComponentName(context, WeatherTemperatureComplication::class.java)).requestUpdateAll()
+        }, { context, _, value ->
+            value?.let { Registry.getInstance(context).publicationModel.recordDisplay(it, System.currentTimeMillis()) }
         })
 
         val currentWarnings: DataState<Map<WeatherWarningsType, String?>> = DataState(emptyMap(), {
-            if (it.applicationContext.fileList().contains(WARNINGS_CACHE_FILE)) {
-                try {
-                    BufferedReader(InputStreamReader(it.applicationContext.openFileInput(WARNINGS_CACHE_FILE), StandardCharsets.UTF_8)).use { reader ->
-                        val json = JSONObject(reader.lines().collect(Collectors.joining()))
-                        val entries = json.optJSONArray("warnings")!!
-                        val map: MutableMap<WeatherWarningsType, String?> = EnumMap(WeatherWarningsType::class.java)
-                        for (i in 0 until entries.length()) {
-                            val entry = entries.optJSONObject(i)!!
-                            val type = WeatherWarningsType.valueOf(entry.optString("type").uppercase())
-                            val text = entry.optString("text").ifEmpty { null }
-                            map[type] = text
-                        }
-                        val updateTime = json.optLong("updateTime")
-                        val updateSuccessful = json.optBoolean("updateSuccessful")
-                        return@DataState DataStateInitializeResult(map, updateTime, updateSuccessful, false)
-                    }
-                } catch (e: Exception) {
-                    e.printStackTrace()
-                    it.applicationContext.deleteFile(WARNINGS_CACHE_FILE)
+            loadCache(it, WARNINGS_CACHE_FILE, emptyMap()) { input ->
+                val map: MutableMap<WeatherWarningsType, String?> = EnumMap(WeatherWarningsType::class.java)
+                repeat(BinaryCodec.readLength(input)) {
+                    val type = BinaryCodec.readEnum(input, WeatherWarningsType::class.java)
+                    map[type] = BinaryCodec.readString(input)
                 }
+                map
             }
-            DataStateInitializeResult.defaultEmpty(emptyMap())
         }, {
-            it.applicationContext.deleteFile(WARNINGS_CACHE_FILE)
-        }, FRESHNESS_TIME, { context, _, _ ->
-            val result = Registry.getInstance(context).getActiveWarnings(context).orElse(60, TimeUnit.SECONDS, null)
-            if (result == null) UpdateResult.failed() else UpdateResult.success(result)
+            WARNINGS_CACHE_FILE.delete(it)
+        }, FRESHNESS_TIME, { context, self, _, group ->
+            val previous = self.getCachedValue(context)
+            Registry.getInstance(context).getActiveWarnings(context, group).orElseAsync(60, TimeUnit.SECONDS, null).thenApply {
+                if (it == null) {
+                    UpdateResult.failed()
+                } else if (it == previous) {
+                    UpdateResult.unchanged(it)
+                } else {
+                    val changes = WeatherWarningsChange.diff(previous.keys, it.keys, System.currentTimeMillis())
+                    Registry.getInstance(context).warningsChangeLog.record(changes)
+                    for (change in changes) {
+                        Firebase.analytics.logEvent("weather_warnings_change", Bundle().apply {
+                            putString("value", change.type.name)
+                            putString("action", change.action.name)
+                        })
+                    }
+                    UpdateResult.success(it)
+                }
+            }
         }, { context, self, value ->
             TileService.getUpdater(context).requestUpdate(WeatherWarningsTile::class.java)
             TileService.getUpdater(context).requestUpdate(WeatherOverviewTile::class.java)
             ComplicationDataSourceUpdateRequester.create(context, ComponentName(context, WeatherAlertsComplication::class.java)).requestUpdateAll()
-            PrintWriter(OutputStreamWriter(context.applicationContext.openFileOutput(WARNINGS_CACHE_FILE, Context.MODE_PRIVATE), StandardCharsets.UTF_8)).use {
-                try {
-                    val array = JSONArray()
-                    for ((type, text) in value.entries) {
-                        val obj = JSONObject()
-                        obj.put("type", type.name)
-                        obj.put("text", text?: "")
-                        array.put(obj)
-                    }
-                    val json = JSONObject()
-                    json.put("warnings", array)
-                    json.put("updateTime", self.getLastSuccessfulUpdateTime(context))
-                    json.put("updateSuccessful", self.isLastUpdateSuccess(context))
-                    it.write(json.toString())
-                    it.flush()
-                } catch (e: Exception) {
-                    e.printStackTrace()
-                }
-            }
+            saveWarningsCache(context, self, value)
         }, { context, _ ->
             TileService.getUpdater(context).requestUpdate(WeatherWarningsTile::class.java)
             TileService.getUpdater(context).requestUpdate(WeatherOverviewTile::class.java)
+        }, updateUnchangedCallback = { context, self, value ->
+            saveWarningsCache(context, self, value)
         })
 
         val currentTips: DataState<List<Pair<String, Long>>> = DataState(emptyList(), {
-            if (it.applicationContext.fileList().contains(TIPS_CACHE_FILE)) {
-                try {
-                    BufferedReader(InputStreamReader(it.applicationContext.openFileInput(TIPS_CACHE_FILE), StandardCharsets.UTF_8)).use { reader ->
-                        val json = JSONObject(reader.lines().collect(Collectors.joining()))
-                        val entries = json.optJSONArray("tips")!!
-                        val list = buildList<Pair<String, Long>> {
-                            for (i in 0 until entries.length()) {
-                                val entry = entries.optJSONObject(i)!!
-                                val tip = entry.optString("tip")
-                                val time = entry.optLong("time")
-                                add(Pair.create(tip, time))
-                            }
-                        }
-                        val updateTime = json.optLong("updateTime")
-                        val updateSuccessful = json.optBoolean("updateSuccessful")
-                        return@DataState DataStateInitializeResult(list, updateTime, updateSuccessful, false)
+            loadCache(it, TIPS_CACHE_FILE, emptyList()) { input ->
+                buildList {
+                    repeat(BinaryCodec.readLength(input)) {
+                        val tip = BinaryCodec.readString(input)
+                        add(Pair.create(tip, input.readLong()))
                     }
-                } catch (e: Exception) {
-                    e.printStackTrace()
-                    it.applicationContext.deleteFile(TIPS_CACHE_FILE)
                 }
             }
-            DataStateInitializeResult.defaultEmpty(emptyList())
         }, {
-            it.applicationContext.deleteFile(TIPS_CACHE_FILE)
-        }, FRESHNESS_TIME, { context, _, _ ->
-            val result = Registry.getInstance(context).getWeatherTips(context).orElse(60, TimeUnit.SECONDS, null)
-            if (result == null) UpdateResult.failed() else UpdateResult.success(result)
+            TIPS_CACHE_FILE.delete(it)
+        }, FRESHNESS_TIME, { context, _, _, group ->
+            Registry.getInstance(context).getWeatherTips(context, group, currentWarnings.getPendingUpdate()).orElseAsync(60, TimeUnit.SECONDS, null)
+                .thenApply { if (it == null) UpdateResult.failed() else UpdateResult.success(it) }
         }, { context, self, value ->
             TileService.getUpdater(context).requestUpdate(WeatherTipsTile::class.java)
             TileService.getUpdater(context).requestUpdate(WeatherOverviewTile::class.java)
             ComplicationDataSourceUpdateRequester.create(context, ComponentName(context, WeatherAlertsComplication::class.java)).requestUpdateAll()
-            PrintWriter(OutputStreamWriter(context.applicationContext.openFileOutput(TIPS_CACHE_FILE, Context.MODE_PRIVATE), StandardCharsets.UTF_8)).use {
-                try {
-                    val array = JSONArray()
-                    for (pair in value) {
-                        val obj = JSONObject()
-                        obj.put("tip", pair.first)
-                        obj.put("time", pair.second)
-                        array.put(obj)
-                    }
-                    val json = JSONObject()
-                    json.put("tips", array)
-                    json.put("updateTime", self.getLastSuccessfulUpdateTime(context))
-                    json.put("updateSuccessful", self.isLastUpdateSuccess(context))
-                    it.write(json.toString())
-                    it.flush()
-                } catch (e: Exception) {
-                    e.printStackTrace()
+            saveCache(context, TIPS_CACHE_FILE, self, value) { output, v ->
+                output.writeInt(v.size)
+                for (pair in v) {
+                    BinaryCodec.writeString(output, pair.first)
+                    output.writeLong(pair.second)
                 }
             }
         }, { context, _ ->
@@ -247,21 +253,49 @@ class Shared {
             TileService.getUpdater(context).requestUpdate(WeatherOverviewTile::class.java)
         })
 
-        val convertedLunarDates: MapValueState<LocalDate, LunarDate> = MapValueState(ConcurrentHashMap(), ConcurrentHashMap()) { key, context, _ ->
-            val result = Registry.getInstance(context).getLunarDate(context, key).orElse(60, TimeUnit.SECONDS, null)
-            if (result == null) UpdateResult.failed() else UpdateResult.success(result)
+        val convertedLunarDates: MapValueState<LocalDate, LunarDate> = MapValueState(ConcurrentHashMap(), ConcurrentHashMap()) { key, context, _, group ->
+            Registry.getInstance(context).getLunarDate(context, key, group).orElseAsync(60, TimeUnit.SECONDS, null)
+                .thenApply { if (it == null) UpdateResult.failed() else UpdateResult.success(it) }
         }
 
-        fun startBackgroundService(context: Context) {
+        fun startBackgroundService(context: Context, policy: ExistingWorkPolicy = ExistingWorkPolicy.KEEP) {
             val interval = REFRESH_INTERVAL.invoke(context)
+            WorkManager.getInstance(context).cancelUniqueWork(LEGACY_BACKGROUND_SERVICE_REQUEST_TAG)
             if (interval >= NEVER_REFRESH_INTERVAL) {
-                WorkManager.getInstance(context).cancelUniqueWork(BACKGROUND_SERVICE_REQUEST_TAG)
+                WorkManager.getInstance(context).cancelUniqueWork(BACKGROUND_REFRESH_REQUEST_TAG)
             } else {
-                val updateRequest = PeriodicWorkRequestBuilder<PeriodicUpdateWorker>(interval, TimeUnit.MILLISECONDS, PeriodicWorkRequest.MIN_PERIODIC_FLEX_MILLIS, TimeUnit.MILLISECONDS)
-                    .setConstraints(Constraints(requiredNetworkType = NetworkType.CONNECTED))
-                    .build()
-                WorkManager.getInstance(context).enqueueUniquePeriodicWork(BACKGROUND_SERVICE_REQUEST_TAG, ExistingPeriodicWorkPolicy.UPDATE, updateRequest)
+                scheduleBackgroundRefresh(context, policy)
             }
+            if (isWarningWatcherEnabled(context)) {
+                scheduleWarningWatcher(context, ExistingWorkPolicy.KEEP)
+            } else {
+                WorkManager.getInstance(context).cancelUniqueWork(WARNING_WATCHER_REQUEST_TAG)
+            }
+        }
+
+        fun scheduleBackgroundRefresh(context: Context, policy: ExistingWorkPolicy) {
+            val delay = RefreshPolicy.current(context).getNextDelay(context)
+            val updateRequest = OneTimeWorkRequestBuilder<PeriodicUpdateWorker>()
+                .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                .setConstraints(Constraints(requiredNetworkType = NetworkType.CONNECTED))
+                .build()
+            WorkManager.getInstance(context).enqueueUniqueWork(BACKGROUND_REFRESH_REQUEST_TAG, policy, updateRequest)
+        }
+
+        fun isWarningWatcherEnabled(context: Context): Boolean {
+            val interval = REFRESH_INTERVAL.invoke(context)
+            return interval in (WARNING_WATCHER_INTERVAL + 1) until NEVER_REFRESH_INTERVAL
+        }
+
+        fun scheduleWarningWatcher(context: Context, policy: ExistingWorkPolicy) {
+            val state = Registry.getInstance(context).warningWatcherState
+            val restricted = ConnectionUtils.isBackgroundRestricted(context) != ConnectionUtils.BackgroundRestrictionType.NONE
+            val delay = if (restricted || state.isOverBudget(WARNING_WATCHER_DAILY_BYTE_BUDGET, WARNING_WATCHER_DAILY_WAKEUP_BUDGET)) REFRESH_INTERVAL.invoke(context) else WARNING_WATCHER_INTERVAL
+            val watcherRequest = OneTimeWorkRequestBuilder<WarningWatcherWorker>()
+                .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                .setConstraints(Constraints(requiredNetworkType = NetworkType.CONNECTED))
+                .build()
+            WorkManager.getInstance(context).enqueueUniqueWork(WARNING_WATCHER_REQUEST_TAG, policy, watcherRequest)
         }
 
     }
@@ -22,27 +22,42 @@ package com.loohp.hkweatherwarnings.shared
 
 import android.content.Context
 import com.loohp.hkweatherwarnings.utils.CompletableFutureWithIntermediateValue
-import com.loohp.hkweatherwarnings.utils.FutureWithIntermediateValue
+import com.loohp.hkweatherwarnings.utils.FetchGroup
+import com.loohp.hkweatherwarnings.utils.FetchPriority
+import com.loohp.hkweatherwarnings.utils.orElseAsync
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
-import java.util.concurrent.Callable
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ExecutorService
-import java.util.concurrent.Future
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+
+internal val UPDATE_DISPATCHER: ExecutorService = Executors.newCachedThreadPool { r -> Thread(r, "HKWeather-Update").apply { isDaemon = true } }
+private val INTERMEDIATE_VALUE_SCHEDULER: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor { r -> Thread(r, "HKWeather-Intermediate").apply { isDaemon = true } }
+private const val INTERMEDIATE_VALUE_DEBOUNCE = 500L
 
 
 class UpdateResult<T> private constructor(
     val isSuccessful: Boolean,
+    val isChanged: Boolean,
     val value: T?
 ) {
     companion object {
 
         fun <T> success(value: T): UpdateResult<T> {
-            return UpdateResult(true, value)
+            return UpdateResult(true, true, value)
+        }
+
+        fun <T> unchanged(value: T): UpdateResult<T> {
+            return UpdateResult(true, false, value)
         }
 
         fun <T> failed(): UpdateResult<T> {
-            return UpdateResult(false, null)
+            return UpdateResult(false, false, null)
         }
 
     }
@@ -52,11 +67,10 @@ class UpdateResult<T> private constructor(
 class MapValueState<K, V>(
     private val map: MutableMap<K, V>,
     private val stateMap: MutableMap<K, MutableStateFlow<V?>>,
-    private val fetchFunction: (K, Context, MapValueState<K, V>) -> UpdateResult<V>
+    private val fetchFunction: (K, Context, MapValueState<K, V>, FetchGroup) -> CompletableFuture<UpdateResult<V>>
 ) {
 
-    constructor(map: MutableMap<K, V>, stateMap: MutableMap<K, MutableStateFlow<V?>>, fetchFunction: (K, Context, MapValueState<K, V>, Nothing?) -> UpdateResult<Map<K, V>>): this(map, stateMap, { key, context, state ->
-        val result = fetchFunction.invoke(key, context, state, null)
+    constructor(map: MutableMap<K, V>, stateMap: MutableMap<K, MutableStateFlow<V?>>, fetchFunction: (K, Context, MapValueState<K, V>, FetchGroup, Nothing?) -> CompletableFuture<UpdateResult<Map<K, V>>>): this(map, stateMap, { key, context, state, group -> fetchFunction.invoke(key, context, state, group, null).thenApply { result ->
         if (result.isSuccessful) {
             for ((k, v) in result.value!!) {
                 state.map[k] = v
@@ -78,30 +92,28 @@ class MapValueState<K, V>(
         } else {
             UpdateResult.failed()
         }
-    })
+    } })
 
-    fun getValue(key: K, context: Context, executor: ExecutorService): Future<V> {
+    fun getValue(key: K, context: Context, priority: FetchPriority = FetchPriority.USER_INTERACTIVE): CompletableFuture<V?> {
         val state = stateMap.computeIfAbsent(key) { MutableStateFlow(map[key]) }
         val value = map[key]
-        return if (value == null) {
-            executor.submit(Callable {
-                val newValue = try {
-                    val result = fetchFunction.invoke(key, context, this)
-                    if (result.isSuccessful) result.value else null
-                } catch (e: Throwable) {
-                    e.printStackTrace()
-                    null
-                }
+        if (value != null) {
+            state.value = value
+            return CompletableFuture.completedFuture(value)
+        }
+        val group = FetchGroup(priority)
+        return CompletableFuture.supplyAsync({ fetchFunction.invoke(key, context, this, group) }, UPDATE_DISPATCHER)
+            .thenCompose { it }
+            .handle { result, error ->
+                group.cancel()
+                error?.printStackTrace()
+                val newValue = if (result != null && result.isSuccessful) result.value else null
                 if (newValue != null) {
                     map[key] = newValue
                     state.value = newValue
                 }
-                return@Callable newValue
-            })
-        } else {
-            state.value = value
-            CompletableFuture.completedFuture(value)
-        }
+                newValue
+            }
     }
 
     fun getValueState(key: K): StateFlow<V?> {
@@ -111,6 +123,12 @@ class MapValueState<K, V>(
 }
 
 
+data class ServedValue<T> (
+    val value: T,
+    val isStale: Boolean
+)
+
+
 data class DataStateInitializeResult<T> (
     val initialValue: T,
     val lastSuccessfulUpdateTime: Long,
@@ -137,18 +155,38 @@ class DataState<T>(
     private val initializer: (Context) -> DataStateInitializeResult<T>,
     private val resetCallback: (Context) -> Unit,
     private val freshness: (Context) -> Long,
-    private val updateFunction: (Context, DataState<T>, MutableStateFlow<Float>) -> UpdateResult<T>,
+    private val updateFunction: (Context, DataState<T>, MutableStateFlow<Float>, FetchGroup) -> CompletableFuture<UpdateResult<T>>,
     private val updateSuccessCallback: (Context, DataState<T>, T) -> Unit = { _, _, _ -> },
-    private val updateFailedCallback: (Context, DataState<T>) -> Unit = { _, _ -> }
+    private val updateFailedCallback: (Context, DataState<T>) -> Unit = { _, _ -> },
+    private val intermediateValueCallback: (Context, DataState<T>, T) -> Unit = { _, _, _ -> },
+    private val servedCallback: (Context, DataState<T>, T) -> Unit = { _, _, _ -> },
+    private val updateUnchangedCallback: (Context, DataState<T>, T) -> Unit = { _, _, _ -> }
 ) {
 
+    companion object {
+
+        private val servedFreshCount = AtomicLong()
+        private val servedStaleCount = AtomicLong()
+
+        fun takeServedFreshCount(): Long {
+            return servedFreshCount.getAndSet(0)
+        }
+
+        fun takeServedStaleCount(): Long {
+            return servedStaleCount.getAndSet(0)
+        }
+
+    }
+
     private var state: MutableStateFlow<T>? = null
     private var lastSuccessfulUpdateTime: MutableStateFlow<Long>? = null
     private var isLastUpdateSuccessful: MutableStateFlow<Boolean>? = null
     private var isCurrentlyUpdating: MutableStateFlow<Boolean>? = null
 
     private var updateProgress: MutableStateFlow<Float>? = null
-    private var latestFuture: FutureWithIntermediateValue<T>? = null
+    private var latestFuture: CompletableFutureWithIntermediateValue<T>? = null
+    private var latestGroup: FetchGroup? = null
+    private var pendingIntermediateValue: ScheduledFuture<*>? = null
 
     private fun initializeStateIfNotAlready(context: Context) {
         synchronized (this) {
@@ -163,13 +201,20 @@ class DataState<T>(
         }
     }
 
-    fun getLatestValue(context: Context, executor: ExecutorService, forceReload: Boolean = freshness.invoke(context) >= Shared.NEVER_REFRESH_INTERVAL): FutureWithIntermediateValue<T> {
+    fun getLatestValue(context: Context, forceReload: Boolean = freshness.invoke(context) >= Shared.NEVER_REFRESH_INTERVAL, priority: FetchPriority = FetchPriority.USER_INTERACTIVE): CompletableFutureWithIntermediateValue<T> {
         initializeStateIfNotAlready(context)
         synchronized (this) {
-            latestFuture?.let { if (!it.isDone) return it }
+            latestFuture?.let {
+                if (!it.isDone) {
+                    latestGroup?.raisePriority(priority)
+                    return it
+                }
+            }
             latestFuture = if (forceReload || System.currentTimeMillis() - lastSuccessfulUpdateTime!!.value > freshness.invoke(context)) {
                 updateProgress!!.value = 0F
-                update(context, executor)
+                val group = FetchGroup(priority)
+                latestGroup = group
+                update(context, group)
             } else {
                 CompletableFutureWithIntermediateValue.completedFuture(state!!.value)
             }
@@ -177,30 +222,100 @@ class DataState<T>(
         }
     }
 
-    private fun update(context: Context, executor: ExecutorService): FutureWithIntermediateValue<T> {
+    fun getPendingUpdate(): CompletableFuture<*> {
+        synchronized (this) {
+            return latestFuture?.takeIf { !it.isDone } ?: CompletableFuture.completedFuture(null)
+        }
+    }
+
+    fun getValueWithin(context: Context, timeout: Long, unit: TimeUnit = TimeUnit.MILLISECONDS, forceReload: Boolean = freshness.invoke(context) >= Shared.NEVER_REFRESH_INTERVAL, priority: FetchPriority = FetchPriority.USER_INTERACTIVE): CompletableFuture<ServedValue<T>> {
+        val deadline = System.nanoTime() + unit.toNanos(timeout)
+        return serveWithin(context, getLatestValue(context, forceReload, priority), deadline)
+    }
+
+    fun serveWithin(context: Context, future: CompletableFutureWithIntermediateValue<T>, deadlineNanos: Long): CompletableFuture<ServedValue<T>> {
+        val remaining = deadlineNanos - System.nanoTime()
+        val settled: CompletableFuture<Unit> = if (future.isDone || remaining <= 0) {
+            CompletableFuture.completedFuture(Unit)
+        } else {
+            future.handle { _, _ -> Unit }.orElseAsync(remaining, TimeUnit.NANOSECONDS, Unit, false)
+        }
+        return settled.thenApply {
+            val served = if (future.isDone && !future.isCompletedExceptionally && isFresh(context)) {
+                servedFreshCount.incrementAndGet()
+                ServedValue(future.join(), false)
+            } else {
+                servedStaleCount.incrementAndGet()
+                ServedValue(future.intermediateValue ?: getCachedValue(context), true)
+            }
+            servedCallback.invoke(context, this, served.value)
+            served
+        }
+    }
+
+    private fun isFresh(context: Context): Boolean {
+        return isLastUpdateSuccess(context) && System.currentTimeMillis() - getLastSuccessfulUpdateTime(context) <= freshness.invoke(context)
+    }
+
+    private fun update(context: Context, group: FetchGroup): CompletableFutureWithIntermediateValue<T> {
         isCurrentlyUpdating!!.value = true
         val future: CompletableFutureWithIntermediateValue<T> = CompletableFutureWithIntermediateValue(getCachedValue(context))
-        executor.execute {
-            try {
-                val result = updateFunction.invoke(context, this, updateProgress!!)
-                if (result.isSuccessful) {
-                    state!!.value = result.value!!
-                    lastSuccessfulUpdateTime!!.value = System.currentTimeMillis()
-                    isLastUpdateSuccessful!!.value = true
-                    updateProgress!!.value = 1F
-                    updateSuccessCallback.invoke(context, this, result.value)
-                } else {
-                    isLastUpdateSuccessful!!.value = false
-                    updateFailedCallback.invoke(context, this)
+        CompletableFuture.supplyAsync({ updateFunction.invoke(context, this, updateProgress!!, group) }, UPDATE_DISPATCHER)
+            .thenCompose { it }
+            .whenComplete { result, error ->
+                try {
+                    error?.printStackTrace()
+                    if (result != null && result.isSuccessful) {
+                        val notify = result.isChanged || !isLastUpdateSuccessful!!.value
+                        state!!.value = result.value!!
+                        lastSuccessfulUpdateTime!!.value = System.currentTimeMillis()
+                        isLastUpdateSuccessful!!.value = true
+                        updateProgress!!.value = 1F
+                        if (notify) {
+                            updateSuccessCallback.invoke(context, this, result.value)
+                        } else {
+                            updateUnchangedCallback.invoke(context, this, result.value)
+                        }
+                    } else {
+                        isLastUpdateSuccessful!!.value = false
+                        updateFailedCallback.invoke(context, this)
+                    }
+                } finally {
+                    future.complete(state!!.value)
+                    group.cancel()
+                    isCurrentlyUpdating!!.value = false
                 }
-                future.complete(state!!.value)
-            } finally {
-                isCurrentlyUpdating!!.value = false
             }
-        }
         return future
     }
 
+    fun publishIntermediateValue(context: Context, value: T) {
+        synchronized (this) {
+            val future = latestFuture
+            if (future == null || future.isDone) {
+                return
+            }
+            future.setIntermediateValue(value)
+            if (pendingIntermediateValue != null || latestGroup?.priority?.isHigherThan(FetchPriority.BACKGROUND) != true) {
+                return
+            }
+            pendingIntermediateValue = INTERMEDIATE_VALUE_SCHEDULER.schedule({ flushIntermediateValue(context) }, INTERMEDIATE_VALUE_DEBOUNCE, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    private fun flushIntermediateValue(context: Context) {
+        val value: T
+        synchronized (this) {
+            pendingIntermediateValue = null
+            val future = latestFuture
+            if (future == null || future.isDone) {
+                return
+            }
+            value = future.intermediateValue
+        }
+        intermediateValueCallback.invoke(context, this, value)
+    }
+
     fun reset(context: Context) {
         initializeStateIfNotAlready(context)
         state!!.value = defaultValue
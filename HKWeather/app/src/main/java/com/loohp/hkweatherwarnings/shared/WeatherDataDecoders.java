@@ -0,0 +1,485 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.shared;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.loohp.hkweatherwarnings.utils.JsonReaderUtils;
+import com.loohp.hkweatherwarnings.weather.ForecastWeatherInfo;
+import com.loohp.hkweatherwarnings.weather.HourlyWeatherInfo;
+import com.loohp.hkweatherwarnings.weather.LocalForecastInfo;
+import com.loohp.hkweatherwarnings.weather.WeatherInfo;
+import com.loohp.hkweatherwarnings.weather.WeatherStatusIcon;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WeatherDataDecoders {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DATE_HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    public static CurrentWeatherReport decodeCurrentWeatherReport(JsonReader reader) throws IOException {
+        float uvIndex = -1F;
+        List<Integer> icons = Collections.emptyList();
+        long updateTime = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "uvindex": {
+                    uvIndex = decodeUvIndex(reader);
+                    break;
+                }
+                case "updateTime": {
+                    updateTime = decodeUpdateTime(reader);
+                    break;
+                }
+                case "icon": {
+                    icons = JsonReaderUtils.nextList(reader, r -> JsonReaderUtils.nextInt(r, 0));
+                    break;
+                }
+                default: {
+                    reader.skipValue();
+                    break;
+                }
+            }
+        }
+        reader.endObject();
+        return new CurrentWeatherReport(uvIndex, icons, updateTime);
+    }
+
+    private static long decodeUpdateTime(JsonReader reader) throws IOException {
+        try {
+            return OffsetDateTime.parse(JsonReaderUtils.nextString(reader)).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static float decodeUvIndex(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return -1F;
+        }
+        float uvIndex = Float.NaN;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("data") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                if (reader.hasNext()) {
+                    uvIndex = (float) JsonReaderUtils.nextFieldDouble(reader, "value", Double.NaN);
+                }
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return uvIndex;
+    }
+
+    public static StationForecast decodeStationForecast(JsonReader reader) throws IOException {
+        Map<String, ChanceOfRain> dailyChanceOfRain = new LinkedHashMap<>();
+        List<HourlyWeatherInfo> hourlyWeatherInfo = Collections.emptyList();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "DailyForecast": {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        decodeDailyChanceOfRain(reader, dailyChanceOfRain);
+                    }
+                    reader.endArray();
+                    break;
+                }
+                case "HourlyWeatherForecast": {
+                    hourlyWeatherInfo = JsonReaderUtils.nextList(reader, WeatherDataDecoders::decodeHourlyWeatherInfo);
+                    break;
+                }
+                default: {
+                    reader.skipValue();
+                    break;
+                }
+            }
+        }
+        reader.endObject();
+        return new StationForecast(dailyChanceOfRain, hourlyWeatherInfo);
+    }
+
+    private static void decodeDailyChanceOfRain(JsonReader reader, Map<String, ChanceOfRain> dailyChanceOfRain) throws IOException {
+        String forecastDate = null;
+        String chanceOfRain = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "ForecastDate": {
+                    forecastDate = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "ForecastChanceOfRain": {
+                    chanceOfRain = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                default: {
+                    reader.skipValue();
+                    break;
+                }
+            }
+        }
+        reader.endObject();
+        if (forecastDate != null && chanceOfRain != null) {
+            dailyChanceOfRain.putIfAbsent(forecastDate, ChanceOfRain.parse(chanceOfRain));
+        }
+    }
+
+    private static HourlyWeatherInfo decodeHourlyWeatherInfo(JsonReader reader) throws IOException {
+        LocalDateTime hour = null;
+        float temperature = -Float.MAX_VALUE;
+        float humidity = -Float.MAX_VALUE;
+        float windDirection = -Float.MAX_VALUE;
+        float windSpeed = -Float.MAX_VALUE;
+        WeatherStatusIcon weatherIcon = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "ForecastHour": {
+                    hour = LocalDateTime.parse(JsonReaderUtils.nextString(reader), DATE_HOUR_FORMATTER);
+                    break;
+                }
+                case "ForecastTemperature": {
+                    temperature = (float) JsonReaderUtils.nextDouble(reader, -Float.MAX_VALUE);
+                    break;
+                }
+                case "ForecastRelativeHumidity": {
+                    humidity = (float) JsonReaderUtils.nextDouble(reader, -Float.MAX_VALUE);
+                    break;
+                }
+                case "ForecastWindDirection": {
+                    windDirection = (float) JsonReaderUtils.nextDouble(reader, -Float.MAX_VALUE);
+                    break;
+                }
+                case "ForecastWindSpeed": {
+                    windSpeed = (float) JsonReaderUtils.nextDouble(reader, -Float.MAX_VALUE);
+                    break;
+                }
+                case "ForecastWeather": {
+                    weatherIcon = WeatherStatusIcon.getByCode(JsonReaderUtils.nextInt(reader, 0));
+                    break;
+                }
+                default: {
+                    reader.skipValue();
+                    break;
+                }
+            }
+        }
+        reader.endObject();
+        if (hour == null) {
+            throw new IOException("Missing ForecastHour");
+        }
+        return new HourlyWeatherInfo(hour, temperature, humidity, windDirection, windSpeed, weatherIcon);
+    }
+
+    public static NineDayForecast decodeNineDayForecast(JsonReader reader) throws IOException {
+        String generalSituation = "";
+        List<ForecastWeatherInfo> forecastInfo = Collections.emptyList();
+        long updateTime = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "generalSituation": {
+                    generalSituation = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "updateTime": {
+                    updateTime = decodeUpdateTime(reader);
+                    break;
+                }
+                case "weatherForecast": {
+                    forecastInfo = JsonReaderUtils.nextList(reader, WeatherDataDecoders::decodeForecastWeatherInfo);
+                    break;
+                }
+                default: {
+                    reader.skipValue();
+                    break;
+                }
+            }
+        }
+        reader.endObject();
+        return new NineDayForecast(generalSituation, forecastInfo, updateTime);
+    }
+
+    private static ForecastWeatherInfo decodeForecastWeatherInfo(JsonReader reader) throws IOException {
+        LocalDate date = null;
+        float highestTemperature = -Float.MAX_VALUE;
+        float lowestTemperature = -Float.MAX_VALUE;
+        float maxRelativeHumidity = -Float.MAX_VALUE;
+        float minRelativeHumidity = -Float.MAX_VALUE;
+        WeatherStatusIcon weatherIcon = null;
+        String forecastWind = "";
+        String forecastWeather = "";
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "forecastDate": {
+                    date = LocalDate.parse(JsonReaderUtils.nextString(reader), DATE_FORMATTER);
+                    break;
+                }
+                case "forecastMaxtemp": {
+                    highestTemperature = (float) JsonReaderUtils.nextFieldDouble(reader, "value", -Float.MAX_VALUE);
+                    break;
+                }
+                case "forecastMintemp": {
+                    lowestTemperature = (float) JsonReaderUtils.nextFieldDouble(reader, "value", -Float.MAX_VALUE);
+                    break;
+                }
+                case "forecastMaxrh": {
+                    maxRelativeHumidity = (float) JsonReaderUtils.nextFieldDouble(reader, "value", -Float.MAX_VALUE);
+                    break;
+                }
+                case "forecastMinrh": {
+                    minRelativeHumidity = (float) JsonReaderUtils.nextFieldDouble(reader, "value", -Float.MAX_VALUE);
+                    break;
+                }
+                case "ForecastIcon": {
+                    weatherIcon = WeatherStatusIcon.getByCode(JsonReaderUtils.nextInt(reader, 0));
+                    break;
+                }
+                case "forecastWind": {
+                    forecastWind = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "forecastWeather": {
+                    forecastWeather = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                default: {
+                    reader.skipValue();
+                    break;
+                }
+            }
+        }
+        reader.endObject();
+        if (date == null) {
+            throw new IOException("Missing forecastDate");
+        }
+        return new ForecastWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, -1F, WeatherInfo.RangeSign.NONE, weatherIcon, forecastWind, forecastWeather);
+    }
+
+    public static LocalForecastInfo decodeLocalForecastInfo(JsonReader reader) throws IOException {
+        String generalSituation = "";
+        String tcInfo = "";
+        String fireDangerWarning = "";
+        String forecastPeriod = "";
+        String forecastDesc = "";
+        String outlook = "";
+        LocalDateTime updateTime = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "generalSituation": {
+                    generalSituation = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "tcInfo": {
+                    tcInfo = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "fireDangerWarning": {
+                    fireDangerWarning = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "forecastPeriod": {
+                    forecastPeriod = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "forecastDesc": {
+                    forecastDesc = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "outlook": {
+                    outlook = JsonReaderUtils.nextString(reader);
+                    break;
+                }
+                case "updateTime": {
+                    updateTime = LocalDateTime.parse(JsonReaderUtils.nextString(reader), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+                    break;
+                }
+                default: {
+                    reader.skipValue();
+                    break;
+                }
+            }
+        }
+        reader.endObject();
+        if (updateTime == null) {
+            throw new IOException("Missing updateTime");
+        }
+        return new LocalForecastInfo(generalSituation, tcInfo, fireDangerWarning, forecastPeriod, forecastDesc, outlook, updateTime);
+    }
+
+    public static class CurrentWeatherReport {
+
+        private final float uvIndex;
+        private final List<Integer> icons;
+        private final long updateTime;
+
+        public CurrentWeatherReport(float uvIndex, List<Integer> icons, long updateTime) {
+            this.uvIndex = uvIndex;
+            this.icons = icons;
+            this.updateTime = updateTime;
+        }
+
+        public long getUpdateTime() {
+            return updateTime;
+        }
+
+        public float getUvIndex() {
+            return uvIndex;
+        }
+
+        public WeatherStatusIcon getWeatherIcon() {
+            return icons.isEmpty() ? WeatherStatusIcon.getByCode(0) : WeatherStatusIcon.getByCode(icons.get(0));
+        }
+
+        public WeatherStatusIcon getNextWeatherIcon() {
+            return icons.size() > 1 ? WeatherStatusIcon.getByCode(icons.get(1)) : null;
+        }
+
+    }
+
+    public static class StationForecast {
+
+        private final Map<String, ChanceOfRain> dailyChanceOfRain;
+        private final List<HourlyWeatherInfo> hourlyWeatherInfo;
+
+        public StationForecast(Map<String, ChanceOfRain> dailyChanceOfRain, List<HourlyWeatherInfo> hourlyWeatherInfo) {
+            this.dailyChanceOfRain = dailyChanceOfRain;
+            this.hourlyWeatherInfo = hourlyWeatherInfo;
+        }
+
+        public ChanceOfRain getFirstChanceOfRain() {
+            return dailyChanceOfRain.values().stream().findFirst().orElse(null);
+        }
+
+        public ChanceOfRain getChanceOfRain(LocalDate date) {
+            return dailyChanceOfRain.get(date.format(DATE_FORMATTER));
+        }
+
+        public List<HourlyWeatherInfo> getHourlyWeatherInfo(WeatherStatusIcon currentWeatherIcon) {
+            List<HourlyWeatherInfo> filled = new ArrayList<>(hourlyWeatherInfo.size());
+            WeatherStatusIcon lastHourIcon = currentWeatherIcon;
+            for (HourlyWeatherInfo info : hourlyWeatherInfo) {
+                if (info.getWeatherIcon() == null) {
+                    filled.add(new HourlyWeatherInfo(info.getTime(), info.getTemperature(), info.getHumidity(), info.getWindDirection(), info.getWindSpeed(), lastHourIcon));
+                } else {
+                    lastHourIcon = info.getWeatherIcon();
+                    filled.add(info);
+                }
+            }
+            return filled;
+        }
+
+    }
+
+    public static class ChanceOfRain {
+
+        public static ChanceOfRain parse(String str) {
+            WeatherInfo.RangeSign rangeSign = WeatherInfo.RangeSign.NONE;
+            for (WeatherInfo.RangeSign sign : WeatherInfo.RangeSign.values()) {
+                if (str.contains(sign.getSymbol())) {
+                    rangeSign = sign;
+                    break;
+                }
+            }
+            return new ChanceOfRain(Float.parseFloat(str.substring(rangeSign.getSymbolWithSpace().length(), str.length() - 1)), rangeSign);
+        }
+
+        private final float value;
+        private final WeatherInfo.RangeSign rangeSign;
+
+        public ChanceOfRain(float value, WeatherInfo.RangeSign rangeSign) {
+            this.value = value;
+            this.rangeSign = rangeSign;
+        }
+
+        public float getValue() {
+            return value;
+        }
+
+        public WeatherInfo.RangeSign getRangeSign() {
+            return rangeSign;
+        }
+
+    }
+
+    public static class NineDayForecast {
+
+        private final String generalSituation;
+        private final List<ForecastWeatherInfo> forecastInfo;
+        private final long updateTime;
+
+        public NineDayForecast(String generalSituation, List<ForecastWeatherInfo> forecastInfo, long updateTime) {
+            this.generalSituation = generalSituation;
+            this.forecastInfo = forecastInfo;
+            this.updateTime = updateTime;
+        }
+
+        public long getUpdateTime() {
+            return updateTime;
+        }
+
+        public String getGeneralSituation() {
+            return generalSituation;
+        }
+
+        public ForecastWeatherInfo getToday() {
+            return forecastInfo.get(0);
+        }
+
+        public List<ForecastWeatherInfo> getForecastInfo(StationForecast stationForecast) {
+            List<ForecastWeatherInfo> merged = new ArrayList<>(forecastInfo.size());
+            for (ForecastWeatherInfo info : forecastInfo) {
+                ChanceOfRain chanceOfRain = stationForecast.getChanceOfRain(info.getDate());
+                if (chanceOfRain == null) {
+                    merged.add(info);
+                } else {
+                    merged.add(new ForecastWeatherInfo(info.getDate(), info.getHighestTemperature(), info.getLowestTemperature(), info.getMaxRelativeHumidity(), info.getMinRelativeHumidity(), chanceOfRain.getValue(), chanceOfRain.getRangeSign(), info.getWeatherIcon(), info.getForecastWind(), info.getForecastWeather()));
+                }
+            }
+            return merged;
+        }
+
+    }
+
+}
@@ -53,14 +53,16 @@ import com.loohp.hkweatherwarnings.shared.Shared.Companion.FRESHNESS_TIME
 import com.loohp.hkweatherwarnings.shared.Shared.Companion.currentTips
 import com.loohp.hkweatherwarnings.shared.Shared.Companion.currentWarnings
 import com.loohp.hkweatherwarnings.shared.Shared.Companion.currentWeatherInfo
+import com.loohp.hkweatherwarnings.shared.UPDATE_DISPATCHER
 import com.loohp.hkweatherwarnings.utils.ConnectionUtils
+import com.loohp.hkweatherwarnings.utils.FetchPriority
 import com.loohp.hkweatherwarnings.utils.ScreenSizeUtils
 import com.loohp.hkweatherwarnings.utils.StringUtils
 import com.loohp.hkweatherwarnings.utils.UnitUtils
 import com.loohp.hkweatherwarnings.utils.any
 import com.loohp.hkweatherwarnings.utils.clampSp
-import com.loohp.hkweatherwarnings.utils.map
 import com.loohp.hkweatherwarnings.utils.timeZone
+import com.loohp.hkweatherwarnings.utils.toListenableFuture
 import com.loohp.hkweatherwarnings.weather.CurrentWeatherInfo
 import com.loohp.hkweatherwarnings.weather.WeatherStatusIcon
 import com.loohp.hkweatherwarnings.weather.WeatherWarningsType
@@ -69,7 +71,9 @@ import java.time.format.TextStyle
 import java.util.Date
 import java.util.Locale
 import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.TimeUnit
 
 private const val RESOURCES_VERSION = "1"
 private var tileUpdatedTime: Long = 0
@@ -92,16 +96,21 @@ class WeatherOverviewTile : TileService() {
     }
 
     override fun onTileRequest(requestParams: RequestBuilders.TileRequest): ListenableFuture<TileBuilders.Tile> {
-        return Futures.submit(Callable {
-            val isReload = requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicBuilders.DynamicString>("reload"))
-            val futures = Triple(
-                currentWeatherInfo.getLatestValue(this, ForkJoinPool.commonPool(), isReload),
-                currentWarnings.getLatestValue(this, ForkJoinPool.commonPool(), isReload),
-                currentTips.getLatestValue(this, ForkJoinPool.commonPool(), isReload)
+        val isReload = requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicBuilders.DynamicString>("reload"))
+        return CompletableFuture.supplyAsync({
+            val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Shared.TILE_RESPONSE_DEADLINE)
+            Triple(
+                currentWeatherInfo.serveWithin(this, currentWeatherInfo.getLatestValue(this, isReload, FetchPriority.TILE), deadline),
+                currentWarnings.serveWithin(this, currentWarnings.getLatestValue(this, isReload, FetchPriority.TILE), deadline),
+                currentTips.serveWithin(this, currentTips.getLatestValue(this, isReload, FetchPriority.TILE), deadline)
             )
-            val data: Triple<CurrentWeatherInfo?, Map<WeatherWarningsType, String?>, List<Pair<String, Long>>> = futures.map { it.orIntermediateValue }
-            val (weatherInfo, warnings, tips) = data
-            val updating = futures.any { !it.isDone }
+        }, UPDATE_DISPATCHER).thenCompose { futures ->
+            CompletableFuture.allOf(futures.first, futures.second, futures.third).thenApply { Triple(futures.first.join(), futures.second.join(), futures.third.join()) }
+        }.thenApply { served ->
+            val weatherInfo = served.first.value
+            val warnings = served.second.value
+            val tips = served.third.value
+            val updating = currentWeatherInfo.isCurrentlyUpdating(this) || currentWarnings.isCurrentlyUpdating(this) || currentTips.isCurrentlyUpdating(this)
             val updateSuccess = currentWeatherInfo.isLastUpdateSuccess(this)
             val updateTime = currentWeatherInfo.getLastSuccessfulUpdateTime(this)
             tileUpdatedTime = System.currentTimeMillis()
@@ -159,7 +168,7 @@ class WeatherOverviewTile : TileService() {
                         ).build()
                     ).build()
                 ).build()
-        }, ForkJoinPool.commonPool())
+        }.toListenableFuture()
     }
 
     override fun onTileResourcesRequest(requestParams: RequestBuilders.ResourcesRequest): ListenableFuture<ResourceBuilders.Resources> {
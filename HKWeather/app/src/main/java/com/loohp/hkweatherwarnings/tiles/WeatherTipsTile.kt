@@ -52,14 +52,18 @@ import com.loohp.hkweatherwarnings.shared.Registry
 import com.loohp.hkweatherwarnings.shared.Shared
 import com.loohp.hkweatherwarnings.shared.Shared.Companion.FRESHNESS_TIME
 import com.loohp.hkweatherwarnings.shared.Shared.Companion.currentTips
+import com.loohp.hkweatherwarnings.shared.UPDATE_DISPATCHER
 import com.loohp.hkweatherwarnings.utils.ConnectionUtils
+import com.loohp.hkweatherwarnings.utils.FetchPriority
 import com.loohp.hkweatherwarnings.utils.ScreenSizeUtils
 import com.loohp.hkweatherwarnings.utils.StringUtils
 import com.loohp.hkweatherwarnings.utils.UnitUtils
 import com.loohp.hkweatherwarnings.utils.floorToInt
 import com.loohp.hkweatherwarnings.utils.timeZone
+import com.loohp.hkweatherwarnings.utils.toListenableFuture
 import java.util.Date
 import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ForkJoinPool
 import kotlin.math.roundToInt
 
@@ -86,14 +90,15 @@ class WeatherTipsTile : TileService() {
     }
 
     override fun onTileRequest(requestParams: RequestBuilders.TileRequest): ListenableFuture<TileBuilders.Tile> {
-        return Futures.submit(Callable {
-            if (requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicString>("next"))) {
-                currentIndex++
-            }
-            val isReload = requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicString>("reload"))
-            val future = currentTips.getLatestValue(this, ForkJoinPool.commonPool(), isReload)
-            val tips = future.orIntermediateValue
-            val updating = !future.isDone
+        if (requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicString>("next"))) {
+            currentIndex++
+        }
+        val isReload = requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicString>("reload"))
+        return CompletableFuture.supplyAsync({
+            currentTips.getValueWithin(this, Shared.TILE_RESPONSE_DEADLINE, forceReload = isReload, priority = FetchPriority.TILE)
+        }, UPDATE_DISPATCHER).thenCompose { it }.thenApply { served ->
+            val tips = served.value
+            val updating = currentTips.isCurrentlyUpdating(this)
             val updateSuccess = currentTips.isLastUpdateSuccess(this)
             val updateTime = currentTips.getLastSuccessfulUpdateTime(this)
             tileUpdatedTime = System.currentTimeMillis()
@@ -192,7 +197,7 @@ class WeatherTipsTile : TileService() {
                         ).build()
                     ).build()
                 ).build()
-        }, ForkJoinPool.commonPool())
+        }.toListenableFuture()
     }
 
     override fun onTileResourcesRequest(requestParams: RequestBuilders.ResourcesRequest): ListenableFuture<ResourceBuilders.Resources> {
@@ -49,14 +49,18 @@ import com.loohp.hkweatherwarnings.shared.Registry
 import com.loohp.hkweatherwarnings.shared.Shared
 import com.loohp.hkweatherwarnings.shared.Shared.Companion.FRESHNESS_TIME
 import com.loohp.hkweatherwarnings.shared.Shared.Companion.currentWarnings
+import com.loohp.hkweatherwarnings.shared.UPDATE_DISPATCHER
 import com.loohp.hkweatherwarnings.utils.ConnectionUtils
+import com.loohp.hkweatherwarnings.utils.FetchPriority
 import com.loohp.hkweatherwarnings.utils.ScreenSizeUtils
 import com.loohp.hkweatherwarnings.utils.StringUtils
 import com.loohp.hkweatherwarnings.utils.UnitUtils
 import com.loohp.hkweatherwarnings.utils.timeZone
+import com.loohp.hkweatherwarnings.utils.toListenableFuture
 import com.loohp.hkweatherwarnings.weather.WeatherWarningsType
 import java.util.Date
 import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ForkJoinPool
 import java.util.stream.Collectors
 
@@ -81,11 +85,12 @@ class WeatherWarningsTile : TileService() {
     }
 
     override fun onTileRequest(requestParams: RequestBuilders.TileRequest): ListenableFuture<TileBuilders.Tile> {
-        return Futures.submit(Callable {
-            val isReload = requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicBuilders.DynamicString>("reload"))
-            val future = currentWarnings.getLatestValue(this, ForkJoinPool.commonPool(), isReload)
-            val warnings = future.orIntermediateValue
-            val updating = !future.isDone
+        val isReload = requestParams.currentState.keyToValueMapping.containsKey(AppDataKey<DynamicBuilders.DynamicString>("reload"))
+        return CompletableFuture.supplyAsync({
+            currentWarnings.getValueWithin(this, Shared.TILE_RESPONSE_DEADLINE, forceReload = isReload, priority = FetchPriority.TILE)
+        }, UPDATE_DISPATCHER).thenCompose { it }.thenApply { served ->
+            val warnings = served.value
+            val updating = currentWarnings.isCurrentlyUpdating(this)
             val updateSuccess = currentWarnings.isLastUpdateSuccess(this)
             val updateTime = currentWarnings.getLastSuccessfulUpdateTime(this)
             tileUpdatedTime = System.currentTimeMillis()
@@ -154,7 +159,7 @@ class WeatherWarningsTile : TileService() {
                         ).build()
                     ).build()
                 ).build()
-        }, ForkJoinPool.commonPool())
+        }.toListenableFuture()
     }
 
     override fun onTileResourcesRequest(requestParams: RequestBuilders.ResourcesRequest): ListenableFuture<ResourceBuilders.Resources> {
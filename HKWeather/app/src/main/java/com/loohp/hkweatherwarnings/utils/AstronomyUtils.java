@@ -0,0 +1,604 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+public class AstronomyUtils {
+
+    private static final double J2000 = 2451545.0;
+    private static final double SYNODIC_MONTH = 29.530588861;
+    private static final double TROPICAL_YEAR = 365.242189;
+    private static final double SUN_STANDARD_ALTITUDE = -0.8333;
+    private static final long SEARCH_STEP_SECONDS = 600;
+
+    private static final double[][][] EARTH_LONGITUDE_TERMS = {
+            {
+                    {175347046, 0, 0},
+                    {3341656, 4.6692568, 6283.07585},
+                    {34894, 4.6261, 12566.1517},
+                    {3497, 2.7441, 5753.3849},
+                    {3418, 2.8289, 3.5231},
+                    {3136, 3.6277, 77713.7715},
+                    {2676, 4.4181, 7860.4194},
+                    {2343, 6.1352, 3930.2097},
+                    {1324, 0.7425, 11506.7698},
+                    {1273, 2.0371, 529.691},
+                    {1199, 1.1096, 1577.3435},
+                    {990, 5.233, 5884.927},
+                    {902, 2.045, 26.298},
+                    {857, 3.508, 398.149},
+                    {780, 1.179, 5223.694},
+                    {753, 2.533, 5507.553},
+                    {505, 4.583, 18849.228},
+                    {492, 4.205, 775.523},
+                    {357, 2.92, 0.067},
+                    {317, 5.849, 11790.629},
+                    {284, 1.899, 796.298},
+                    {271, 0.315, 10977.079},
+                    {243, 0.345, 5486.778},
+                    {206, 4.806, 2544.314},
+                    {205, 1.869, 5573.143},
+                    {202, 2.458, 6069.777},
+                    {156, 0.833, 213.299},
+                    {132, 3.411, 2942.463},
+                    {126, 1.083, 20.775},
+                    {115, 0.645, 0.98},
+                    {103, 0.636, 4694.003},
+                    {102, 0.976, 15720.839},
+                    {102, 4.267, 7.114},
+                    {99, 6.21, 2146.17},
+                    {98, 0.68, 155.42},
+                    {86, 5.98, 161000.69},
+                    {85, 1.3, 6275.96},
+                    {85, 3.67, 71430.7},
+                    {80, 1.81, 17260.15},
+                    {79, 3.04, 12036.46},
+                    {75, 1.76, 5088.63},
+                    {74, 3.5, 3154.69},
+                    {74, 4.68, 801.82},
+                    {70, 0.83, 9437.76},
+                    {62, 3.98, 8827.39},
+                    {61, 1.82, 7084.9},
+                    {57, 2.78, 6286.6},
+                    {56, 4.39, 14143.5},
+                    {56, 3.47, 6279.55},
+                    {52, 0.19, 12139.55},
+                    {52, 1.33, 1748.02},
+                    {51, 0.28, 5856.48},
+                    {49, 0.49, 1194.45},
+                    {41, 5.37, 8429.24},
+                    {41, 2.4, 19651.05},
+                    {39, 6.17, 10447.39},
+                    {37, 6.04, 10213.29},
+                    {37, 2.57, 1059.38},
+                    {36, 1.71, 2352.87},
+                    {36, 1.78, 6812.77},
+                    {33, 0.59, 17789.85},
+                    {30, 0.44, 83996.85},
+                    {30, 2.74, 1349.87},
+                    {25, 3.16, 4690.48}
+            },
+            {
+                    {628331966747.0, 0, 0},
+                    {206059, 2.678235, 6283.07585},
+                    {4303, 2.6351, 12566.1517},
+                    {425, 1.59, 3.523},
+                    {119, 5.796, 26.298},
+                    {109, 2.966, 1577.344},
+                    {93, 2.59, 18849.23},
+                    {72, 1.14, 529.69},
+                    {68, 1.87, 398.15},
+                    {67, 4.41, 5507.55},
+                    {59, 2.89, 5223.69},
+                    {56, 2.17, 155.42},
+                    {45, 0.4, 796.3},
+                    {36, 0.47, 775.52},
+                    {29, 2.65, 7.11},
+                    {21, 5.34, 0.98},
+                    {19, 1.85, 5486.78},
+                    {19, 4.97, 213.3},
+                    {17, 2.99, 6275.96},
+                    {16, 0.03, 2544.31},
+                    {16, 1.43, 2146.17},
+                    {15, 1.21, 10977.08},
+                    {12, 2.83, 1748.02},
+                    {12, 3.26, 5088.63},
+                    {12, 5.27, 1194.45},
+                    {12, 2.08, 4694},
+                    {11, 0.77, 553.57},
+                    {10, 1.3, 6286.6},
+                    {10, 4.24, 1349.87},
+                    {9, 2.7, 242.73},
+                    {9, 5.64, 951.72},
+                    {8, 5.3, 2352.87},
+                    {6, 2.65, 9437.76},
+                    {6, 4.67, 4690.48}
+            },
+            {
+                    {52919, 0, 0},
+                    {8720, 1.0721, 6283.0758},
+                    {309, 0.867, 12566.152},
+                    {27, 0.05, 3.52},
+                    {16, 5.19, 26.3},
+                    {16, 3.68, 155.42},
+                    {10, 0.76, 18849.23},
+                    {9, 2.06, 77713.77},
+                    {7, 0.83, 775.52},
+                    {5, 4.66, 1577.34},
+                    {4, 1.03, 7.11},
+                    {4, 3.44, 5573.14},
+                    {3, 5.14, 796.3},
+                    {3, 6.05, 5507.55},
+                    {3, 1.19, 242.73},
+                    {3, 6.12, 529.69},
+                    {3, 0.31, 398.15},
+                    {3, 2.28, 553.57},
+                    {2, 4.38, 5223.69},
+                    {2, 3.75, 0.98}
+            },
+            {
+                    {289, 5.844, 6283.076},
+                    {35, 0, 0},
+                    {17, 5.49, 12566.15},
+                    {3, 5.2, 155.42},
+                    {1, 4.72, 3.52},
+                    {1, 5.3, 18849.23},
+                    {1, 5.97, 242.73}
+            },
+            {
+                    {114, 3.142, 0},
+                    {8, 4.13, 6283.08},
+                    {1, 3.84, 12566.15}
+            },
+            {
+                    {1, 3.14, 0}
+            }
+    };
+
+    private static final double[][] MOON_LONGITUDE_DISTANCE_TERMS = {
+            {0, 0, 1, 0, 6288774, -20905355},
+            {2, 0, -1, 0, 1274027, -3699111},
+            {2, 0, 0, 0, 658314, -2955968},
+            {0, 0, 2, 0, 213618, -569925},
+            {0, 1, 0, 0, -185116, 48888},
+            {0, 0, 0, 2, -114332, -3149},
+            {2, 0, -2, 0, 58793, 246158},
+            {2, -1, -1, 0, 57066, -152138},
+            {2, 0, 1, 0, 53322, -170733},
+            {2, -1, 0, 0, 45758, -204586},
+            {0, 1, -1, 0, -40923, -129620},
+            {1, 0, 0, 0, -34720, 108743},
+            {0, 1, 1, 0, -30383, 104755},
+            {2, 0, 0, -2, 15327, 10321},
+            {0, 0, 1, 2, -12528, 0},
+            {0, 0, 1, -2, 10980, 79661},
+            {4, 0, -1, 0, 10675, -34782},
+            {0, 0, 3, 0, 10034, -23210},
+            {4, 0, -2, 0, 8548, -21636},
+            {2, 1, -1, 0, -7888, 24208},
+            {2, 1, 0, 0, -6766, 30824},
+            {1, 0, -1, 0, -5163, -8379},
+            {1, 1, 0, 0, 4987, -16675},
+            {2, -1, 1, 0, 4036, -12831},
+            {2, 0, 2, 0, 3994, -10445},
+            {4, 0, 0, 0, 3861, -11650},
+            {2, 0, -3, 0, 3665, 14403},
+            {0, 1, -2, 0, -2689, -7003},
+            {2, 0, -1, 2, -2602, 0},
+            {2, -1, -2, 0, 2390, 10056},
+            {1, 0, 1, 0, -2348, 6322},
+            {2, -2, 0, 0, 2236, -9884},
+            {0, 1, 2, 0, -2120, 5751},
+            {0, 2, 0, 0, -2069, 0},
+            {2, -2, -1, 0, 2048, -4950},
+            {2, 0, 1, -2, -1773, 4130},
+            {2, 0, 0, 2, -1595, 0},
+            {4, -1, -1, 0, 1215, -3958},
+            {0, 0, 2, 2, -1110, 0},
+            {3, 0, -1, 0, -892, 3258},
+            {2, 1, 1, 0, -810, 2616},
+            {4, -1, -2, 0, 759, -1897},
+            {0, 2, -1, 0, -713, -2117},
+            {2, 2, -1, 0, -700, 2354},
+            {2, 1, -2, 0, 691, 0},
+            {2, -1, 0, -2, 596, 0},
+            {4, 0, 1, 0, 549, -1423},
+            {0, 0, 4, 0, 537, -1117},
+            {4, -1, 0, 0, 520, -1571},
+            {1, 0, -2, 0, -487, -1739},
+            {2, 1, 0, -2, -399, 0},
+            {0, 0, 2, -2, -381, -4421},
+            {1, 1, 1, 0, 351, 0},
+            {3, 0, -2, 0, -340, 0},
+            {4, 0, -3, 0, 330, 0},
+            {2, -1, 2, 0, 327, 0},
+            {0, 2, 1, 0, -323, 1165},
+            {1, 1, -1, 0, 299, 0},
+            {2, 0, 3, 0, 294, 0},
+            {2, 0, -1, -2, 0, 8752}
+    };
+
+    private static final double[][] MOON_LATITUDE_TERMS = {
+            {0, 0, 0, 1, 5128122},
+            {0, 0, 1, 1, 280602},
+            {0, 0, 1, -1, 277693},
+            {2, 0, 0, -1, 173237},
+            {2, 0, -1, 1, 55413},
+            {2, 0, -1, -1, 46271},
+            {2, 0, 0, 1, 32573},
+            {0, 0, 2, 1, 17198},
+            {2, 0, 1, -1, 9266},
+            {0, 0, 2, -1, 8822},
+            {2, -1, 0, -1, 8216},
+            {2, 0, -2, -1, 4324},
+            {2, 0, 1, 1, 4200},
+            {2, 1, 0, -1, -3359},
+            {2, -1, -1, 1, 2463},
+            {2, -1, 0, 1, 2211},
+            {2, -1, -1, -1, 2065},
+            {0, 1, -1, -1, -1870},
+            {4, 0, -1, -1, 1828},
+            {0, 1, 0, 1, -1794},
+            {0, 0, 0, 3, -1749},
+            {0, 1, -1, 1, -1565},
+            {1, 0, 0, 1, -1491},
+            {0, 1, 1, 1, -1475},
+            {0, 1, 1, -1, -1410},
+            {0, 1, 0, -1, -1344},
+            {1, 0, 0, -1, -1335},
+            {0, 0, 3, 1, 1107},
+            {4, 0, 0, -1, 1021},
+            {4, 0, -1, 1, 833}
+    };
+
+    private static final double[] NEW_MOON_PLANETARY_COEFFICIENTS = {325, 165, 164, 126, 110, 62, 60, 56, 47, 42, 40, 37, 35, 23};
+
+    public static double toJulianDay(Instant instant) {
+        return julianDay(instant.getEpochSecond()) + instant.getNano() / 86400000000000.0;
+    }
+
+    public static Instant fromJulianDay(double julianDay) {
+        return Instant.ofEpochMilli(Math.round((julianDay - 2440587.5) * 86400000.0));
+    }
+
+    public static double getDeltaTSeconds(double year) {
+        if (year < 1920) {
+            double t = year - 1900;
+            return -2.79 + 1.494119 * t - 0.0598939 * t * t + 0.0061966 * t * t * t - 0.000197 * t * t * t * t;
+        } else if (year < 1941) {
+            double t = year - 1920;
+            return 21.20 + 0.84493 * t - 0.076100 * t * t + 0.0020936 * t * t * t;
+        } else if (year < 1961) {
+            double t = year - 1950;
+            return 29.07 + 0.407 * t - t * t / 233 + t * t * t / 2547;
+        } else if (year < 1986) {
+            double t = year - 1975;
+            return 45.45 + 1.067 * t - t * t / 260 - t * t * t / 718;
+        } else if (year < 2005) {
+            double t = year - 2000;
+            return 63.86 + 0.3345 * t - 0.060374 * t * t + 0.0017275 * t * t * t + 0.000651814 * t * t * t * t + 0.00002373599 * t * t * t * t * t;
+        } else if (year < 2050) {
+            double t = year - 2000;
+            return 62.92 + 0.32217 * t + 0.005589 * t * t;
+        } else {
+            double u = (year - 1820) / 100;
+            return -20 + 32 * u * u - 0.5628 * (2150 - year);
+        }
+    }
+
+    private static double toDynamicalTime(double julianDay) {
+        return julianDay + getDeltaTSeconds(2000 + (julianDay - J2000) / 365.25) / 86400.0;
+    }
+
+    private static double toUniversalTime(double julianEphemerisDay) {
+        return julianEphemerisDay - getDeltaTSeconds(2000 + (julianEphemerisDay - J2000) / 365.25) / 86400.0;
+    }
+
+    public static double getSunApparentLongitude(double julianDay) {
+        return sunApparentLongitude((toDynamicalTime(julianDay) - J2000) / 36525.0);
+    }
+
+    public static double findSunApparentLongitude(double longitude, double estimateJulianDay) {
+        double julianDay = estimateJulianDay;
+        for (int i = 0; i < 10; i++) {
+            double difference = normalizeDegrees(longitude - getSunApparentLongitude(julianDay));
+            if (difference > 180) {
+                difference -= 360;
+            }
+            julianDay += difference * TROPICAL_YEAR / 360.0;
+            if (Math.abs(difference) < 0.000001) {
+                break;
+            }
+        }
+        return julianDay;
+    }
+
+    public static long getLunationNumber(double julianDay) {
+        return (long) Math.floor((julianDay - 2451550.09766) / SYNODIC_MONTH);
+    }
+
+    public static double getNewMoon(long lunation) {
+        double k = lunation;
+        double t = k / 1236.85;
+        double jde = 2451550.09766 + SYNODIC_MONTH * k + 0.00015437 * t * t - 0.000000150 * t * t * t + 0.00000000073 * t * t * t * t;
+        double e = 1 - 0.002516 * t - 0.0000074 * t * t;
+        double m = 2.5534 + 29.10535670 * k - 0.0000014 * t * t - 0.00000011 * t * t * t;
+        double mp = 201.5643 + 385.81693528 * k + 0.0107582 * t * t + 0.00001238 * t * t * t - 0.000000058 * t * t * t * t;
+        double f = 160.7108 + 390.67050284 * k - 0.0016118 * t * t - 0.00000227 * t * t * t + 0.000000011 * t * t * t * t;
+        double omega = 124.7746 - 1.56375588 * k + 0.0020672 * t * t + 0.00000215 * t * t * t;
+        jde += -0.40720 * sin(mp)
+                + 0.17241 * e * sin(m)
+                + 0.01608 * sin(2 * mp)
+                + 0.01039 * sin(2 * f)
+                + 0.00739 * e * sin(mp - m)
+                - 0.00514 * e * sin(mp + m)
+                + 0.00208 * e * e * sin(2 * m)
+                - 0.00111 * sin(mp - 2 * f)
+                - 0.00057 * sin(mp + 2 * f)
+                + 0.00056 * e * sin(2 * mp + m)
+                - 0.00042 * sin(3 * mp)
+                + 0.00042 * e * sin(m + 2 * f)
+                + 0.00038 * e * sin(m - 2 * f)
+                - 0.00024 * e * sin(2 * mp - m)
+                - 0.00017 * sin(omega)
+                - 0.00007 * sin(mp + 2 * m)
+                + 0.00004 * sin(2 * mp - 2 * f)
+                + 0.00004 * sin(3 * m)
+                + 0.00003 * sin(mp + m - 2 * f)
+                + 0.00003 * sin(2 * mp + 2 * f)
+                - 0.00003 * sin(mp + m + 2 * f)
+                + 0.00003 * sin(mp - m + 2 * f)
+                - 0.00002 * sin(mp - m - 2 * f)
+                - 0.00002 * sin(3 * mp + m)
+                + 0.00002 * sin(4 * mp);
+        double[] arguments = {
+                299.77 + 0.107408 * k - 0.009173 * t * t,
+                251.88 + 0.016321 * k,
+                251.83 + 26.651886 * k,
+                349.42 + 36.412478 * k,
+                84.66 + 18.206239 * k,
+                141.74 + 53.303771 * k,
+                207.14 + 2.453732 * k,
+                154.84 + 7.306860 * k,
+                34.52 + 27.261239 * k,
+                207.19 + 0.121824 * k,
+                291.34 + 1.844379 * k,
+                161.72 + 24.198154 * k,
+                239.56 + 25.513099 * k,
+                331.55 + 3.592518 * k
+        };
+        for (int i = 0; i < arguments.length; i++) {
+            jde += NEW_MOON_PLANETARY_COEFFICIENTS[i] * 0.000001 * sin(arguments[i]);
+        }
+        return toUniversalTime(jde);
+    }
+
+    public static RiseTransitSet getSunRiseTransitSet(LocalDate date, double latitude, double longitude, ZoneId zone) {
+        return findRiseTransitSet(date, latitude, longitude, zone, AstronomyUtils::sunPosition);
+    }
+
+    public static RiseTransitSet getMoonRiseTransitSet(LocalDate date, double latitude, double longitude, ZoneId zone) {
+        return findRiseTransitSet(date, latitude, longitude, zone, AstronomyUtils::moonPosition);
+    }
+
+    private static RiseTransitSet findRiseTransitSet(LocalDate date, double latitude, double longitude, ZoneId zone, Ephemeris ephemeris) {
+        long start = date.atStartOfDay(zone).toEpochSecond();
+        long end = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+        Long rise = null;
+        Long transit = null;
+        Long set = null;
+        double previousAltitude = apparentAltitude(start, latitude, longitude, ephemeris);
+        double previousHourAngle = hourAngle(start, longitude, ephemeris);
+        for (long previous = start, time = start + SEARCH_STEP_SECONDS; previous < end; previous = time, time = Math.min(time + SEARCH_STEP_SECONDS, end)) {
+            double altitude = apparentAltitude(time, latitude, longitude, ephemeris);
+            double hourAngle = hourAngle(time, longitude, ephemeris);
+            if (rise == null && previousAltitude < 0 && altitude >= 0) {
+                rise = bisect(previous, time, t -> apparentAltitude(t, latitude, longitude, ephemeris));
+            } else if (set == null && previousAltitude >= 0 && altitude < 0) {
+                set = bisect(previous, time, t -> -apparentAltitude(t, latitude, longitude, ephemeris));
+            }
+            if (transit == null && previousHourAngle < 0 && hourAngle >= 0) {
+                transit = bisect(previous, time, t -> hourAngle(t, longitude, ephemeris));
+            }
+            previousAltitude = altitude;
+            previousHourAngle = hourAngle;
+        }
+        return new RiseTransitSet(toLocalTime(rise, date, zone), toLocalTime(transit, date, zone), toLocalTime(set, date, zone));
+    }
+
+    private static long bisect(long low, long high, EpochFunction function) {
+        while (high - low > 1) {
+            long middle = (low + high) >>> 1;
+            if (function.apply(middle) >= 0) {
+                high = middle;
+            } else {
+                low = middle;
+            }
+        }
+        return high;
+    }
+
+    private static LocalTime toLocalTime(Long epochSecond, LocalDate date, ZoneId zone) {
+        if (epochSecond == null) {
+            return null;
+        }
+        Instant rounded = Instant.ofEpochSecond(epochSecond + 30).truncatedTo(ChronoUnit.MINUTES);
+        LocalDate roundedDate = rounded.atZone(zone).toLocalDate();
+        return roundedDate.equals(date) ? rounded.atZone(zone).toLocalTime() : LocalTime.MAX.truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private static double julianDay(long epochSecond) {
+        return epochSecond / 86400.0 + 2440587.5;
+    }
+
+    private static double apparentAltitude(long epochSecond, double latitude, double longitude, Ephemeris ephemeris) {
+        double jd = julianDay(epochSecond);
+        double[] position = ephemeris.position(toDynamicalTime(jd));
+        double hourAngle = Math.toRadians(localSiderealTime(jd, longitude) - position[0]);
+        double lat = Math.toRadians(latitude);
+        double dec = Math.toRadians(position[1]);
+        double altitude = Math.toDegrees(Math.asin(Math.sin(lat) * Math.sin(dec) + Math.cos(lat) * Math.cos(dec) * Math.cos(hourAngle)));
+        return altitude - position[2];
+    }
+
+    private static double hourAngle(long epochSecond, double longitude, Ephemeris ephemeris) {
+        double jd = julianDay(epochSecond);
+        double[] position = ephemeris.position(toDynamicalTime(jd));
+        double hourAngle = normalizeDegrees(localSiderealTime(jd, longitude) - position[0]);
+        return hourAngle > 180 ? hourAngle - 360 : hourAngle;
+    }
+
+    private static double localSiderealTime(double jd, double longitude) {
+        double t = (jd - J2000) / 36525.0;
+        return normalizeDegrees(280.46061837 + 360.98564736629 * (jd - J2000) + 0.000387933 * t * t - t * t * t / 38710000.0 + longitude);
+    }
+
+    private static double normalizeDegrees(double degrees) {
+        double value = degrees % 360.0;
+        return value < 0 ? value + 360.0 : value;
+    }
+
+    private static double sin(double degrees) {
+        return Math.sin(Math.toRadians(degrees));
+    }
+
+    private static double cos(double degrees) {
+        return Math.cos(Math.toRadians(degrees));
+    }
+
+    private static double[] equatorial(double longitude, double latitude, double obliquity) {
+        double ra = Math.toDegrees(Math.atan2(sin(longitude) * cos(obliquity) - Math.tan(Math.toRadians(latitude)) * sin(obliquity), cos(longitude)));
+        double dec = Math.toDegrees(Math.asin(sin(latitude) * cos(obliquity) + cos(latitude) * sin(obliquity) * sin(longitude)));
+        return new double[] {normalizeDegrees(ra), dec};
+    }
+
+    private static double obliquity(double t, double omega) {
+        return 23.439291 - 0.0130042 * t + 0.00256 * cos(omega);
+    }
+
+    private static double sunApparentLongitude(double t) {
+        double tau = t / 10.0;
+        double longitude = 0;
+        double power = 1;
+        for (double[][] series : EARTH_LONGITUDE_TERMS) {
+            double sum = 0;
+            for (double[] term : series) {
+                sum += term[0] * Math.cos(term[1] + term[2] * tau);
+            }
+            longitude += sum * power;
+            power *= tau;
+        }
+        double m = 357.52911 + 35999.05029 * t;
+        double distance = 1.000140 - 0.016708 * cos(m) - 0.000139 * cos(2 * m);
+        double omega = 125.04452 - 1934.136261 * t;
+        double nutation = -17.20 * sin(omega) - 1.32 * sin(2 * (280.4665 + 36000.7698 * t)) - 0.23 * sin(2 * (218.3165 + 481267.8813 * t)) + 0.21 * sin(2 * omega);
+        return normalizeDegrees(Math.toDegrees(longitude / 100000000.0) + 180 + (nutation - 0.09033 - 20.4898 / distance) / 3600.0);
+    }
+
+    private static double[] sunPosition(double jde) {
+        double t = (jde - J2000) / 36525.0;
+        double[] position = equatorial(sunApparentLongitude(t), 0, obliquity(t, 125.04 - 1934.136 * t));
+        return new double[] {position[0], position[1], SUN_STANDARD_ALTITUDE};
+    }
+
+    private static double[] moonPosition(double jde) {
+        double t = (jde - J2000) / 36525.0;
+        double lp = normalizeDegrees(218.3164477 + 481267.88123421 * t - 0.0015786 * t * t);
+        double d = normalizeDegrees(297.8501921 + 445267.1114034 * t - 0.0018819 * t * t);
+        double m = normalizeDegrees(357.5291092 + 35999.0502909 * t - 0.0001536 * t * t);
+        double mp = normalizeDegrees(134.9633964 + 477198.8675055 * t + 0.0087414 * t * t);
+        double f = normalizeDegrees(93.2720950 + 483202.0175233 * t - 0.0036539 * t * t);
+        double e = 1 - 0.002516 * t - 0.0000074 * t * t;
+        double a1 = 119.75 + 131.849 * t;
+        double a2 = 53.09 + 479264.290 * t;
+        double a3 = 313.45 + 481266.484 * t;
+
+        double sumL = 0;
+        double sumR = 0;
+        for (double[] term : MOON_LONGITUDE_DISTANCE_TERMS) {
+            double argument = term[0] * d + term[1] * m + term[2] * mp + term[3] * f;
+            double factor = Math.pow(e, Math.abs(term[1]));
+            sumL += term[4] * factor * sin(argument);
+            sumR += term[5] * factor * cos(argument);
+        }
+        double sumB = 0;
+        for (double[] term : MOON_LATITUDE_TERMS) {
+            double argument = term[0] * d + term[1] * m + term[2] * mp + term[3] * f;
+            sumB += term[4] * Math.pow(e, Math.abs(term[1])) * sin(argument);
+        }
+        sumL += 3958 * sin(a1) + 1962 * sin(lp - f) + 318 * sin(a2);
+        sumB += -2235 * sin(lp) + 382 * sin(a3) + 175 * sin(a1 - f) + 175 * sin(a1 + f) + 127 * sin(lp - mp) - 115 * sin(lp + mp);
+
+        double omega = 125.04452 - 1934.136261 * t;
+        double longitude = lp + sumL / 1000000.0 - 0.00478 * sin(omega);
+        double latitude = sumB / 1000000.0;
+        double distance = 385000.56 + sumR / 1000.0;
+        double parallax = Math.toDegrees(Math.asin(6378.14 / distance));
+        double[] position = equatorial(longitude, latitude, obliquity(t, omega));
+        return new double[] {position[0], position[1], 0.7275 * parallax - 0.5667};
+    }
+
+    @FunctionalInterface
+    private interface Ephemeris {
+
+        double[] position(double jde);
+
+    }
+
+    @FunctionalInterface
+    private interface EpochFunction {
+
+        double apply(long epochSecond);
+
+    }
+
+    public static class RiseTransitSet {
+
+        private final LocalTime riseTime;
+        private final LocalTime transitTime;
+        private final LocalTime setTime;
+
+        public RiseTransitSet(LocalTime riseTime, LocalTime transitTime, LocalTime setTime) {
+            this.riseTime = riseTime;
+            this.transitTime = transitTime;
+            this.setTime = setTime;
+        }
+
+        public LocalTime getRiseTime() {
+            return riseTime;
+        }
+
+        public LocalTime getTransitTime() {
+            return transitTime;
+        }
+
+        public LocalTime getSetTime() {
+            return setTime;
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class CSVUtils {
+
+    public static Row findFirst(BufferedReader reader, UnaryOperator<String> filter, Function<Header, List<Predicate<Row>>> predicatesFactory) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return null;
+        }
+        Header header = new Header(headerLine, filter);
+        List<Predicate<Row>> predicates = predicatesFactory.apply(header);
+        Row cursor = new Row(header, filter);
+        Row best = null;
+        int bestIndex = predicates.size();
+        String line;
+        while (bestIndex > 0 && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            cursor.setLine(line);
+            for (int i = 0; i < bestIndex; i++) {
+                if (predicates.get(i).test(cursor)) {
+                    best = new Row(header, filter);
+                    best.setLine(line);
+                    bestIndex = i;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    public static class Header {
+
+        private final Map<String, Integer> columnIndexes;
+        private final int columnCount;
+
+        private Header(String line, UnaryOperator<String> filter) {
+            this.columnIndexes = new HashMap<>();
+            int index = 0;
+            int start = 0;
+            int length = line.length();
+            while (start <= length) {
+                int end = line.indexOf(',', start);
+                if (end < 0) {
+                    end = length;
+                }
+                columnIndexes.putIfAbsent(filter.apply(line.substring(start, end)), index++);
+                start = end + 1;
+            }
+            this.columnCount = index;
+        }
+
+        public int indexOf(String column) {
+            Integer index = columnIndexes.get(column);
+            return index == null ? -1 : index;
+        }
+
+        public int size() {
+            return columnCount;
+        }
+
+    }
+
+    public static class Row {
+
+        private final Header header;
+        private final UnaryOperator<String> filter;
+        private final int[] starts;
+        private final int[] ends;
+        private String line;
+        private int columns;
+
+        private Row(Header header, UnaryOperator<String> filter) {
+            this.header = header;
+            this.filter = filter;
+            this.starts = new int[header.size()];
+            this.ends = new int[header.size()];
+        }
+
+        private void setLine(String line) {
+            this.line = line;
+            this.columns = -1;
+        }
+
+        private void split() {
+            int count = 0;
+            int start = 0;
+            while (count < starts.length) {
+                int end = line.indexOf(',', start);
+                starts[count] = start;
+                ends[count++] = end < 0 ? line.length() : end;
+                if (end < 0) {
+                    break;
+                }
+                start = end + 1;
+            }
+            columns = count;
+        }
+
+        public Header getHeader() {
+            return header;
+        }
+
+        public String get(int index) {
+            if (index < 0) {
+                return "";
+            }
+            if (columns < 0) {
+                split();
+            }
+            if (index >= columns) {
+                return "";
+            }
+            return filter.apply(line.substring(starts[index], ends[index]));
+        }
+
+        public String get(String column) {
+            return get(header.indexOf(column));
+        }
+
+        public double getDouble(int index) {
+            return getDouble(index, Double.NaN);
+        }
+
+        public double getDouble(int index, double defaultValue) {
+            String value = get(index).trim();
+            if (value.isEmpty()) {
+                return defaultValue;
+            }
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+
+        public double getDouble(String column) {
+            return getDouble(header.indexOf(column));
+        }
+
+        public double getDouble(String column, double defaultValue) {
+            return getDouble(header.indexOf(column), defaultValue);
+        }
+
+    }
+
+}
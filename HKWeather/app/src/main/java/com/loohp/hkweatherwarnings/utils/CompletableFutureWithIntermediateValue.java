@@ -31,12 +31,18 @@ public class CompletableFutureWithIntermediateValue<T> extends CompletableFuture
         return future;
     }
 
-    private final T intermediateValue;
+    private volatile T intermediateValue;
 
     public CompletableFutureWithIntermediateValue(T intermediateValue) {
         this.intermediateValue = intermediateValue;
     }
 
+    public void setIntermediateValue(T intermediateValue) {
+        if (!isDone()) {
+            this.intermediateValue = intermediateValue;
+        }
+    }
+
     @Override
     public T getIntermediateValue() {
         return intermediateValue;
@@ -60,7 +66,7 @@ public class CompletableFutureWithIntermediateValue<T> extends CompletableFuture
 
     @Override
     public boolean hasIntermediateValue() {
-        return intermediateValue != null;
+        return getIntermediateValue() != null;
     }
 
 }
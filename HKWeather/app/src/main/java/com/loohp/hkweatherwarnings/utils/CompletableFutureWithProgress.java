@@ -86,4 +86,10 @@ public class CompletableFutureWithProgress<T> extends CompletableFuture<T> imple
         }
         return super.completeExceptionally(ex);
     }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        progressListeners.clear();
+        return super.cancel(mayInterruptIfRunning);
+    }
 }
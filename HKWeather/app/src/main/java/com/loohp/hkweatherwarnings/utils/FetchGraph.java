@@ -0,0 +1,129 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FetchGraph {
+
+    private final FetchGroup group;
+    private final long startTime;
+    private final Map<CompletableFuture<?>, Node> nodes;
+
+    public FetchGraph(FetchGroup group) {
+        this.group = group;
+        this.startTime = System.currentTimeMillis();
+        this.nodes = new ConcurrentHashMap<>();
+    }
+
+    public CompletableFuture<Void> node(String name, Task task, CompletableFuture<?>... dependencies) {
+        return node(name, () -> {
+            task.run();
+            return null;
+        }, dependencies);
+    }
+
+    public <T> CompletableFuture<T> node(String name, Callable<T> task, CompletableFuture<?>... dependencies) {
+        List<Node> dependencyNodes = new ArrayList<>(dependencies.length);
+        for (CompletableFuture<?> dependency : dependencies) {
+            Node dependencyNode = nodes.get(dependency);
+            if (dependencyNode == null) {
+                throw new IllegalArgumentException("Dependency of " + name + " is not a node of this graph");
+            }
+            dependencyNodes.add(dependencyNode);
+        }
+        Node node = new Node(name, dependencyNodes);
+        CompletableFuture<T> future = CompletableFuture.allOf(dependencies).thenCompose(v -> {
+            node.readyTime = System.currentTimeMillis();
+            return group.submit(task);
+        }).whenComplete((r, e) -> node.finishTime = System.currentTimeMillis());
+        nodes.put(future, node);
+        return future;
+    }
+
+    public CompletableFuture<Void> whenAllComplete() {
+        return CompletableFuture.allOf(nodes.keySet().toArray(new CompletableFuture<?>[0]));
+    }
+
+    public CompletableFuture<Void> whenAllSettled() {
+        return CompletableFuture.allOf(nodes.keySet().stream().map(f -> f.handle((r, e) -> null)).toArray(CompletableFuture<?>[]::new));
+    }
+
+    public List<Node> getCriticalPath() {
+        Comparator<Node> byFinishTime = Comparator.comparingLong(n -> n.finishTime);
+        Node node = nodes.values().stream().filter(Node::isFinished).max(byFinishTime).orElse(null);
+        LinkedList<Node> path = new LinkedList<>();
+        while (node != null) {
+            path.addFirst(node);
+            node = node.dependencies.stream().filter(Node::isFinished).max(byFinishTime).orElse(null);
+        }
+        return Collections.unmodifiableList(path);
+    }
+
+    public long getCriticalPathTime() {
+        return nodes.values().stream().filter(Node::isFinished).mapToLong(n -> n.finishTime - startTime).max().orElse(0);
+    }
+
+    @FunctionalInterface
+    public interface Task {
+
+        void run() throws Exception;
+
+    }
+
+    public static class Node {
+
+        private final String name;
+        private final List<Node> dependencies;
+        private volatile long readyTime;
+        private volatile long finishTime;
+
+        private Node(String name, List<Node> dependencies) {
+            this.name = name;
+            this.dependencies = dependencies;
+            this.readyTime = -1;
+            this.finishTime = -1;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isFinished() {
+            return finishTime >= 0;
+        }
+
+        public long getDuration() {
+            return readyTime < 0 || finishTime < 0 ? 0 : finishTime - readyTime;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class FetchGroup {
+
+    private final FetchScheduler scheduler;
+    private final Set<FetchScheduler.Task<?>> tasks;
+    private FetchPriority priority;
+    private boolean cancelled;
+
+    public FetchGroup(FetchPriority priority) {
+        this.scheduler = FetchScheduler.getInstance();
+        this.tasks = ConcurrentHashMap.newKeySet();
+        this.priority = priority;
+        this.cancelled = false;
+    }
+
+    public synchronized FetchPriority getPriority() {
+        return priority;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> callable) {
+        synchronized (this) {
+            if (cancelled) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                future.cancel(false);
+                return future;
+            }
+            return scheduler.submit(this, priority, callable);
+        }
+    }
+
+    public <T> CompletableFuture<T> submitAfter(CompletableFuture<?> dependency, Callable<T> callable) {
+        if (dependency.isDone()) {
+            return submit(callable);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> task = new AtomicReference<>();
+        dependency.whenComplete((r, e) -> {
+            if (future.isDone()) {
+                return;
+            }
+            CompletableFuture<T> submitted = submit(callable);
+            task.set(submitted);
+            if (future.isCancelled()) {
+                submitted.cancel(true);
+                return;
+            }
+            submitted.whenComplete((value, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(value);
+                }
+            });
+        });
+        future.whenComplete((value, error) -> {
+            CompletableFuture<T> submitted = task.get();
+            if (future.isCancelled() && submitted != null) {
+                submitted.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    public CompletableFuture<Void> submitAfter(CompletableFuture<?> dependency, Runnable runnable) {
+        return submitAfter(dependency, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> submit(Runnable runnable) {
+        return submit(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public <F extends CompletableFuture<?>> F bind(F future) {
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                cancel();
+            }
+        });
+        return future;
+    }
+
+    public synchronized void raisePriority(FetchPriority priority) {
+        if (!priority.isHigherThan(this.priority)) {
+            return;
+        }
+        this.priority = priority;
+        for (FetchScheduler.Task<?> task : tasks) {
+            scheduler.raisePriority(task, priority);
+        }
+    }
+
+    public void cancel() {
+        synchronized (this) {
+            cancelled = true;
+        }
+        for (FetchScheduler.Task<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    void add(FetchScheduler.Task<?> task) {
+        tasks.add(task);
+    }
+
+    void remove(FetchScheduler.Task<?> task) {
+        tasks.remove(task);
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FetchScheduler {
+
+    public static final int WORKER_COUNT = 8;
+
+    private static final FetchScheduler INSTANCE = new FetchScheduler(WORKER_COUNT);
+    private static final ThreadLocal<Task<?>> CURRENT_TASK = new ThreadLocal<>();
+
+    public static FetchScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    static Task<?> getCurrentTask() {
+        return CURRENT_TASK.get();
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence;
+
+    private FetchScheduler(int workerCount) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerCount, workerCount, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "HKWeather-Fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.sequence = new AtomicLong();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    <T> CompletableFuture<T> submit(FetchGroup group, FetchPriority priority, Callable<T> callable) {
+        Task<T> task = new Task<>(group, priority, sequence.getAndIncrement(), callable);
+        group.add(task);
+        executor.execute(task);
+        return task;
+    }
+
+    void raisePriority(Task<?> task, FetchPriority priority) {
+        synchronized (task) {
+            if (!priority.isHigherThan(task.priority)) {
+                return;
+            }
+            if (task.runner != null) {
+                task.priority = priority;
+                return;
+            }
+        }
+        reprioritize(task, priority);
+    }
+
+    void reprioritize(Task<?> task, FetchPriority priority) {
+        if (executor.remove(task)) {
+            task.priority = priority;
+            if (!task.isDone()) {
+                executor.execute(task);
+            }
+        }
+    }
+
+    class Task<T> extends CompletableFuture<T> implements Runnable, Comparable<Task<?>> {
+
+        private final FetchGroup group;
+        private final long sequence;
+        private final Callable<T> callable;
+        private volatile FetchPriority priority;
+        private Thread runner;
+
+        private Task(FetchGroup group, FetchPriority priority, long sequence, Callable<T> callable) {
+            this.group = group;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            CURRENT_TASK.set(this);
+            try {
+                complete(callable.call());
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            } finally {
+                CURRENT_TASK.remove();
+                synchronized (this) {
+                    runner = null;
+                }
+                group.remove(this);
+            }
+        }
+
+        FetchPriority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                executor.remove(this);
+                synchronized (this) {
+                    if (mayInterruptIfRunning && runner != null) {
+                        runner.interrupt();
+                        HTTPRequestUtils.cancelCalls(runner);
+                    }
+                }
+                group.remove(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            int result = priority.compareTo(other.priority);
+            return result == 0 ? Long.compare(sequence, other.sequence) : result;
+        }
+
+    }
+
+}
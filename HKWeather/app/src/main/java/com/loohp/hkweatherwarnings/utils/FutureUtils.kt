@@ -20,9 +20,17 @@
 
 package com.loohp.hkweatherwarnings.utils
 
+import com.google.common.util.concurrent.ListenableFuture
+import com.google.common.util.concurrent.MoreExecutors
+import com.google.common.util.concurrent.SettableFuture
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
 import java.util.concurrent.Future
+import java.util.concurrent.ScheduledExecutorService
 import java.util.concurrent.TimeUnit
 
+private val TIMEOUT_SCHEDULER: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor { r -> Thread(r, "HKWeather-Timeout").apply { isDaemon = true } }
+
 fun <T> Future<T>.orElseGet(timeout: Long, unit: TimeUnit, elseGet: () -> T, printErr: Boolean = true): T {
     return try {
         get(timeout, unit)
@@ -36,4 +44,38 @@ fun <T> Future<T>.orElseGet(timeout: Long, unit: TimeUnit, elseGet: () -> T, pri
 
 fun <T> Future<T>.orElse(timeout: Long, unit: TimeUnit, el: T, printErr: Boolean = true): T {
     return orElseGet(timeout, unit, { el }, printErr)
-}
\ No newline at end of file
+}
+
+fun <T> CompletableFuture<T>.orElseAsync(timeout: Long, unit: TimeUnit, el: T, printErr: Boolean = true): CompletableFuture<T> {
+    val result = CompletableFuture<T>()
+    val timeoutTask = TIMEOUT_SCHEDULER.schedule({ result.complete(el) }, timeout, unit)
+    whenComplete { value, error ->
+        timeoutTask.cancel(false)
+        if (error != null) {
+            if (printErr) {
+                error.printStackTrace()
+            }
+            result.complete(el)
+        } else {
+            result.complete(value)
+        }
+    }
+    return result
+}
+
+fun <T> CompletableFuture<T>.toListenableFuture(): ListenableFuture<T> {
+    val future = SettableFuture.create<T>()
+    whenComplete { value, error ->
+        if (error != null) {
+            future.setException(error)
+        } else {
+            future.set(value)
+        }
+    }
+    future.addListener({
+        if (future.isCancelled) {
+            cancel(true)
+        }
+    }, MoreExecutors.directExecutor())
+    return future
+}
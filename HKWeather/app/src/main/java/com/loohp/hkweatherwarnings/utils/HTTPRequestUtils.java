@@ -20,214 +20,481 @@
 
 package com.loohp.hkweatherwarnings.utils;
 
+import android.content.Context;
+import android.util.JsonReader;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
-import javax.net.ssl.HttpsURLConnection;
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class HTTPRequestUtils {
 
+    public static final int MAX_REQUESTS_PER_HOST = 4;
+
+    private static final String CACHE_DIRECTORY = "http_cache";
+    private static final long CACHE_SIZE = 10L * 1024L * 1024L;
+
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json");
+
+    private static final OkHttpClient BASE_CLIENT = new OkHttpClient.Builder()
+            .connectTimeout(20, TimeUnit.SECONDS)
+            .readTimeout(20, TimeUnit.SECONDS)
+            .connectionPool(new ConnectionPool(MAX_REQUESTS_PER_HOST * 3, 5, TimeUnit.MINUTES))
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .build();
+
+    private static final Map<String, PriorityPermits> HOST_PERMITS = new ConcurrentHashMap<>();
+
+    private static final AtomicLong CACHE_HITS = new AtomicLong();
+    private static final AtomicLong CACHE_MISSES = new AtomicLong();
+    private static final AtomicLong CANCELLED_CALLS = new AtomicLong();
+
+    private static final Map<Call, Thread> ACTIVE_CALLS = new ConcurrentHashMap<>();
+    private static final Map<String, Long> LAST_MODIFIED = new ConcurrentHashMap<>();
+
+    private static final SingleFlight<List<Object>, Object> REQUESTS = new SingleFlight<>();
+
+    private static volatile OkHttpClient client = BASE_CLIENT;
+
+    public static synchronized void init(Context context) {
+        if (client.cache() != null) {
+            return;
+        }
+        client = BASE_CLIENT.newBuilder()
+                .cache(new Cache(new File(context.getApplicationContext().getCacheDir(), CACHE_DIRECTORY), CACHE_SIZE))
+                .addNetworkInterceptor(HTTPRequestUtils::storeForRevalidation)
+                .build();
+    }
+
+    public static OkHttpClient getClient() {
+        return client;
+    }
+
+    public static long getCacheHitCount() {
+        return CACHE_HITS.get();
+    }
+
+    public static long getCacheMissCount() {
+        return CACHE_MISSES.get();
+    }
+
+    public static long getCoalescedRequestCount() {
+        return REQUESTS.getCoalescedCount();
+    }
+
+    public static long getLastModified(String link) {
+        HttpUrl url = HttpUrl.parse(link);
+        Long lastModified = url == null ? null : LAST_MODIFIED.get(url.toString());
+        return lastModified == null ? -1 : lastModified;
+    }
+
+    public static long getCancelledCallCount() {
+        return CANCELLED_CALLS.get();
+    }
+
+    public static void cancelCalls(Thread thread) {
+        for (Map.Entry<Call, Thread> entry : ACTIVE_CALLS.entrySet()) {
+            if (entry.getValue() == thread && !entry.getKey().isCanceled()) {
+                entry.getKey().cancel();
+                CANCELLED_CALLS.incrementAndGet();
+            }
+        }
+    }
+
+    private static Call newCall(Request request) {
+        Call call = client.newCall(request);
+        Thread thread = Thread.currentThread();
+        ACTIVE_CALLS.put(call, thread);
+        if (thread.isInterrupted()) {
+            call.cancel();
+        }
+        return call;
+    }
+
+    private static Response storeForRevalidation(Interceptor.Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (response.header("ETag") == null && response.header("Last-Modified") == null) {
+            return response;
+        }
+        return response.newBuilder()
+                .header("Cache-Control", "no-cache")
+                .removeHeader("Pragma")
+                .removeHeader("Expires")
+                .build();
+    }
+
+    private static void recordLastModified(Response response) {
+        if (!response.isSuccessful()) {
+            return;
+        }
+        Date lastModified = response.headers().getDate("Last-Modified");
+        if (lastModified != null) {
+            LAST_MODIFIED.put(response.request().url().toString(), lastModified.getTime());
+        }
+    }
+
+    private static void recordCacheResult(Response response) {
+        if (client.cache() == null || !response.request().method().equals("GET")) {
+            return;
+        }
+        Response networkResponse = response.networkResponse();
+        if (response.cacheResponse() != null && (networkResponse == null || networkResponse.code() == 304)) {
+            CACHE_HITS.incrementAndGet();
+        } else if (networkResponse != null) {
+            CACHE_MISSES.incrementAndGet();
+        }
+    }
+
+    private static Request.Builder newRequest(String link) {
+        return new Request.Builder()
+                .url(link)
+                .header("User-Agent", "Mozilla/5.0")
+                .header("Cache-Control", "max-age=0");
+    }
+
+    private static PriorityPermits acquireHostPermit(Request request) throws IOException {
+        PriorityPermits permits = HOST_PERMITS.computeIfAbsent(request.url().host(), k -> new PriorityPermits(MAX_REQUESTS_PER_HOST));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        return permits;
+    }
+
+    private static <T> T execute(Request request, ResponseHandler<T> handler) throws IOException {
+        PriorityPermits permits = acquireHostPermit(request);
+        Call call = newCall(request);
+        try (Response response = call.execute()) {
+            recordCacheResult(response);
+            recordLastModified(response);
+            return handler.handle(response);
+        } finally {
+            ACTIVE_CALLS.remove(call);
+            permits.release();
+        }
+    }
+
     public static boolean isResponseOk(String link) {
+        return REQUESTS.execute(Arrays.asList("ok", link), () -> fetchResponseOk(link)) == Boolean.TRUE;
+    }
+
+    private static boolean fetchResponseOk(String link) {
         try {
-            URL url = new URL(link);
-            HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setConnectTimeout(20000);
-            connection.setReadTimeout(20000);
-            connection.setUseCaches(false);
-            connection.setDefaultUseCaches(false);
-            connection.addRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
-            connection.addRequestProperty("Pragma", "no-cache");
-            return connection.getResponseCode() == HttpsURLConnection.HTTP_OK;
-        } catch (IOException e) {
+            int code = execute(newRequest(link).head().build(), Response::code);
+            if (code == 405 || code == 501) {
+                return execute(newRequest(link).header("Range", "bytes=0-0").build(), response -> response.code() == 200 || response.code() == 206);
+            }
+            return code == 200;
+        } catch (IOException | IllegalArgumentException e) {
             return false;
         }
     }
 
     public static String getTextResponse(String link) {
+        return (String) REQUESTS.execute(Arrays.asList("text", link), () -> fetchTextResponse(link));
+    }
+
+    private static String fetchTextResponse(String link) {
         try {
-            URL url = new URL(link);
-            HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setConnectTimeout(20000);
-            connection.setReadTimeout(20000);
-            connection.setUseCaches(false);
-            connection.setDefaultUseCaches(false);
-            connection.addRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
-            connection.addRequestProperty("Pragma", "no-cache");
-            if (connection.getResponseCode() == HttpsURLConnection.HTTP_OK) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    return reader.lines().collect(Collectors.joining("\n"));
+            return execute(newRequest(link).build(), response -> {
+                ResponseBody body = response.body();
+                if (response.code() == 200 && body != null) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(body.byteStream(), StandardCharsets.UTF_8))) {
+                        return reader.lines().collect(Collectors.joining("\n"));
+                    }
+                } else {
+                    return null;
                 }
-            } else {
-                return null;
+            });
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static ConditionalResponse getConditionalTextResponse(String link, String etag, String lastModified) {
+        try {
+            Request.Builder builder = newRequest(link);
+            if (etag != null) {
+                builder.header("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                builder.header("If-Modified-Since", lastModified);
             }
-        } catch (IOException e) {
+            return execute(builder.build(), response -> {
+                long bytes = response.headers().byteCount();
+                ResponseBody body = response.body();
+                if (response.code() == 304) {
+                    return new ConditionalResponse(true, null, etag, lastModified, bytes);
+                } else if (response.code() == 200 && body != null) {
+                    byte[] content = body.bytes();
+                    return new ConditionalResponse(false, new String(content, StandardCharsets.UTF_8), response.header("ETag"), response.header("Last-Modified"), bytes + content.length);
+                } else {
+                    return null;
+                }
+            });
+        } catch (IOException | IllegalArgumentException e) {
             return null;
         }
     }
 
-    public static List<JSONObject> getCSVResponse(String link) {
-        return getCSVResponse(link, UnaryOperator.identity());
+    public static CSVUtils.Row getCSVRow(String link, Function<CSVUtils.Header, List<Predicate<CSVUtils.Row>>> predicates) throws IOException {
+        return getCSVRow(link, UnaryOperator.identity(), predicates);
     }
 
-    public static List<JSONObject> getCSVResponse(String link, UnaryOperator<String> filter) {
+    public static CSVUtils.Row getCSVRow(String link, UnaryOperator<String> filter, Function<CSVUtils.Header, List<Predicate<CSVUtils.Row>>> predicates) throws IOException {
         try {
-            String result = getTextResponse(link);
-            if (result == null) {
-                return null;
-            }
-            String[] lines = result.split("\\R");
-            if (lines.length < 2) {
-                return null;
-            }
-            String[] keys = lines[0].split(",");
-            List<JSONObject> list = new ArrayList<>(lines.length - 1);
-            for (int i = 1; i < lines.length; i++) {
-                String[] values = lines[i].split(",");
-                JSONObject obj = new JSONObject();
-                for (int k = 0; k < keys.length && k < values.length; k++) {
-                    obj.put(filter.apply(keys[k]), filter.apply(values[k]));
+            return execute(newRequest(link).build(), response -> {
+                ResponseBody body = response.body();
+                if (response.code() != 200 || body == null) {
+                    throw new IOException("Unexpected response code " + response.code() + " for " + link);
                 }
-                list.add(obj);
-            }
-            return list;
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(body.byteStream(), StandardCharsets.UTF_8))) {
+                    return CSVUtils.findFirst(reader, filter, predicates);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public static JSONObject getJSONResponse(String link) {
+        return (JSONObject) REQUESTS.execute(Arrays.asList("json", link), () -> fetchJSONResponse(link), HTTPRequestUtils::copyJSONObject);
+    }
+
+    private static Object copyJSONObject(Object value) {
+        try {
+            return new JSONObject(value.toString());
         } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JSONObject fetchJSONResponse(String link) {
+        try {
+            return execute(newRequest(link).build(), response -> {
+                ResponseBody body = response.body();
+                if (response.code() == 200 && body != null) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(body.byteStream(), StandardCharsets.UTF_8))) {
+                        String reply = reader.lines().collect(Collectors.joining());
+                        return new JSONObject(reply);
+                    } catch (JSONException e) {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+            });
+        } catch (IOException | IllegalArgumentException e) {
             return null;
         }
     }
 
-    public static JSONObject getJSONResponse(String link) {
+    public static <T> T getJSONResponse(String link, JsonReaderUtils.Decoder<T> decoder) {
+        //noinspection unchecked
+        return (T) REQUESTS.execute(Arrays.asList("json", link, decoder), () -> fetchJSONResponse(link, decoder));
+    }
+
+    private static <T> T fetchJSONResponse(String link, JsonReaderUtils.Decoder<T> decoder) {
         try {
-            URL url = new URL(link);
-            HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setConnectTimeout(20000);
-            connection.setReadTimeout(20000);
-            connection.setUseCaches(false);
-            connection.setDefaultUseCaches(false);
-            connection.addRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
-            connection.addRequestProperty("Pragma", "no-cache");
-            if (connection.getResponseCode() == HttpsURLConnection.HTTP_OK) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    String reply = reader.lines().collect(Collectors.joining());
-                    return new JSONObject(reply);
+            return execute(newRequest(link).build(), response -> {
+                ResponseBody body = response.body();
+                if (response.code() == 200 && body != null) {
+                    try (JsonReader reader = new JsonReader(new InputStreamReader(body.byteStream(), StandardCharsets.UTF_8))) {
+                        return decoder.decode(reader);
+                    }
+                } else {
+                    return null;
                 }
-            } else {
-                return null;
-            }
-        } catch (IOException | JSONException e) {
+            });
+        } catch (IOException | RuntimeException e) {
             return null;
         }
     }
 
-    public static JSONObject postJSONResponse(String link, JSONObject body) {
+    public static <T> T postJSONResponse(String link, JSONObject body, JsonReaderUtils.Decoder<T> decoder) {
         try {
-            URL url = new URL(link);
-            HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setConnectTimeout(20000);
-            connection.setReadTimeout(20000);
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setDoOutput(true);
-            connection.setUseCaches(false);
-            connection.setDefaultUseCaches(false);
-            connection.addRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
-            connection.addRequestProperty("Pragma", "no-cache");
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = body.toString().getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-            if (connection.getResponseCode() == HttpsURLConnection.HTTP_OK) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    String reply = reader.lines().collect(Collectors.joining());
-                    return new JSONObject(reply);
+            Request request = newRequest(link)
+                    .post(RequestBody.create(body.toString().getBytes(StandardCharsets.UTF_8), JSON_MEDIA_TYPE))
+                    .build();
+            return execute(request, response -> {
+                ResponseBody responseBody = response.body();
+                if (response.code() == 200 && responseBody != null) {
+                    try (JsonReader reader = new JsonReader(new InputStreamReader(responseBody.byteStream(), StandardCharsets.UTF_8))) {
+                        return decoder.decode(reader);
+                    }
+                } else {
+                    return null;
                 }
-            } else {
-                return null;
-            }
-        } catch (IOException | JSONException e) {
+            });
+        } catch (IOException | RuntimeException e) {
             return null;
         }
     }
 
     public static InputStream getInputStream(String link) throws IOException {
-        URLConnection connection = new URL(link).openConnection();
-        connection.setConnectTimeout(20000);
-        connection.setReadTimeout(20000);
-        connection.setUseCaches(false);
-        connection.setDefaultUseCaches(false);
-        connection.addRequestProperty("User-Agent", "Mozilla/5.0");
-        connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
-        connection.addRequestProperty("Pragma", "no-cache");
-        return connection.getInputStream();
+        Request request;
+        try {
+            request = newRequest(link).build();
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e);
+        }
+        PriorityPermits permits = acquireHostPermit(request);
+        Call call = newCall(request);
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException | RuntimeException e) {
+            ACTIVE_CALLS.remove(call);
+            permits.release();
+            throw e;
+        }
+        recordCacheResult(response);
+        recordLastModified(response);
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            response.close();
+            ACTIVE_CALLS.remove(call);
+            permits.release();
+            throw new IOException("Unexpected response code " + response.code() + " for " + link);
+        }
+        return new FilterInputStream(body.byteStream()) {
+            private boolean closed = false;
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    response.close();
+                } finally {
+                    ACTIVE_CALLS.remove(call);
+                    permits.release();
+                }
+            }
+        };
     }
 
     public static byte[] download(String link) throws IOException {
-        try (InputStream is = getInputStream(link)) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] byteChunk = new byte[4096];
-            int n;
-            while ((n = is.read(byteChunk)) > 0) {
-                baos.write(byteChunk, 0, n);
-            }
-            return baos.toByteArray();
+        try {
+            return execute(newRequest(link).build(), response -> {
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    throw new IOException("Unexpected response code " + response.code() + " for " + link);
+                }
+                return body.bytes();
+            });
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e);
         }
     }
 
     public static long getContentSize(String link) {
         try {
-            URLConnection connection = new URL(link).openConnection();
-            connection.setConnectTimeout(20000);
-            connection.setReadTimeout(20000);
-            connection.setUseCaches(false);
-            connection.setDefaultUseCaches(false);
-            connection.addRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
-            connection.addRequestProperty("Pragma", "no-cache");
-            if (connection instanceof HttpURLConnection) {
-                ((HttpURLConnection) connection).setRequestMethod("HEAD");
-            }
-            return connection.getContentLengthLong();
-        } catch (IOException e) {
+            return execute(newRequest(link).head().build(), response -> {
+                String contentLength = response.header("Content-Length");
+                if (contentLength == null) {
+                    return -1L;
+                }
+                try {
+                    return Long.parseLong(contentLength);
+                } catch (NumberFormatException e) {
+                    return -1L;
+                }
+            });
+        } catch (IOException | IllegalArgumentException e) {
             return -1;
         }
     }
 
     public static String getContentType(String link) {
         try {
-            URLConnection connection = new URL(link).openConnection();
-            connection.setConnectTimeout(20000);
-            connection.setReadTimeout(20000);
-            connection.setUseCaches(false);
-            connection.setDefaultUseCaches(false);
-            connection.addRequestProperty("User-Agent", "Mozilla/5.0");
-            connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
-            connection.addRequestProperty("Pragma", "no-cache");
-            if (connection instanceof HttpURLConnection) {
-                ((HttpURLConnection) connection).setRequestMethod("HEAD");
-            }
-            return connection.getContentType();
-        } catch (IOException e) {
+            return execute(newRequest(link).head().build(), response -> {
+                String contentType = response.header("Content-Type");
+                return contentType == null ? "" : contentType;
+            });
+        } catch (IOException | IllegalArgumentException e) {
             return "";
         }
     }
 
-}
+    public static class ConditionalResponse {
+
+        private final boolean notModified;
+        private final String body;
+        private final String etag;
+        private final String lastModified;
+        private final long bytes;
+
+        private ConditionalResponse(boolean notModified, String body, String etag, String lastModified, long bytes) {
+            this.notModified = notModified;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.bytes = bytes;
+        }
+
+        public boolean isNotModified() {
+            return notModified;
+        }
 
+        public String getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface ResponseHandler<T> {
+
+        T handle(Response response) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class PriorityPermits {
+
+    private final List<Waiter> waiters;
+    private int available;
+    private long sequence;
+
+    PriorityPermits(int permits) {
+        this.waiters = new ArrayList<>();
+        this.available = permits;
+        this.sequence = 0;
+    }
+
+    synchronized void acquire() throws InterruptedException {
+        if (available > 0 && waiters.isEmpty()) {
+            available--;
+            return;
+        }
+        Waiter waiter = new Waiter(FetchScheduler.getCurrentTask(), sequence++);
+        waiters.add(waiter);
+        try {
+            while (!waiter.granted) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            if (waiter.granted) {
+                release();
+            } else {
+                waiters.remove(waiter);
+            }
+            throw e;
+        }
+    }
+
+    synchronized void release() {
+        Waiter next = null;
+        for (Waiter waiter : waiters) {
+            if (next == null || waiter.isBefore(next)) {
+                next = waiter;
+            }
+        }
+        if (next == null) {
+            available++;
+            return;
+        }
+        waiters.remove(next);
+        next.granted = true;
+        notifyAll();
+    }
+
+    synchronized int getWaitingCount() {
+        return waiters.size();
+    }
+
+    private static class Waiter {
+
+        private final FetchScheduler.Task<?> task;
+        private final long sequence;
+        private boolean granted;
+
+        private Waiter(FetchScheduler.Task<?> task, long sequence) {
+            this.task = task;
+            this.sequence = sequence;
+            this.granted = false;
+        }
+
+        private FetchPriority getPriority() {
+            return task == null ? FetchPriority.BACKGROUND : task.getPriority();
+        }
+
+        private boolean isBefore(Waiter other) {
+            FetchPriority priority = getPriority();
+            FetchPriority otherPriority = other.getPriority();
+            return priority == otherPriority ? sequence < other.sequence : priority.isHigherThan(otherPriority);
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight;
+    private final AtomicLong coalescedCount;
+
+    public SingleFlight() {
+        this.inFlight = new ConcurrentHashMap<>();
+        this.coalescedCount = new AtomicLong();
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, UnaryOperator.identity());
+    }
+
+    public V execute(K key, Supplier<V> loader, UnaryOperator<V> share) {
+        while (true) {
+            FetchScheduler.Task<?> task = FetchScheduler.getCurrentTask();
+            Flight<V> flight = new Flight<>(task);
+            Flight<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return load(key, flight, loader);
+            }
+            coalescedCount.incrementAndGet();
+            if (existing.leader != null && task != null) {
+                FetchScheduler.getInstance().raisePriority(existing.leader, task.getPriority());
+            }
+            try {
+                V value = await(existing.future);
+                return value == null ? null : share.apply(value);
+            } catch (AbandonedException ignore) {
+            }
+        }
+    }
+
+    private V load(K key, Flight<V> flight, Supplier<V> loader) {
+        CompletableFuture<V> future = flight.future;
+        try {
+            V value = loader.get();
+            inFlight.remove(key, flight);
+            if (Thread.currentThread().isInterrupted()) {
+                future.completeExceptionally(new AbandonedException());
+            } else {
+                future.complete(value);
+            }
+            return value;
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AbandonedException) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                throw (AbandonedException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private static class Flight<V> {
+
+        private final CompletableFuture<V> future;
+        private final FetchScheduler.Task<?> leader;
+
+        private Flight(FetchScheduler.Task<?> leader) {
+            this.future = new CompletableFuture<>();
+            this.leader = leader;
+        }
+
+    }
+
+    private static class AbandonedException extends RuntimeException {
+
+        private AbandonedException() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
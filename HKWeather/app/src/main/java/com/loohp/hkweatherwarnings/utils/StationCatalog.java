@@ -0,0 +1,123 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import android.content.Context;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StationCatalog {
+
+    public static final String ASSET_NAME = "station_catalog.bin";
+
+    private static final int MAGIC = 0x484B5753;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 16384;
+
+    private static volatile StationCatalog instance = null;
+
+    public static StationCatalog getInstance(Context context) {
+        StationCatalog catalog = instance;
+        if (catalog == null) {
+            synchronized (StationCatalog.class) {
+                catalog = instance;
+                if (catalog == null) {
+                    try {
+                        instance = catalog = load(context);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+        return catalog;
+    }
+
+    private static StationCatalog load(Context context) throws IOException {
+        try (InputStream input = context.getApplicationContext().getAssets().open(ASSET_NAME)) {
+            return read(input);
+        }
+    }
+
+    static StationCatalog read(InputStream input) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(input, BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported station catalog format");
+            }
+            int catalogCount = in.readUnsignedShort();
+            Map<String, StationIndex> indexes = new HashMap<>(catalogCount);
+            for (int c = 0; c < catalogCount; c++) {
+                String name = in.readUTF();
+                int size = in.readUnsignedShort();
+                String[] ids = new String[size];
+                String[] namesEn = new String[size];
+                String[] namesZh = new String[size];
+                double[] latitudes = new double[size];
+                double[] longitudes = new double[size];
+                for (int i = 0; i < size; i++) {
+                    ids[i] = in.readUTF();
+                    namesEn[i] = in.readUTF();
+                    namesZh[i] = in.readUTF();
+                    latitudes[i] = in.readDouble();
+                    longitudes[i] = in.readDouble();
+                }
+                indexes.put(name, new StationIndex(ids, namesEn, namesZh, latitudes, longitudes));
+            }
+            return new StationCatalog(indexes);
+        }
+    }
+
+    private final Map<String, StationIndex> indexes;
+
+    private StationCatalog(Map<String, StationIndex> indexes) {
+        this.indexes = indexes;
+    }
+
+    private StationIndex getIndex(String name) {
+        StationIndex index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalStateException("Station catalog is missing " + name);
+        }
+        return index;
+    }
+
+    public StationIndex getTemperatureStations() {
+        return getIndex("temperature");
+    }
+
+    public StationIndex getHumidityStations() {
+        return getIndex("humidity");
+    }
+
+    public StationIndex getWindStations() {
+        return getIndex("wind");
+    }
+
+    public StationIndex getForecastStations() {
+        return getIndex("forecast");
+    }
+
+}
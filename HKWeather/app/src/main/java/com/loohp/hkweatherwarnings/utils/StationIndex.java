@@ -0,0 +1,218 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.util.Arrays;
+
+public class StationIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double CELL_SIZE_DEGREES = 0.05;
+    private static final double RERANK_TOLERANCE = 1.01;
+
+    public static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double sinHalfLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinHalfLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double a = sinHalfLat * sinHalfLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinHalfLng * sinHalfLng;
+        return 2 * Math.asin(Math.sqrt(a)) * EARTH_RADIUS_KM;
+    }
+
+    private final String[] ids;
+    private final String[] namesEn;
+    private final String[] namesZh;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double maxLatitude;
+    private final double maxLongitude;
+    private final int rows;
+    private final int columns;
+    private final int[][] cells;
+
+    private volatile LastQuery lastQuery;
+
+    public StationIndex(String[] ids, String[] namesEn, String[] namesZh, double[] latitudes, double[] longitudes) {
+        this.ids = ids;
+        this.namesEn = namesEn;
+        this.namesZh = namesZh;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+
+        double minLatitude = Double.MAX_VALUE;
+        double minLongitude = Double.MAX_VALUE;
+        double maxLatitude = -Double.MAX_VALUE;
+        double maxLongitude = -Double.MAX_VALUE;
+        for (int i = 0; i < latitudes.length; i++) {
+            minLatitude = Math.min(minLatitude, latitudes[i]);
+            minLongitude = Math.min(minLongitude, longitudes[i]);
+            maxLatitude = Math.max(maxLatitude, latitudes[i]);
+            maxLongitude = Math.max(maxLongitude, longitudes[i]);
+        }
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLatitude = maxLatitude;
+        this.maxLongitude = maxLongitude;
+        this.rows = latitudes.length == 0 ? 0 : (int) ((maxLatitude - minLatitude) / CELL_SIZE_DEGREES) + 1;
+        this.columns = latitudes.length == 0 ? 0 : (int) ((maxLongitude - minLongitude) / CELL_SIZE_DEGREES) + 1;
+
+        int[] counts = new int[rows * columns];
+        for (int i = 0; i < latitudes.length; i++) {
+            counts[cellOf(latitudes[i], longitudes[i])]++;
+        }
+        this.cells = new int[rows * columns][];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new int[counts[i]];
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < latitudes.length; i++) {
+            int cell = cellOf(latitudes[i], longitudes[i]);
+            cells[cell][counts[cell]++] = i;
+        }
+    }
+
+    private int cellOf(double latitude, double longitude) {
+        int row = Math.min(rows - 1, Math.max(0, (int) ((latitude - minLatitude) / CELL_SIZE_DEGREES)));
+        int column = Math.min(columns - 1, Math.max(0, (int) ((longitude - minLongitude) / CELL_SIZE_DEGREES)));
+        return row * columns + column;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getId(int index) {
+        return ids[index];
+    }
+
+    public String getNameEn(int index) {
+        return namesEn[index];
+    }
+
+    public String getNameZh(int index) {
+        return namesZh[index];
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    public double getDistance(int index, double latitude, double longitude) {
+        return haversine(latitude, longitude, latitudes[index], longitudes[index]);
+    }
+
+    public int findNearest(double latitude, double longitude) {
+        LastQuery query = lastQuery;
+        if (query != null && query.latitude == latitude && query.longitude == longitude) {
+            return query.index;
+        }
+        int index;
+        if (ids.length == 0) {
+            index = -1;
+        } else if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+            index = findNearestLinear(latitude, longitude);
+        } else {
+            index = findNearestInGrid(latitude, longitude);
+        }
+        lastQuery = new LastQuery(latitude, longitude, index);
+        return index;
+    }
+
+    private double equirectangular(int index, double latitude, double longitude, double cosLatitude) {
+        double x = (longitudes[index] - longitude) * cosLatitude;
+        double y = latitudes[index] - latitude;
+        return x * x + y * y;
+    }
+
+    private int findNearestLinear(double latitude, double longitude) {
+        int nearest = -1;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < ids.length; i++) {
+            double distance = getDistance(i, latitude, longitude);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    private int findNearestInGrid(double latitude, double longitude) {
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        int row = (int) ((latitude - minLatitude) / CELL_SIZE_DEGREES);
+        int column = (int) ((longitude - minLongitude) / CELL_SIZE_DEGREES);
+        double best = Double.MAX_VALUE;
+        int nearest = -1;
+        double nearestDistance = Double.MAX_VALUE;
+        int maxRing = Math.max(rows, columns);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : ring * 2) {
+                    if (c >= 0 && c < columns) {
+                        for (int station : cells[r * columns + c]) {
+                            double approximate = equirectangular(station, latitude, longitude, cosLatitude);
+                            best = Math.min(best, approximate);
+                            if (approximate <= best * RERANK_TOLERANCE) {
+                                double distance = getDistance(station, latitude, longitude);
+                                if (distance < nearestDistance) {
+                                    nearestDistance = distance;
+                                    nearest = station;
+                                }
+                            }
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+            double reach = ring * CELL_SIZE_DEGREES * cosLatitude;
+            if (best < Double.MAX_VALUE && reach * reach > best * RERANK_TOLERANCE) {
+                break;
+            }
+        }
+        return nearest;
+    }
+
+    private static class LastQuery {
+
+        private final double latitude;
+        private final double longitude;
+        private final int index;
+
+        private LastQuery(double latitude, double longitude, int index) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.index = index;
+        }
+
+    }
+
+}
@@ -22,16 +22,23 @@ package com.loohp.hkweatherwarnings.weather;
 
 import androidx.compose.runtime.Immutable;
 
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Immutable
@@ -62,7 +69,7 @@ public class CurrentWeatherInfo extends WeatherInfo {
         LocalTime moonriseTime = jsonObject.optString("moonriseTime").isEmpty() ? null : LocalTime.parse(jsonObject.optString("moonriseTime"), TIME_FORMATTER);
         LocalTime moonTransitTime = jsonObject.optString("moonTransitTime").isEmpty() ? null : LocalTime.parse(jsonObject.optString("moonTransitTime"), TIME_FORMATTER);
         LocalTime moonsetTime = jsonObject.optString("moonsetTime").isEmpty() ? null : LocalTime.parse(jsonObject.optString("moonsetTime"), TIME_FORMATTER);
-        LocalForecastInfo localForecastInfo = LocalForecastInfo.deserialize(jsonObject.optJSONObject("localForecastInfo"));
+        LocalForecastInfo localForecastInfo = jsonObject.has("localForecastInfo") ? LocalForecastInfo.deserialize(jsonObject.optJSONObject("localForecastInfo")) : null;
         String forecastGeneralSituation = jsonObject.optString("forecastGeneralSituation");
         JSONArray forecastInfoArray = jsonObject.optJSONArray("forecastInfo");
         List<ForecastWeatherInfo> forecastInfo = new ArrayList<>(forecastInfoArray.length());
@@ -76,7 +83,56 @@ public class CurrentWeatherInfo extends WeatherInfo {
         }
         HeatStressAtWorkInfo heatStressAtWorkInfo = jsonObject.has("heatStressAtWorkInfo") ? HeatStressAtWorkInfo.deserialize(jsonObject.optJSONObject("heatStressAtWorkInfo")) : null;
         SpecialTyphoonInfo specialTyphoonInfo = jsonObject.has("specialTyphoonInfo") ? SpecialTyphoonInfo.deserialize(jsonObject.optJSONObject("specialTyphoonInfo")) : null;
-        return new CurrentWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon, weatherStation, nextWeatherIcon, currentTemperature, currentHumidity, uvIndex, windDirection, windSpeed, gust, sunriseTime, sunTransitTime, sunsetTime, moonriseTime, moonTransitTime, moonsetTime, localForecastInfo, forecastGeneralSituation, forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo, specialTyphoonInfo);
+        Map<DataSource, Long> dataSourceUpdateTimes = new EnumMap<>(DataSource.class);
+        JSONObject dataSourceUpdateTimesObject = jsonObject.optJSONObject("dataSourceUpdateTimes");
+        if (dataSourceUpdateTimesObject != null) {
+            for (Iterator<String> itr = dataSourceUpdateTimesObject.keys(); itr.hasNext();) {
+                String key = itr.next();
+                try {
+                    dataSourceUpdateTimes.put(DataSource.valueOf(key), dataSourceUpdateTimesObject.optLong(key));
+                } catch (IllegalArgumentException ignore) {
+                }
+            }
+        }
+        return new CurrentWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon, weatherStation, nextWeatherIcon, currentTemperature, currentHumidity, uvIndex, windDirection, windSpeed, gust, sunriseTime, sunTransitTime, sunsetTime, moonriseTime, moonTransitTime, moonsetTime, localForecastInfo, forecastGeneralSituation, forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo, specialTyphoonInfo, dataSourceUpdateTimes);
+    }
+
+    public static CurrentWeatherInfo deserialize(DataInput in) throws IOException {
+        LocalDate date = BinaryCodec.readLocalDate(in);
+        float highestTemperature = in.readFloat();
+        float lowestTemperature = in.readFloat();
+        float maxRelativeHumidity = in.readFloat();
+        float minRelativeHumidity = in.readFloat();
+        float chanceOfRain = in.readFloat();
+        RangeSign chanceOfRainRangeSign = BinaryCodec.readEnum(in, RangeSign.class);
+        WeatherStatusIcon weatherIcon = BinaryCodec.readEnum(in, WeatherStatusIcon.class);
+        String weatherStation = BinaryCodec.readString(in);
+        WeatherStatusIcon nextWeatherIcon = BinaryCodec.readEnum(in, WeatherStatusIcon.class);
+        float currentTemperature = in.readFloat();
+        float currentHumidity = in.readFloat();
+        float uvIndex = in.readFloat();
+        String windDirection = BinaryCodec.readString(in);
+        float windSpeed = in.readFloat();
+        float gust = in.readFloat();
+        LocalTime sunriseTime = BinaryCodec.readLocalTime(in);
+        LocalTime sunTransitTime = BinaryCodec.readLocalTime(in);
+        LocalTime sunsetTime = BinaryCodec.readLocalTime(in);
+        LocalTime moonriseTime = BinaryCodec.readLocalTime(in);
+        LocalTime moonTransitTime = BinaryCodec.readLocalTime(in);
+        LocalTime moonsetTime = BinaryCodec.readLocalTime(in);
+        LocalForecastInfo localForecastInfo = in.readBoolean() ? LocalForecastInfo.deserialize(in) : null;
+        String forecastGeneralSituation = BinaryCodec.readString(in);
+        List<ForecastWeatherInfo> forecastInfo = BinaryCodec.readList(in, ForecastWeatherInfo::deserialize);
+        List<HourlyWeatherInfo> hourlyWeatherInfo = BinaryCodec.readList(in, HourlyWeatherInfo::deserialize);
+        HeatStressAtWorkInfo heatStressAtWorkInfo = in.readBoolean() ? HeatStressAtWorkInfo.deserialize(in) : null;
+        SpecialTyphoonInfo specialTyphoonInfo = in.readBoolean() ? SpecialTyphoonInfo.deserialize(in) : null;
+        Map<DataSource, Long> dataSourceUpdateTimes = new EnumMap<>(DataSource.class);
+        int dataSourceCount = in.readInt();
+        for (int i = 0; i < dataSourceCount; i++) {
+            DataSource dataSource = BinaryCodec.readEnum(in, DataSource.class);
+            dataSourceUpdateTimes.put(dataSource, in.readLong());
+        }
+        return new CurrentWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon, weatherStation, nextWeatherIcon, currentTemperature, currentHumidity, uvIndex, windDirection, windSpeed, gust, sunriseTime, sunTransitTime, sunsetTime, moonriseTime, moonTransitTime, moonsetTime, localForecastInfo, forecastGeneralSituation, forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo, specialTyphoonInfo, dataSourceUpdateTimes);
     }
 
     private final String weatherStation;
@@ -99,8 +155,9 @@ public class CurrentWeatherInfo extends WeatherInfo {
     private final List<HourlyWeatherInfo> hourlyWeatherInfo;
     private final HeatStressAtWorkInfo heatStressAtWorkInfo;
     private final SpecialTyphoonInfo specialTyphoonInfo;
+    private final Map<DataSource, Long> dataSourceUpdateTimes;
 
-    public CurrentWeatherInfo(LocalDate date, float highestTemperature, float lowestTemperature, float maxRelativeHumidity, float minRelativeHumidity, float chanceOfRain, RangeSign chanceOfRainRangeSign, WeatherStatusIcon weatherIcon, String weatherStation, WeatherStatusIcon nextWeatherIcon, float currentTemperature, float currentHumidity, float uvIndex, String windDirection, float windSpeed, float gust, LocalTime sunriseTime, LocalTime sunTransitTime, LocalTime sunsetTime, LocalTime moonriseTime, LocalTime moonTransitTime, LocalTime moonsetTime, LocalForecastInfo localForecastInfo, String forecastGeneralSituation, List<ForecastWeatherInfo> forecastInfo, List<HourlyWeatherInfo> hourlyWeatherInfo, HeatStressAtWorkInfo heatStressAtWorkInfo, SpecialTyphoonInfo specialTyphoonInfo) {
+    public CurrentWeatherInfo(LocalDate date, float highestTemperature, float lowestTemperature, float maxRelativeHumidity, float minRelativeHumidity, float chanceOfRain, RangeSign chanceOfRainRangeSign, WeatherStatusIcon weatherIcon, String weatherStation, WeatherStatusIcon nextWeatherIcon, float currentTemperature, float currentHumidity, float uvIndex, String windDirection, float windSpeed, float gust, LocalTime sunriseTime, LocalTime sunTransitTime, LocalTime sunsetTime, LocalTime moonriseTime, LocalTime moonTransitTime, LocalTime moonsetTime, LocalForecastInfo localForecastInfo, String forecastGeneralSituation, List<ForecastWeatherInfo> forecastInfo, List<HourlyWeatherInfo> hourlyWeatherInfo, HeatStressAtWorkInfo heatStressAtWorkInfo, SpecialTyphoonInfo specialTyphoonInfo, Map<DataSource, Long> dataSourceUpdateTimes) {
         super(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon);
         this.weatherStation = weatherStation;
         this.nextWeatherIcon = nextWeatherIcon;
@@ -122,6 +179,7 @@ public class CurrentWeatherInfo extends WeatherInfo {
         this.hourlyWeatherInfo = Collections.unmodifiableList(hourlyWeatherInfo);
         this.heatStressAtWorkInfo = heatStressAtWorkInfo;
         this.specialTyphoonInfo = specialTyphoonInfo;
+        this.dataSourceUpdateTimes = dataSourceUpdateTimes.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new EnumMap<>(dataSourceUpdateTimes));
     }
 
     public String getWeatherStation() {
@@ -204,6 +262,20 @@ public class CurrentWeatherInfo extends WeatherInfo {
         return specialTyphoonInfo;
     }
 
+    public Map<DataSource, Long> getDataSourceUpdateTimes() {
+        return dataSourceUpdateTimes;
+    }
+
+    public long getDataSourceUpdateTime(DataSource dataSource) {
+        Long time = dataSourceUpdateTimes.get(dataSource);
+        return time == null ? -1 : time;
+    }
+
+    public long getDataSourceAge(DataSource dataSource, long now) {
+        long time = getDataSourceUpdateTime(dataSource);
+        return time < 0 ? -1 : Math.max(0, now - time);
+    }
+
     @Override
     public JSONObject serialize() throws JSONException {
         JSONObject jsonObject = super.serialize();
@@ -223,7 +295,9 @@ public class CurrentWeatherInfo extends WeatherInfo {
         jsonObject.put("moonriseTime", moonriseTime == null ? "" : moonriseTime.format(TIME_FORMATTER));
         jsonObject.put("moonTransitTime", moonTransitTime == null ? "" : moonTransitTime.format(TIME_FORMATTER));
         jsonObject.put("moonsetTime", moonsetTime == null ? "" : moonsetTime.format(TIME_FORMATTER));
-        jsonObject.put("localForecastInfo", localForecastInfo.serialize());
+        if (localForecastInfo != null) {
+            jsonObject.put("localForecastInfo", localForecastInfo.serialize());
+        }
         jsonObject.put("forecastGeneralSituation", forecastGeneralSituation);
         JSONArray forecastInfoArray = new JSONArray();
         for (WeatherInfo weatherInfo : forecastInfo) {
@@ -241,21 +315,94 @@ public class CurrentWeatherInfo extends WeatherInfo {
         if (specialTyphoonInfo != null) {
             jsonObject.put("specialTyphoonInfo", specialTyphoonInfo.serialize());
         }
+        JSONObject dataSourceUpdateTimesObject = new JSONObject();
+        for (Map.Entry<DataSource, Long> entry : dataSourceUpdateTimes.entrySet()) {
+            dataSourceUpdateTimesObject.put(entry.getKey().name(), entry.getValue());
+        }
+        jsonObject.put("dataSourceUpdateTimes", dataSourceUpdateTimesObject);
         return jsonObject;
     }
 
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        super.serialize(out);
+        BinaryCodec.writeString(out, weatherStation);
+        BinaryCodec.writeEnum(out, nextWeatherIcon);
+        out.writeFloat(currentTemperature);
+        out.writeFloat(currentHumidity);
+        out.writeFloat(uvIndex);
+        BinaryCodec.writeString(out, windDirection);
+        out.writeFloat(windSpeed);
+        out.writeFloat(gust);
+        BinaryCodec.writeLocalTime(out, sunriseTime);
+        BinaryCodec.writeLocalTime(out, sunTransitTime);
+        BinaryCodec.writeLocalTime(out, sunsetTime);
+        BinaryCodec.writeLocalTime(out, moonriseTime);
+        BinaryCodec.writeLocalTime(out, moonTransitTime);
+        BinaryCodec.writeLocalTime(out, moonsetTime);
+        out.writeBoolean(localForecastInfo != null);
+        if (localForecastInfo != null) {
+            localForecastInfo.serialize(out);
+        }
+        BinaryCodec.writeString(out, forecastGeneralSituation);
+        BinaryCodec.writeList(out, forecastInfo);
+        BinaryCodec.writeList(out, hourlyWeatherInfo);
+        out.writeBoolean(heatStressAtWorkInfo != null);
+        if (heatStressAtWorkInfo != null) {
+            heatStressAtWorkInfo.serialize(out);
+        }
+        out.writeBoolean(specialTyphoonInfo != null);
+        if (specialTyphoonInfo != null) {
+            specialTyphoonInfo.serialize(out);
+        }
+        out.writeInt(dataSourceUpdateTimes.size());
+        for (Map.Entry<DataSource, Long> entry : dataSourceUpdateTimes.entrySet()) {
+            BinaryCodec.writeEnum(out, entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false;
         CurrentWeatherInfo that = (CurrentWeatherInfo) o;
-        return Float.compare(that.currentTemperature, currentTemperature) == 0 && Float.compare(that.currentHumidity, currentHumidity) == 0 && Float.compare(that.uvIndex, uvIndex) == 0 && Float.compare(that.windSpeed, windSpeed) == 0 && Float.compare(that.gust, gust) == 0 && Objects.equals(weatherStation, that.weatherStation) && nextWeatherIcon == that.nextWeatherIcon && Objects.equals(windDirection, that.windDirection) && Objects.equals(sunriseTime, that.sunriseTime) && Objects.equals(sunTransitTime, that.sunTransitTime) && Objects.equals(sunsetTime, that.sunsetTime) && Objects.equals(moonriseTime, that.moonriseTime) && Objects.equals(moonTransitTime, that.moonTransitTime) && Objects.equals(moonsetTime, that.moonsetTime) && Objects.equals(localForecastInfo, that.localForecastInfo) && Objects.equals(forecastGeneralSituation, that.forecastGeneralSituation) && Objects.equals(forecastInfo, that.forecastInfo) && Objects.equals(hourlyWeatherInfo, that.hourlyWeatherInfo) && Objects.equals(heatStressAtWorkInfo, that.heatStressAtWorkInfo) && Objects.equals(specialTyphoonInfo, that.specialTyphoonInfo);
+        return Float.compare(that.currentTemperature, currentTemperature) == 0 && Float.compare(that.currentHumidity, currentHumidity) == 0 && Float.compare(that.uvIndex, uvIndex) == 0 && Float.compare(that.windSpeed, windSpeed) == 0 && Float.compare(that.gust, gust) == 0 && Objects.equals(weatherStation, that.weatherStation) && nextWeatherIcon == that.nextWeatherIcon && Objects.equals(windDirection, that.windDirection) && Objects.equals(sunriseTime, that.sunriseTime) && Objects.equals(sunTransitTime, that.sunTransitTime) && Objects.equals(sunsetTime, that.sunsetTime) && Objects.equals(moonriseTime, that.moonriseTime) && Objects.equals(moonTransitTime, that.moonTransitTime) && Objects.equals(moonsetTime, that.moonsetTime) && Objects.equals(localForecastInfo, that.localForecastInfo) && Objects.equals(forecastGeneralSituation, that.forecastGeneralSituation) && Objects.equals(forecastInfo, that.forecastInfo) && Objects.equals(hourlyWeatherInfo, that.hourlyWeatherInfo) && Objects.equals(heatStressAtWorkInfo, that.heatStressAtWorkInfo) && Objects.equals(specialTyphoonInfo, that.specialTyphoonInfo) && Objects.equals(dataSourceUpdateTimes, that.dataSourceUpdateTimes);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), weatherStation, nextWeatherIcon, currentTemperature, currentHumidity, uvIndex, windDirection, windSpeed, gust, sunriseTime, sunTransitTime, sunsetTime, moonriseTime, moonTransitTime, moonsetTime, localForecastInfo, forecastGeneralSituation, forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo, specialTyphoonInfo);
+        return Objects.hash(super.hashCode(), weatherStation, nextWeatherIcon, currentTemperature, currentHumidity, uvIndex, windDirection, windSpeed, gust, sunriseTime, sunTransitTime, sunsetTime, moonriseTime, moonTransitTime, moonsetTime, localForecastInfo, forecastGeneralSituation, forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo, specialTyphoonInfo, dataSourceUpdateTimes);
+    }
+
+    public enum DataSource {
+
+        WEATHER_STATION(false),
+        TEMPERATURE(false),
+        HUMIDITY(false),
+        CURRENT_WEATHER(false),
+        CHANCE_OF_RAIN(true),
+        TODAY_FORECAST(true),
+        FORECAST(true),
+        HOURLY_FORECAST(true),
+        WIND(false),
+        SUN(true),
+        MOON(true),
+        LOCAL_FORECAST(false),
+        HEAT_STRESS_AT_WORK(false),
+        SPECIAL_TYPHOON(false);
+
+        private final boolean dateScoped;
+
+        DataSource(boolean dateScoped) {
+            this.dateScoped = dateScoped;
+        }
+
+        public boolean isDateScoped() {
+            return dateScoped;
+        }
+
     }
 
     public static class Builder {
@@ -288,6 +435,49 @@ public class CurrentWeatherInfo extends WeatherInfo {
         private List<HourlyWeatherInfo> hourlyWeatherInfo;
         private HeatStressAtWorkInfo heatStressAtWorkInfo;
         private SpecialTyphoonInfo specialTyphoonInfo;
+        private final Map<DataSource, Long> dataSourceUpdateTimes;
+
+        public Builder() {
+            this.dataSourceUpdateTimes = new EnumMap<>(DataSource.class);
+        }
+
+        public Builder(CurrentWeatherInfo base) {
+            this.date = base.getDate();
+            this.highestTemperature = base.getHighestTemperature();
+            this.lowestTemperature = base.getLowestTemperature();
+            this.maxRelativeHumidity = base.getMaxRelativeHumidity();
+            this.minRelativeHumidity = base.getMinRelativeHumidity();
+            this.chanceOfRain = base.getChanceOfRain();
+            this.chanceOfRainRangeSign = base.getChanceOfRainRangeSign();
+            this.weatherIcon = base.getWeatherIcon();
+            this.weatherStation = base.weatherStation;
+            this.nextWeatherIcon = base.nextWeatherIcon;
+            this.currentTemperature = base.currentTemperature;
+            this.currentHumidity = base.currentHumidity;
+            this.uvIndex = base.uvIndex;
+            this.windDirection = base.windDirection;
+            this.windSpeed = base.windSpeed;
+            this.gust = base.gust;
+            this.sunriseTime = base.sunriseTime;
+            this.sunTransitTime = base.sunTransitTime;
+            this.sunsetTime = base.sunsetTime;
+            this.moonriseTime = base.moonriseTime;
+            this.moonTransitTime = base.moonTransitTime;
+            this.moonsetTime = base.moonsetTime;
+            this.localForecastInfo = base.localForecastInfo;
+            this.forecastGeneralSituation = base.forecastGeneralSituation;
+            this.forecastInfo = base.forecastInfo;
+            this.hourlyWeatherInfo = base.hourlyWeatherInfo;
+            this.heatStressAtWorkInfo = base.heatStressAtWorkInfo;
+            this.specialTyphoonInfo = base.specialTyphoonInfo;
+            this.dataSourceUpdateTimes = new EnumMap<>(DataSource.class);
+            this.dataSourceUpdateTimes.putAll(base.dataSourceUpdateTimes);
+        }
+
+        public Builder setDataSourceUpdateTime(DataSource dataSource, long time) {
+            this.dataSourceUpdateTimes.put(dataSource, time);
+            return this;
+        }
 
         public Builder setDate(LocalDate date) {
             this.date = date;
@@ -433,7 +623,7 @@ public class CurrentWeatherInfo extends WeatherInfo {
         }
 
         public CurrentWeatherInfo build() {
-            return new CurrentWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon, weatherStation, nextWeatherIcon, currentTemperature, currentHumidity, uvIndex, windDirection, windSpeed, gust, sunriseTime, sunTransitTime, sunsetTime, moonriseTime, moonTransitTime, moonsetTime, localForecastInfo, forecastGeneralSituation, forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo, specialTyphoonInfo);
+            return new CurrentWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon, weatherStation, nextWeatherIcon, currentTemperature, currentHumidity, uvIndex, windDirection, windSpeed, gust, sunriseTime, sunTransitTime, sunsetTime, moonriseTime, moonTransitTime, moonsetTime, localForecastInfo, forecastGeneralSituation, forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo, specialTyphoonInfo, dataSourceUpdateTimes);
         }
 
     }
@@ -22,15 +22,20 @@ package com.loohp.hkweatherwarnings.weather;
 
 import androidx.compose.runtime.Immutable;
 
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.cache.BinarySerializable;
 import com.loohp.hkweatherwarnings.cache.JSONSerializable;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Objects;
 
 @Immutable
-public class DisplayableInfo implements JSONSerializable {
+public class DisplayableInfo implements JSONSerializable, BinarySerializable {
 
     public static final DisplayableInfo EMPTY = new DisplayableInfo(false, "");
 
@@ -40,6 +45,12 @@ public class DisplayableInfo implements JSONSerializable {
         return new DisplayableInfo(isDisplay, info);
     }
 
+    public static DisplayableInfo deserialize(DataInput in) throws IOException {
+        boolean isDisplay = in.readBoolean();
+        String info = BinaryCodec.readString(in);
+        return new DisplayableInfo(isDisplay, info);
+    }
+
     private final boolean isDisplay;
     private final String info;
 
@@ -64,6 +75,12 @@ public class DisplayableInfo implements JSONSerializable {
         return jsonObject;
     }
 
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        out.writeBoolean(isDisplay);
+        BinaryCodec.writeString(out, info);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
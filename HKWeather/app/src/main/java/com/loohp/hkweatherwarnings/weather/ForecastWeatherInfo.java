@@ -24,11 +24,15 @@ import android.content.Context;
 
 import androidx.compose.runtime.Immutable;
 
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
 import com.loohp.hkweatherwarnings.shared.Registry;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
@@ -52,6 +56,20 @@ public class ForecastWeatherInfo extends WeatherInfo {
         return new ForecastWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon, forecastWind, forecastWeather);
     }
 
+    public static ForecastWeatherInfo deserialize(DataInput in) throws IOException {
+        LocalDate date = BinaryCodec.readLocalDate(in);
+        float highestTemperature = in.readFloat();
+        float lowestTemperature = in.readFloat();
+        float maxRelativeHumidity = in.readFloat();
+        float minRelativeHumidity = in.readFloat();
+        float chanceOfRain = in.readFloat();
+        RangeSign chanceOfRainRangeSign = BinaryCodec.readEnum(in, RangeSign.class);
+        WeatherStatusIcon weatherIcon = BinaryCodec.readEnum(in, WeatherStatusIcon.class);
+        String forecastWind = BinaryCodec.readString(in);
+        String forecastWeather = BinaryCodec.readString(in);
+        return new ForecastWeatherInfo(date, highestTemperature, lowestTemperature, maxRelativeHumidity, minRelativeHumidity, chanceOfRain, chanceOfRainRangeSign, weatherIcon, forecastWind, forecastWeather);
+    }
+
     private final String forecastWind;
     private final String forecastWeather;
 
@@ -105,6 +123,13 @@ public class ForecastWeatherInfo extends WeatherInfo {
         return jsonObject;
     }
 
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        super.serialize(out);
+        BinaryCodec.writeString(out, forecastWind);
+        BinaryCodec.writeString(out, forecastWeather);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -22,17 +22,22 @@ package com.loohp.hkweatherwarnings.weather;
 
 import androidx.compose.runtime.Immutable;
 
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.cache.BinarySerializable;
 import com.loohp.hkweatherwarnings.cache.JSONSerializable;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
 @Immutable
-public class HeatStressAtWorkInfo implements JSONSerializable {
+public class HeatStressAtWorkInfo implements JSONSerializable, BinarySerializable {
 
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy.HH:mm");
 
@@ -45,6 +50,15 @@ public class HeatStressAtWorkInfo implements JSONSerializable {
         return new HeatStressAtWorkInfo(description, warningsLevel, action, effectiveTime, issueTime);
     }
 
+    public static HeatStressAtWorkInfo deserialize(DataInput in) throws IOException {
+        String description = BinaryCodec.readString(in);
+        HeatStressAtWorkWarningLevel warningsLevel = BinaryCodec.readEnum(in, HeatStressAtWorkWarningLevel.class);
+        HeatStressAtWorkWarningAction action = BinaryCodec.readEnum(in, HeatStressAtWorkWarningAction.class);
+        LocalDateTime effectiveTime = BinaryCodec.readLocalDateTime(in);
+        LocalDateTime issueTime = BinaryCodec.readLocalDateTime(in);
+        return new HeatStressAtWorkInfo(description, warningsLevel, action, effectiveTime, issueTime);
+    }
+
     private final String description;
     private final HeatStressAtWorkWarningLevel warningsLevel;
     private final HeatStressAtWorkWarningAction action;
@@ -102,4 +116,13 @@ public class HeatStressAtWorkInfo implements JSONSerializable {
         jsonObject.put("issueTime", DATE_TIME_FORMATTER.format(issueTime));
         return jsonObject;
     }
+
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, description);
+        BinaryCodec.writeEnum(out, warningsLevel);
+        BinaryCodec.writeEnum(out, action);
+        BinaryCodec.writeLocalDateTime(out, effectiveTime);
+        BinaryCodec.writeLocalDateTime(out, issueTime);
+    }
 }
@@ -24,6 +24,8 @@ import android.content.Context;
 
 import androidx.compose.runtime.Immutable;
 
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.cache.BinarySerializable;
 import com.loohp.hkweatherwarnings.cache.JSONSerializable;
 import com.loohp.hkweatherwarnings.shared.Registry;
 import com.loohp.hkweatherwarnings.utils.CompassUtilsKtKt;
@@ -31,6 +33,9 @@ import com.loohp.hkweatherwarnings.utils.CompassUtilsKtKt;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
@@ -39,7 +44,7 @@ import java.util.Locale;
 import java.util.Objects;
 
 @Immutable
-public class HourlyWeatherInfo implements JSONSerializable {
+public class HourlyWeatherInfo implements JSONSerializable, BinarySerializable {
 
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy.HH:mm");
 
@@ -53,6 +58,16 @@ public class HourlyWeatherInfo implements JSONSerializable {
         return new HourlyWeatherInfo(time, temperature, humidity, windDirection, windSpeed, weatherIcon);
     }
 
+    public static HourlyWeatherInfo deserialize(DataInput in) throws IOException {
+        LocalDateTime time = BinaryCodec.readLocalDateTime(in);
+        float temperature = in.readFloat();
+        float humidity = in.readFloat();
+        float windDirection = in.readFloat();
+        float windSpeed = in.readFloat();
+        WeatherStatusIcon weatherIcon = BinaryCodec.readEnum(in, WeatherStatusIcon.class);
+        return new HourlyWeatherInfo(time, temperature, humidity, windDirection, windSpeed, weatherIcon);
+    }
+
     private final LocalDateTime time;
     private final float temperature;
     private final float humidity;
@@ -127,6 +142,16 @@ public class HourlyWeatherInfo implements JSONSerializable {
         return jsonObject;
     }
 
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        BinaryCodec.writeLocalDateTime(out, time);
+        out.writeFloat(temperature);
+        out.writeFloat(humidity);
+        out.writeFloat(windDirection);
+        out.writeFloat(windSpeed);
+        BinaryCodec.writeEnum(out, weatherIcon);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
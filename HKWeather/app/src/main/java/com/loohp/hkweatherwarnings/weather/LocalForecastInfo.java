@@ -24,19 +24,24 @@ import android.content.Context;
 
 import androidx.compose.runtime.Immutable;
 
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.cache.BinarySerializable;
 import com.loohp.hkweatherwarnings.cache.JSONSerializable;
 import com.loohp.hkweatherwarnings.shared.Registry;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 import java.util.Objects;
 
 @Immutable
-public class LocalForecastInfo implements JSONSerializable {
+public class LocalForecastInfo implements JSONSerializable, BinarySerializable {
 
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy.HH:mm");
 
@@ -51,6 +56,17 @@ public class LocalForecastInfo implements JSONSerializable {
         return new LocalForecastInfo(generalSituation, tcInfo, fireDangerWarning, forecastPeriod, forecastDesc, outlook, updateTime);
     }
 
+    public static LocalForecastInfo deserialize(DataInput in) throws IOException {
+        String generalSituation = BinaryCodec.readString(in);
+        String tcInfo = BinaryCodec.readString(in);
+        String fireDangerWarning = BinaryCodec.readString(in);
+        String forecastPeriod = BinaryCodec.readString(in);
+        String forecastDesc = BinaryCodec.readString(in);
+        String outlook = BinaryCodec.readString(in);
+        LocalDateTime updateTime = BinaryCodec.readLocalDateTime(in);
+        return new LocalForecastInfo(generalSituation, tcInfo, fireDangerWarning, forecastPeriod, forecastDesc, outlook, updateTime);
+    }
+
     private final String generalSituation;
     private final String tcInfo;
     private final String fireDangerWarning;
@@ -152,6 +168,17 @@ public class LocalForecastInfo implements JSONSerializable {
         return jsonObject;
     }
 
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        BinaryCodec.writeString(out, generalSituation);
+        BinaryCodec.writeString(out, tcInfo);
+        BinaryCodec.writeString(out, fireDangerWarning);
+        BinaryCodec.writeString(out, forecastPeriod);
+        BinaryCodec.writeString(out, forecastDesc);
+        BinaryCodec.writeString(out, outlook);
+        BinaryCodec.writeLocalDateTime(out, updateTime);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -22,17 +22,22 @@ package com.loohp.hkweatherwarnings.weather;
 
 import androidx.compose.runtime.Immutable;
 
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.cache.BinarySerializable;
 import com.loohp.hkweatherwarnings.cache.JSONSerializable;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 @Immutable
-public class SpecialTyphoonInfo implements JSONSerializable {
+public class SpecialTyphoonInfo implements JSONSerializable, BinarySerializable {
 
     public static SpecialTyphoonInfo deserialize(JSONObject jsonObject) {
         WeatherWarningsType signalType = jsonObject.optString("signalType").isEmpty() ? null : WeatherWarningsType.valueOf(jsonObject.optString("signalType").toUpperCase());
@@ -44,6 +49,16 @@ public class SpecialTyphoonInfo implements JSONSerializable {
         return new SpecialTyphoonInfo(signalType, considerations, info, windsInfo, windsHighlight, tideInfo);
     }
 
+    public static SpecialTyphoonInfo deserialize(DataInput in) throws IOException {
+        WeatherWarningsType signalType = BinaryCodec.readEnum(in, WeatherWarningsType.class);
+        DisplayableInfo considerations = DisplayableInfo.deserialize(in);
+        DisplayableInfo info = DisplayableInfo.deserialize(in);
+        DisplayableInfo windsInfo = DisplayableInfo.deserialize(in);
+        DisplayableInfo windsHighlight = DisplayableInfo.deserialize(in);
+        DisplayableInfo tideInfo = DisplayableInfo.deserialize(in);
+        return new SpecialTyphoonInfo(signalType, considerations, info, windsInfo, windsHighlight, tideInfo);
+    }
+
     private final WeatherWarningsType signalType;
     private final DisplayableInfo considerations;
     private final DisplayableInfo info;
@@ -122,6 +137,16 @@ public class SpecialTyphoonInfo implements JSONSerializable {
         return jsonObject;
     }
 
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        BinaryCodec.writeEnum(out, signalType);
+        considerations.serialize(out);
+        info.serialize(out);
+        windsInfo.serialize(out);
+        windsHighlight.serialize(out);
+        tideInfo.serialize(out);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,110 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.loohp.hkweatherwarnings.weather;
+
+import androidx.compose.runtime.Immutable;
+
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.cache.BinarySerializable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+@Immutable
+public class WeatherWarningsChange implements BinarySerializable {
+
+    public static List<WeatherWarningsChange> diff(Collection<WeatherWarningsType> previous, Collection<WeatherWarningsType> current, long time) {
+        List<WeatherWarningsChange> changes = new ArrayList<>();
+        for (WeatherWarningsType type : current) {
+            if (!previous.contains(type)) {
+                changes.add(new WeatherWarningsChange(type, Action.ISSUE, time));
+            }
+        }
+        for (WeatherWarningsType type : previous) {
+            if (!current.contains(type)) {
+                changes.add(new WeatherWarningsChange(type, Action.CANCEL, time));
+            }
+        }
+        return changes;
+    }
+
+    public static WeatherWarningsChange deserialize(DataInput in) throws IOException {
+        WeatherWarningsType type = BinaryCodec.readEnum(in, WeatherWarningsType.class);
+        Action action = BinaryCodec.readEnum(in, Action.class);
+        long time = in.readLong();
+        return new WeatherWarningsChange(type, action, time);
+    }
+
+    private final WeatherWarningsType type;
+    private final Action action;
+    private final long time;
+
+    public WeatherWarningsChange(WeatherWarningsType type, Action action, long time) {
+        this.type = type;
+        this.action = action;
+        this.time = time;
+    }
+
+    public WeatherWarningsType getType() {
+        return type;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public void serialize(DataOutput out) throws IOException {
+        BinaryCodec.writeEnum(out, type);
+        BinaryCodec.writeEnum(out, action);
+        out.writeLong(time);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WeatherWarningsChange that = (WeatherWarningsChange) o;
+        return time == that.time && type == that.type && action == that.action;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, action, time);
+    }
+
+    public enum Action {
+
+        ISSUE, CANCEL
+
+    }
+
+}
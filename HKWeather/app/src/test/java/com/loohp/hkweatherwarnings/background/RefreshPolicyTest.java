@@ -0,0 +1,283 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.background;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.loohp.hkweatherwarnings.utils.ConnectionUtils.BackgroundRestrictionType;
+import com.loohp.hkweatherwarnings.weather.WeatherWarningsType;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class RefreshPolicyTest {
+
+    private static final long MINUTE = 60000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long WEEK = 7 * DAY;
+    private static final long BASE_INTERVAL = 15 * MINUTE;
+
+    private static Timeline week;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        week = Timeline.read("src/test/resources/warning_week.csv");
+    }
+
+    private static RefreshPolicy policy(Set<WeatherWarningsType> observed, long time, BackgroundRestrictionType restriction) {
+        boolean overnight = time % DAY < RefreshPolicy.Companion.getOVERNIGHT_END().toSecondOfDay() * 1000L;
+        return new RefreshPolicy(BASE_INTERVAL, RefreshSeverity.Companion.of(observed, null), overnight, restriction);
+    }
+
+    private static Simulation simulate(Timeline timeline, long duration, boolean adaptive, BackgroundRestrictionType restriction) {
+        Simulation simulation = new Simulation(timeline, duration);
+        Map<RefreshSource, Long> lastUpdate = new EnumMap<>(RefreshSource.class);
+        for (RefreshSource source : RefreshSource.getEntries()) {
+            lastUpdate.put(source, -duration);
+            simulation.fetches.put(source, new ArrayList<>());
+        }
+        Set<WeatherWarningsType> observed = Collections.emptySet();
+        long previous = -1;
+        for (long time = 0; time < duration; ) {
+            simulation.wakeups++;
+            if (timeline.severityAt(time) == RefreshSeverity.CALM) {
+                simulation.calmWakeups++;
+            }
+            if (previous >= 0) {
+                simulation.minGap = Math.min(simulation.minGap, time - previous);
+            }
+            RefreshPolicy policy = policy(observed, time, restriction);
+            List<RefreshSource> due = adaptive ? policy.getDueSources(time, s -> policy.getDueTime(s, lastUpdate.get(s), null)) : RefreshSource.getEntries();
+            for (RefreshSource source : due) {
+                lastUpdate.put(source, time);
+                simulation.fetches.get(source).add(time);
+                if (source == RefreshSource.WARNINGS) {
+                    observed = timeline.at(time);
+                }
+            }
+            previous = time;
+            if (adaptive) {
+                RefreshPolicy next = policy(observed, time, restriction);
+                time += next.getNextDelay(time, s -> next.getDueTime(s, lastUpdate.get(s), null));
+            } else {
+                time += BASE_INTERVAL;
+            }
+        }
+        return simulation;
+    }
+
+    private static Simulation simulate(Timeline timeline, long duration, BackgroundRestrictionType restriction) {
+        return simulate(timeline, duration, true, restriction);
+    }
+
+    private static Simulation simulateFixed(Timeline timeline, long duration) {
+        return simulate(timeline, duration, false, BackgroundRestrictionType.NONE);
+    }
+
+    @Test
+    public void calmDayNeverWakesMoreThanFixedSchedule() {
+        Timeline calm = Timeline.constant();
+        Simulation adaptive = simulate(calm, DAY, BackgroundRestrictionType.NONE);
+        Simulation fixed = simulateFixed(calm, DAY);
+        assertEquals(96, fixed.wakeups);
+        assertTrue(adaptive + " vs " + fixed, adaptive.wakeups <= fixed.wakeups);
+        assertEquals(96, adaptive.fetchCount(RefreshSource.WARNINGS));
+        assertEquals(82, adaptive.fetchCount(RefreshSource.WEATHER));
+        assertEquals(41, adaptive.fetchCount(RefreshSource.TIPS));
+    }
+
+    @Test
+    public void restrictedDayDefersByRestrictedFactor() {
+        Timeline calm = Timeline.constant();
+        Simulation fixed = simulateFixed(calm, DAY);
+        for (BackgroundRestrictionType restriction : BackgroundRestrictionType.values()) {
+            if (restriction == BackgroundRestrictionType.NONE) {
+                continue;
+            }
+            Simulation restricted = simulate(calm, DAY, restriction);
+            assertTrue(restricted + " vs " + fixed, restricted.wakeups * RefreshPolicy.RESTRICTED_FACTOR <= fixed.wakeups);
+            assertEquals(BASE_INTERVAL * RefreshPolicy.RESTRICTED_FACTOR, restricted.minGap);
+        }
+    }
+
+    @Test
+    public void severeDayIsBoundedByMinInterval() {
+        Timeline severe = Timeline.constant(WeatherWarningsType.TC8NE);
+        Simulation simulation = simulate(severe, DAY, BackgroundRestrictionType.NONE);
+        assertEquals(288, simulation.wakeups);
+        assertEquals(RefreshPolicy.MIN_INTERVAL, simulation.minGap);
+        assertEquals(288, simulation.fetchCount(RefreshSource.WARNINGS));
+    }
+
+    @Test
+    public void recordedWeekAgainstFixedSchedule() {
+        Simulation adaptive = simulate(week, WEEK, BackgroundRestrictionType.NONE);
+        Simulation fixed = simulateFixed(week, WEEK);
+        String report = adaptive + " vs " + fixed;
+        assertEquals(RefreshPolicy.MIN_INTERVAL, adaptive.minGap);
+        assertTrue(report, adaptive.calmWakeups <= fixed.calmWakeups + week.severityChanges(true));
+        assertTrue(report, adaptive.maxWarningLatency() <= fixed.maxWarningLatency());
+        assertTrue(report, adaptive.meanWarningLatency(true) < fixed.meanWarningLatency(true));
+        assertTrue(report, adaptive.meanAge(RefreshSource.WARNINGS) < fixed.meanAge(RefreshSource.WARNINGS));
+
+        Simulation restricted = simulate(week, WEEK, BackgroundRestrictionType.POWER_SAVE_MODE);
+        assertTrue(restricted + " vs " + fixed, restricted.wakeups <= fixed.wakeups / RefreshPolicy.RESTRICTED_FACTOR + week.severityChanges(false));
+    }
+
+    private static class Timeline {
+
+        private final List<Long> times;
+        private final List<Set<WeatherWarningsType>> warnings;
+
+        private Timeline(List<Long> times, List<Set<WeatherWarningsType>> warnings) {
+            this.times = times;
+            this.warnings = warnings;
+        }
+
+        private static Timeline constant(WeatherWarningsType... types) {
+            Set<WeatherWarningsType> set = EnumSet.noneOf(WeatherWarningsType.class);
+            Collections.addAll(set, types);
+            return new Timeline(Collections.singletonList(0L), Collections.singletonList(set));
+        }
+
+        private static Timeline read(String path) throws IOException {
+            List<Long> times = new ArrayList<>();
+            List<Set<WeatherWarningsType>> warnings = new ArrayList<>();
+            for (String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",", -1);
+                times.add(Integer.parseInt(parts[0]) * DAY + LocalTime.parse(parts[1]).toSecondOfDay() * 1000L);
+                Set<WeatherWarningsType> set = EnumSet.noneOf(WeatherWarningsType.class);
+                for (String type : parts[2].trim().split(" ")) {
+                    if (!type.isEmpty()) {
+                        set.add(WeatherWarningsType.valueOf(type));
+                    }
+                }
+                warnings.add(set);
+            }
+            return new Timeline(times, warnings);
+        }
+
+        private Set<WeatherWarningsType> at(long time) {
+            int index = Collections.binarySearch(times, time);
+            return warnings.get(index >= 0 ? index : -index - 2);
+        }
+
+        private int severityChanges(boolean toCalmOnly) {
+            int count = 0;
+            for (int i = 1; i < times.size(); i++) {
+                RefreshSeverity severity = severityAt(times.get(i));
+                if (severity != severityAt(times.get(i) - 1) && (!toCalmOnly || severity == RefreshSeverity.CALM)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private RefreshSeverity severityAt(long time) {
+            return RefreshSeverity.Companion.of(at(time), null);
+        }
+
+    }
+
+    private static class Simulation {
+
+        private final Timeline timeline;
+        private final long duration;
+        private final Map<RefreshSource, List<Long>> fetches = new EnumMap<>(RefreshSource.class);
+        private int wakeups;
+        private int calmWakeups;
+        private long minGap = Long.MAX_VALUE;
+
+        private Simulation(Timeline timeline, long duration) {
+            this.timeline = timeline;
+            this.duration = duration;
+        }
+
+        private int fetchCount(RefreshSource source) {
+            return fetches.get(source).size();
+        }
+
+        private long meanAge(RefreshSource source) {
+            List<Long> times = fetches.get(source);
+            long total = 0;
+            int index = 0;
+            for (long time = 0; time < duration; time += MINUTE) {
+                while (index + 1 < times.size() && times.get(index + 1) <= time) {
+                    index++;
+                }
+                total += time - times.get(index);
+            }
+            return total / (duration / MINUTE);
+        }
+
+        private List<Long> warningLatencies(boolean severeOnly) {
+            List<Long> latencies = new ArrayList<>();
+            List<Long> times = fetches.get(RefreshSource.WARNINGS);
+            for (int i = 1; i < timeline.times.size(); i++) {
+                long change = timeline.times.get(i);
+                if (change >= duration || (severeOnly && timeline.severityAt(change) == RefreshSeverity.CALM && timeline.severityAt(change - 1) == RefreshSeverity.CALM)) {
+                    continue;
+                }
+                int index = Collections.binarySearch(times, change);
+                int next = index >= 0 ? index : -index - 1;
+                latencies.add(next < times.size() ? times.get(next) - change : duration - change);
+            }
+            return latencies;
+        }
+
+        private long maxWarningLatency() {
+            return warningLatencies(false).stream().mapToLong(l -> l).max().orElse(0);
+        }
+
+        private long meanWarningLatency(boolean severeOnly) {
+            return (long) warningLatencies(severeOnly).stream().mapToLong(l -> l).average().orElse(0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ENGLISH, "wakeups=%d calm=%d fetches=%d/%d/%d age=%d/%d/%d min latency mean=%d max=%d min",
+                    wakeups, calmWakeups, fetchCount(RefreshSource.WARNINGS), fetchCount(RefreshSource.WEATHER), fetchCount(RefreshSource.TIPS),
+                    meanAge(RefreshSource.WARNINGS) / MINUTE, meanAge(RefreshSource.WEATHER) / MINUTE, meanAge(RefreshSource.TIPS) / MINUTE,
+                    meanWarningLatency(false) / MINUTE, maxWarningLatency() / MINUTE);
+        }
+
+    }
+
+}
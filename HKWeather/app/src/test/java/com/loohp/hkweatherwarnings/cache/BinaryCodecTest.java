@@ -0,0 +1,159 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import com.loohp.hkweatherwarnings.weather.WeatherWarningsType;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+public class BinaryCodecTest {
+
+    private static byte[] write(Writer writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream read(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void headerRoundTrip() throws IOException {
+        BinaryCodec.readHeader(read(write(BinaryCodec::writeHeader)));
+        BinaryCodec.readHeader(read(write(out -> BinaryCodec.writeHeader(out, 2))), 2);
+    }
+
+    @Test
+    public void headerRejectsLegacyJson() {
+        byte[] json = "{\"value\":null,\"updateTime\":0}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> BinaryCodec.readHeader(read(json)));
+    }
+
+    @Test
+    public void headerRejectsForeignMagic() throws IOException {
+        byte[] bytes = write(out -> {
+            out.writeInt(0xCAFEBABE);
+            out.writeInt(BinaryCodec.FORMAT_VERSION);
+        });
+        assertThrows(IOException.class, () -> BinaryCodec.readHeader(read(bytes)));
+    }
+
+    @Test
+    public void headerRejectsOtherVersion() throws IOException {
+        byte[] older = write(BinaryCodec::writeHeader);
+        assertThrows(IOException.class, () -> BinaryCodec.readHeader(read(older), BinaryCodec.FORMAT_VERSION + 1));
+        byte[] newer = write(out -> BinaryCodec.writeHeader(out, BinaryCodec.FORMAT_VERSION + 1));
+        assertThrows(IOException.class, () -> BinaryCodec.readHeader(read(newer)));
+    }
+
+    @Test
+    public void headerRejectsTruncatedData() {
+        assertThrows(IOException.class, () -> BinaryCodec.readHeader(read(new byte[] {0x48, 0x4B})));
+    }
+
+    @Test
+    public void stringRejectsLengthBeyondData() throws IOException {
+        byte[] bytes = write(out -> {
+            out.writeInt(Integer.MAX_VALUE);
+            out.write(new byte[16]);
+        });
+        assertThrows(IOException.class, () -> BinaryCodec.readString(read(bytes)));
+        assertThrows(IOException.class, () -> BinaryCodec.readString(read(write(out -> out.writeInt(-2)))));
+    }
+
+    @Test
+    public void listRejectsSizeBeyondData() throws IOException {
+        byte[] bytes = write(out -> {
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeBoolean(true);
+        });
+        assertThrows(IOException.class, () -> BinaryCodec.readList(read(bytes), DataInput::readBoolean));
+        assertThrows(IOException.class, () -> BinaryCodec.readList(read(write(out -> out.writeInt(-1))), DataInput::readBoolean));
+    }
+
+    @Test
+    public void nullValuesRoundTrip() throws IOException {
+        DataInputStream in = read(write(out -> {
+            BinaryCodec.writeString(out, null);
+            BinaryCodec.writeEnum(out, null);
+            BinaryCodec.writeLocalDate(out, null);
+            BinaryCodec.writeLocalTime(out, null);
+            BinaryCodec.writeLocalDateTime(out, null);
+        }));
+        assertNull(BinaryCodec.readString(in));
+        assertNull(BinaryCodec.readEnum(in, WeatherWarningsType.class));
+        assertNull(BinaryCodec.readLocalDate(in));
+        assertNull(BinaryCodec.readLocalTime(in));
+        assertNull(BinaryCodec.readLocalDateTime(in));
+    }
+
+    @Test
+    public void valuesRoundTrip() throws IOException {
+        DataInputStream in = read(write(out -> {
+            BinaryCodec.writeString(out, "天文台 Observatory");
+            BinaryCodec.writeString(out, "");
+            BinaryCodec.writeEnum(out, WeatherWarningsType.TC8NE);
+            BinaryCodec.writeLocalDate(out, LocalDate.of(2025, 7, 20));
+            BinaryCodec.writeLocalTime(out, LocalTime.MIDNIGHT);
+            BinaryCodec.writeLocalDateTime(out, LocalDateTime.of(2025, 7, 20, 23, 59, 59));
+        }));
+        assertEquals("天文台 Observatory", BinaryCodec.readString(in));
+        assertEquals("", BinaryCodec.readString(in));
+        assertEquals(WeatherWarningsType.TC8NE, BinaryCodec.readEnum(in, WeatherWarningsType.class));
+        assertEquals(LocalDate.of(2025, 7, 20), BinaryCodec.readLocalDate(in));
+        assertEquals(LocalTime.MIDNIGHT, BinaryCodec.readLocalTime(in));
+        assertEquals(LocalDateTime.of(2025, 7, 20, 23, 59, 59), BinaryCodec.readLocalDateTime(in));
+    }
+
+    @Test
+    public void rejectsUnknownEnumAndNegativeListSize() throws IOException {
+        byte[] unknown = write(out -> out.writeUTF("TC11"));
+        assertThrows(IOException.class, () -> BinaryCodec.readEnum(read(unknown), WeatherWarningsType.class));
+        byte[] negative = write(out -> out.writeInt(-2));
+        assertThrows(IOException.class, () -> BinaryCodec.readList(read(negative), BinaryCodec::readString));
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+
+        void write(DataOutputStream out) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.shared;
+
+import static org.junit.Assert.assertEquals;
+
+import com.loohp.hkweatherwarnings.utils.BenchmarkUtils;
+import com.loohp.hkweatherwarnings.weather.LunarDate;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LunarCalendarBenchmark {
+
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+    private static final LocalDate START = LocalDate.of(2000, 1, 1);
+    private static final LocalDate END = LocalDate.of(2030, 12, 31);
+    private static final int DAYS = (int) ChronoUnit.DAYS.between(START, END) + 1;
+
+    private static List<LunarDate> sweep() {
+        List<LunarDate> dates = new ArrayList<>(DAYS);
+        for (LocalDate date = START; !date.isAfter(END); date = date.plusDays(1)) {
+            dates.add(LunarCalendar.toLunarDate(date));
+        }
+        return dates;
+    }
+
+    private static int sweepReference() {
+        int count = 0;
+        for (LocalDate date = START; !date.isAfter(END); date = date.plusDays(1)) {
+            count += Solar.fromYmd(date.getYear(), date.getMonthValue(), date.getDayOfMonth()).getLunar().getDay() > 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Test
+    public void benchmarkSweep() throws Exception {
+        assertEquals(sweep(), sweep());
+        assertEquals(DAYS, sweepReference());
+
+        BenchmarkUtils.record(LunarCalendarBenchmark.class, "sweep " + DAYS + " days", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> sweep()));
+        BenchmarkUtils.record(LunarCalendarBenchmark.class, "reference sweep " + DAYS + " days", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> sweepReference()));
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.loohp.hkweatherwarnings.weather.LunarDate;
+import com.nlf.calendar.Lunar;
+import com.nlf.calendar.Solar;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LunarCalendarTest {
+
+    private static final String ZODIACS = "鼠牛虎兔龍蛇馬羊猴雞狗豬";
+    private static final String REFERENCE_ZODIACS = "鼠牛虎兔龙蛇马羊猴鸡狗猪";
+    private static final String[] MONTH_NAMES = {"正月", "二月", "三月", "四月", "五月", "六月", "七月", "八月", "九月", "十月", "十一月", "十二月"};
+    private static final String[] DAY_NAMES = {
+            "初一", "初二", "初三", "初四", "初五", "初六", "初七", "初八", "初九", "初十",
+            "十一", "十二", "十三", "十四", "十五", "十六", "十七", "十八", "十九", "二十",
+            "廿一", "廿二", "廿三", "廿四", "廿五", "廿六", "廿七", "廿八", "廿九", "三十"
+    };
+    private static final String[] SOLAR_TERMS = {
+            "春分", "清明", "穀雨", "立夏", "小滿", "芒種", "夏至", "小暑", "大暑", "立秋", "處暑", "白露",
+            "秋分", "寒露", "霜降", "立冬", "小雪", "大雪", "冬至", "小寒", "大寒", "立春", "雨水", "驚蟄"
+    };
+    private static final String[] REFERENCE_SOLAR_TERMS = {
+            "春分", "清明", "谷雨", "立夏", "小满", "芒种", "夏至", "小暑", "大暑", "立秋", "处暑", "白露",
+            "秋分", "寒露", "霜降", "立冬", "小雪", "大雪", "冬至", "小寒", "大寒", "立春", "雨水", "惊蛰"
+    };
+    private static final long SOLAR_TERM_TOLERANCE_SECONDS = 60;
+
+    @Test
+    public void lunarDatesMatchReferenceFrom1900To2100() {
+        List<String> mismatches = new ArrayList<>();
+        for (LocalDate date = LunarCalendar.MIN_DATE; !date.isAfter(LunarCalendar.MAX_DATE); date = date.plusDays(1)) {
+            LunarDate lunarDate = LunarCalendar.toLunarDate(date);
+            Lunar reference = Solar.fromYmd(date.getYear(), date.getMonthValue(), date.getDayOfMonth()).getLunar();
+            int month = reference.getMonth();
+            String expectedDate = (month < 0 ? "閏" : "") + MONTH_NAMES[Math.abs(month) - 1] + DAY_NAMES[reference.getDay() - 1];
+            String expectedZodiac = String.valueOf(ZODIACS.charAt(REFERENCE_ZODIACS.indexOf(reference.getYearShengXiao())));
+            if (!expectedDate.equals(lunarDate.getDate()) || !reference.getYearInGanZhi().equals(lunarDate.getYear()) || !expectedZodiac.equals(lunarDate.getZodiac())) {
+                mismatches.add(date + ": expected " + reference.getYearInGanZhi() + expectedZodiac + expectedDate + " but was " + lunarDate.getYear() + lunarDate.getZodiac() + lunarDate.getDate());
+            }
+        }
+        assertTrue(String.join("\n", mismatches), mismatches.isEmpty());
+    }
+
+    @Test
+    public void solarTermsMatchReferenceFrom1900To2100() {
+        List<String> mismatches = new ArrayList<>();
+        for (LocalDate date = LunarCalendar.MIN_DATE; !date.isAfter(LunarCalendar.MAX_DATE); date = date.plusDays(1)) {
+            String solarTerm = LunarCalendar.getSolarTerm(date);
+            Lunar reference = Solar.fromYmd(date.getYear(), date.getMonthValue(), date.getDayOfMonth()).getLunar();
+            String referenceTerm = reference.getJieQi();
+            String expected = referenceTerm.isEmpty() ? null : SOLAR_TERMS[indexOf(REFERENCE_SOLAR_TERMS, referenceTerm)];
+            if (expected == null ? solarTerm != null : !expected.equals(solarTerm)) {
+                String term = expected == null ? REFERENCE_SOLAR_TERMS[indexOf(SOLAR_TERMS, solarTerm)] : referenceTerm;
+                if (!isNearMidnight(reference, term)) {
+                    mismatches.add(date + ": expected " + expected + " but was " + solarTerm);
+                }
+            }
+        }
+        assertTrue(String.join("\n", mismatches), mismatches.isEmpty());
+    }
+
+    @Test
+    public void solarTermIsReturnedForAnyDate() {
+        assertEquals("冬至", LunarCalendar.getSolarTerm(LocalDate.of(1900, 12, 22)));
+        assertEquals("清明", LunarCalendar.getSolarTerm(LocalDate.of(2024, 4, 4)));
+        assertEquals("立春", LunarCalendar.getSolarTerm(LocalDate.of(2100, 2, 4)));
+        assertEquals(null, LunarCalendar.getSolarTerm(LocalDate.of(2024, 4, 5)));
+    }
+
+    private static boolean isNearMidnight(Lunar reference, String term) {
+        for (Solar solar : reference.getJieQiTable().values()) {
+            Lunar lunar = solar.getLunar();
+            if (!term.equals(lunar.getJieQi())) {
+                continue;
+            }
+            LocalDateTime time = LocalDateTime.of(solar.getYear(), solar.getMonth(), solar.getDay(), solar.getHour(), solar.getMinute(), solar.getSecond());
+            LocalDateTime midnight = time.truncatedTo(ChronoUnit.DAYS);
+            long seconds = Math.min(ChronoUnit.SECONDS.between(midnight, time), ChronoUnit.SECONDS.between(time, midnight.plusDays(1)));
+            if (seconds <= SOLAR_TERM_TOLERANCE_SECONDS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(String[] array, String value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].equals(value)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(value);
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.loohp.hkweatherwarnings.utils.FetchGroup;
+import com.loohp.hkweatherwarnings.utils.FetchPriority;
+import com.loohp.hkweatherwarnings.utils.HTTPRequestUtils;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class TipsRefreshOrderingTest {
+
+    private static final String TIP = "Very hot weather";
+
+    private MockWebServer server;
+    private List<String> events;
+    private CountDownLatch warningsRelease;
+
+    @Before
+    public void setUp() throws IOException {
+        events = new CopyOnWriteArrayList<>();
+        warningsRelease = new CountDownLatch(1);
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                String dataType = request.getRequestUrl().queryParameter("dataType");
+                events.add(dataType);
+                if ("warnsum".equals(dataType)) {
+                    warningsRelease.await();
+                    return new MockResponse().setBody("{}");
+                }
+                return new MockResponse().setBody("{\"swt\":[{\"desc\":\"" + TIP + "\",\"updateTime\":\"2025-07-20T12:00:00+08:00\"}]}");
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        warningsRelease.countDown();
+        server.shutdown();
+    }
+
+    private String url(String dataType) {
+        return server.url("/weatherAPI/opendata/weather.php?dataType=" + dataType + "&lang=en").toString();
+    }
+
+    private CompletableFuture<List<String>> fetchTips(FetchGroup group, CompletableFuture<?> after) {
+        return Registry.fetchWeatherTips(group, after, url("swt"), (desc, time) -> desc);
+    }
+
+    @Test
+    public void tipsWithoutPendingUpdateFetchImmediately() throws Exception {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        assertEquals(Collections.singletonList(TIP), fetchTips(group, CompletableFuture.completedFuture(null)).get(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("swt"), events);
+    }
+
+    @Test
+    public void tipsWaitForPendingUpdate() throws Exception {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        CompletableFuture<Void> after = new CompletableFuture<>();
+        CompletableFuture<List<String>> tips = fetchTips(group, after);
+        assertNull(server.takeRequest(200, TimeUnit.MILLISECONDS));
+        assertFalse(tips.isDone());
+
+        events.add("after");
+        after.complete(null);
+        assertEquals(Collections.singletonList(TIP), tips.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("after", "swt"), events);
+    }
+
+    @Test
+    public void tipsFollowPendingWarnings() throws Exception {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        CompletableFuture<JSONObject> warnings = group.submit(() -> HTTPRequestUtils.getJSONResponse(url("warnsum")));
+        CompletableFuture<List<String>> tips = fetchTips(group, warnings);
+        assertEquals("warnsum", server.takeRequest(5, TimeUnit.SECONDS).getRequestUrl().queryParameter("dataType"));
+        assertNull(server.takeRequest(200, TimeUnit.MILLISECONDS));
+
+        warningsRelease.countDown();
+        assertEquals(Collections.singletonList(TIP), tips.get(5, TimeUnit.SECONDS));
+        assertTrue(warnings.isDone());
+        assertEquals(Arrays.asList("warnsum", "swt"), events);
+    }
+
+    @Test
+    public void tipsStillFetchedWhenPendingUpdateFails() throws Exception {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        CompletableFuture<Void> after = new CompletableFuture<>();
+        CompletableFuture<List<String>> tips = fetchTips(group, after);
+        after.completeExceptionally(new IllegalStateException());
+        assertEquals(Collections.singletonList(TIP), tips.get(5, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.shredzone.commons.suncalc.MoonTimes;
+import org.shredzone.commons.suncalc.SunTimes;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+public class AstronomyUtilsTest {
+
+    private static final ZoneId HK_ZONE = ZoneId.of("Asia/Hong_Kong");
+    private static final int[] YEARS = {2000, 2023, 2024, 2025, 2026, 2050};
+    private static final double[][] LOCATIONS = {
+            {22.302, 114.174},
+            {22.411, 114.124},
+            {22.201, 114.027}
+    };
+    private static final int TOLERANCE_MINUTES = 1;
+
+    @Test
+    public void sunMatchesReferenceEphemeris() {
+        for (double[] location : LOCATIONS) {
+            for (int year : YEARS) {
+                for (LocalDate date = LocalDate.of(year, 1, 1); date.getYear() == year; date = date.plusDays(1)) {
+                    AstronomyUtils.RiseTransitSet sun = AstronomyUtils.getSunRiseTransitSet(date, location[0], location[1], HK_ZONE);
+                    SunTimes reference = SunTimes.compute().on(date).timezone(HK_ZONE).at(location[0], location[1]).oneDay().execute();
+                    assertClose("sunrise", date, reference.getRise(), sun.getRiseTime());
+                    assertClose("sun transit", date, reference.getNoon(), sun.getTransitTime());
+                    assertClose("sunset", date, reference.getSet(), sun.getSetTime());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void moonMatchesReferenceEphemeris() {
+        for (double[] location : LOCATIONS) {
+            for (int year : YEARS) {
+                for (LocalDate date = LocalDate.of(year, 1, 1); date.getYear() == year; date = date.plusDays(1)) {
+                    AstronomyUtils.RiseTransitSet moon = AstronomyUtils.getMoonRiseTransitSet(date, location[0], location[1], HK_ZONE);
+                    MoonTimes reference = MoonTimes.compute().on(date).timezone(HK_ZONE).at(location[0], location[1]).oneDay().execute();
+                    assertClose("moonrise", date, reference.getRise(), moon.getRiseTime());
+                    assertClose("moonset", date, reference.getSet(), moon.getSetTime());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void winterSolsticeSunrise2024() {
+        AstronomyUtils.RiseTransitSet sun = AstronomyUtils.getSunRiseTransitSet(LocalDate.of(2024, 12, 21), 22.302, 114.174, HK_ZONE);
+        assertEquals(LocalTime.of(6, 58), sun.getRiseTime());
+        assertEquals(LocalTime.of(17, 45), sun.getSetTime());
+    }
+
+    private static void assertClose(String event, LocalDate date, ZonedDateTime expected, LocalTime actual) {
+        if (expected == null || !expected.toLocalDate().equals(date)) {
+            assertTrue(event + " on " + date + ": expected none but was " + actual, actual == null || isNearMidnight(actual.toSecondOfDay()));
+            return;
+        }
+        int expectedSecond = expected.toLocalTime().toSecondOfDay();
+        if (actual == null) {
+            assertTrue(event + " on " + date + ": expected " + expected.toLocalTime() + " but was none", isNearMidnight(expectedSecond));
+            return;
+        }
+        int difference = Math.abs((expectedSecond + 30) / 60 - actual.toSecondOfDay() / 60);
+        difference = Math.min(difference, 1440 - difference);
+        assertTrue(event + " on " + date + ": expected " + expected.toLocalTime() + " but was " + actual, difference <= TOLERANCE_MINUTES);
+    }
+
+    private static boolean isNearMidnight(int secondOfDay) {
+        return Math.min(secondOfDay, 86400 - secondOfDay) <= TOLERANCE_MINUTES * 60;
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+public class BenchmarkUtils {
+
+    private static volatile Object sink;
+
+    public static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static Measurement measure(int warmup, int iterations, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = task.run(i);
+        }
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = task.run(i);
+        }
+        long end = System.nanoTime();
+        return new Measurement((end - start) / iterations, (allocatedBytes() - bytes) / iterations);
+    }
+
+    public static void record(Class<?> benchmark, String name, Measurement measurement) throws IOException {
+        File directory = new File(System.getProperty("benchmark.output", "build/benchmarks"));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(new File(directory, benchmark.getSimpleName() + ".csv"), true))) {
+            writer.println(String.format(Locale.ENGLISH, "%s,%d,%d", name, measurement.getNanos(), measurement.getBytes()));
+        }
+    }
+
+    public static class Measurement {
+
+        private final long nanos;
+        private final long bytes;
+
+        public Measurement(long nanos, long bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+    }
+
+    @FunctionalInterface
+    public interface Task {
+
+        Object run(int iteration) throws Exception;
+
+    }
+
+}
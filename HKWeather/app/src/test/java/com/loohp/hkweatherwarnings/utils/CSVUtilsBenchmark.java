@@ -0,0 +1,133 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class CSVUtilsBenchmark {
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    private static List<String> temperatureStations;
+    private static List<String> windStations;
+    private static String temperatureCsv;
+    private static String windCsv;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        temperatureStations = readStationNames("src/main/stations/latest_1min_temperature.json");
+        windStations = readStationNames("src/main/stations/latest_10min_wind.json");
+
+        StringBuilder temperature = new StringBuilder("Date time,Automatic Weather Station,Air Temperature(degree Celsius)\n");
+        for (int i = 0; i < temperatureStations.size(); i++) {
+            temperature.append("202410181200,").append(temperatureStations.get(i)).append(',').append(String.format(Locale.ENGLISH, "%.1f", 20 + i % 100 / 10.0)).append('\n');
+        }
+        temperatureCsv = temperature.toString();
+
+        StringBuilder wind = new StringBuilder("Date time,Automatic Weather Station,10-Minute Mean Wind Direction(Compass points),10-Minute Mean Speed(km/hour),10-Minute Maximum Gust(km/hour)\n");
+        String[] directions = {"North", "Northeast", "East", "Southeast", "South", "Southwest", "West", "Northwest", "Calm", "N/A"};
+        for (int i = 0; i < windStations.size(); i++) {
+            wind.append("202410181200,").append(windStations.get(i)).append(',').append(directions[i % directions.length]).append(',').append(i % 30).append(',').append(i % 50).append('\n');
+        }
+        windCsv = wind.toString();
+    }
+
+    private static List<String> readStationNames(String path) throws IOException {
+        JSONArray features = new JSONObject(new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8)).getJSONArray("features");
+        List<String> names = new ArrayList<>(features.length());
+        for (int i = 0; i < features.length(); i++) {
+            names.add(features.getJSONObject(i).getJSONObject("properties").getString("AutomaticWeatherStation_en"));
+        }
+        return names;
+    }
+
+    private static List<JSONObject> loadFully(String csv, UnaryOperator<String> filter) {
+        String[] lines = csv.split("\\R");
+        String[] keys = lines[0].split(",");
+        List<JSONObject> list = new ArrayList<>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            String[] values = lines[i].split(",");
+            JSONObject obj = new JSONObject();
+            for (int k = 0; k < keys.length && k < values.length; k++) {
+                obj.put(filter.apply(keys[k]), filter.apply(values[k]));
+            }
+            list.add(obj);
+        }
+        return list;
+    }
+
+    private static String findFully(String csv, String stationField, String station, String valueField) {
+        return loadFully(csv, UnaryOperator.identity()).stream().filter(e -> e.optString(stationField).equals(station)).findFirst().map(e -> e.optString(valueField)).orElse(null);
+    }
+
+    private static String findStreaming(String csv, String stationField, String station, String valueField) throws IOException {
+        CSVUtils.Row row = CSVUtils.findFirst(new BufferedReader(new StringReader(csv)), UnaryOperator.identity(), header -> {
+            int stationColumn = header.indexOf(stationField);
+            return Collections.<Predicate<CSVUtils.Row>>singletonList(e -> e.get(stationColumn).equals(station));
+        });
+        return row == null ? null : row.get(valueField);
+    }
+
+    @Test
+    public void benchmarkTemperatureLookup() throws Exception {
+        String station = temperatureStations.get(temperatureStations.size() / 2);
+        String stationField = "Automatic Weather Station";
+        String valueField = "Air Temperature(degree Celsius)";
+        assertNotNull(findStreaming(temperatureCsv, stationField, station, valueField));
+        assertEquals(findFully(temperatureCsv, stationField, station, valueField), findStreaming(temperatureCsv, stationField, station, valueField));
+
+        BenchmarkUtils.record(CSVUtilsBenchmark.class, "temperature full load", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> findFully(temperatureCsv, stationField, station, valueField)));
+        BenchmarkUtils.record(CSVUtilsBenchmark.class, "temperature streaming", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> findStreaming(temperatureCsv, stationField, station, valueField)));
+    }
+
+    @Test
+    public void benchmarkWindLookup() throws Exception {
+        String station = windStations.get(windStations.size() / 2);
+        String stationField = "Automatic Weather Station";
+        String valueField = "10-Minute Mean Wind Direction(Compass points)";
+        assertNotNull(findStreaming(windCsv, stationField, station, valueField));
+        assertEquals(findFully(windCsv, stationField, station, valueField), findStreaming(windCsv, stationField, station, valueField));
+
+        BenchmarkUtils.record(CSVUtilsBenchmark.class, "wind full load", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> findFully(windCsv, stationField, station, valueField)));
+        BenchmarkUtils.record(CSVUtilsBenchmark.class, "wind streaming", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> findStreaming(windCsv, stationField, station, valueField)));
+    }
+
+}
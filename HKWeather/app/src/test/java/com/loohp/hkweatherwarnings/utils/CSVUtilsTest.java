@@ -0,0 +1,101 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class CSVUtilsTest {
+
+    private static final String CSV = "Date time,Automatic Weather Station,Air Temperature(degree Celsius)\n"
+            + "202410181200,Chek Lap Kok,N/A\n"
+            + "\n"
+            + "202410181200,HK Observatory,27.1\n"
+            + "202410181200,Sha Tin\n"
+            + "202410181200,Chek Lap Kok,26.4,extra\n";
+
+    private static CSVUtils.Row findFirst(String csv, Function<CSVUtils.Header, List<Predicate<CSVUtils.Row>>> predicates) throws IOException {
+        return CSVUtils.findFirst(new BufferedReader(new StringReader(csv)), UnaryOperator.identity(), predicates);
+    }
+
+    private static Function<CSVUtils.Header, List<Predicate<CSVUtils.Row>>> station(String... stations) {
+        return header -> {
+            int stationColumn = header.indexOf("Automatic Weather Station");
+            int valueColumn = header.indexOf("Air Temperature(degree Celsius)");
+            List<Predicate<CSVUtils.Row>> predicates = new ArrayList<>(stations.length);
+            for (String station : stations) {
+                predicates.add(e -> e.get(stationColumn).equals(station) && !Double.isNaN(e.getDouble(valueColumn)));
+            }
+            return predicates;
+        };
+    }
+
+    @Test
+    public void earlierPredicateWinsOverEarlierRow() throws IOException {
+        CSVUtils.Row row = findFirst(CSV, station("Chek Lap Kok", "HK Observatory"));
+        assertEquals("Chek Lap Kok", row.get("Automatic Weather Station"));
+        assertEquals(26.4, row.getDouble("Air Temperature(degree Celsius)"), 0);
+    }
+
+    @Test
+    public void fallsBackToLaterPredicate() throws IOException {
+        CSVUtils.Row row = findFirst(CSV, station("Sha Tin", "HK Observatory"));
+        assertEquals("HK Observatory", row.get(1));
+        assertEquals(27.1, row.getDouble(2), 0);
+    }
+
+    @Test
+    public void missingColumnsReadAsEmpty() throws IOException {
+        CSVUtils.Row row = findFirst(CSV, header -> Collections.singletonList(e -> e.get(1).equals("Sha Tin")));
+        assertEquals(3, row.getHeader().size());
+        assertEquals("", row.get(2));
+        assertEquals("", row.get(3));
+        assertEquals("", row.get("Wind"));
+        assertEquals(-1, row.getDouble(2, -1), 0);
+    }
+
+    @Test
+    public void filterAppliesToHeaderAndValues() throws IOException {
+        CSVUtils.Row row = CSVUtils.findFirst(new BufferedReader(new StringReader("\"Station\",\"Value\"\n\"Sha Tin\",\"1.5\"\n")), value -> value.replace("\"", ""), header -> {
+            int stationColumn = header.indexOf("Station");
+            return Collections.singletonList(e -> e.get(stationColumn).equals("Sha Tin"));
+        });
+        assertEquals(1.5, row.getDouble("Value"), 0);
+    }
+
+    @Test
+    public void emptyInputHasNoRow() throws IOException {
+        assertNull(findFirst("", station("HK Observatory")));
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FetchGroupTest {
+
+    @Test
+    public void submitAfterRunsOnceDependencyCompletes() throws Exception {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        CompletableFuture<Void> dependency = new CompletableFuture<>();
+        CompletableFuture<String> future = group.submitAfter(dependency, () -> "done");
+        assertFalse(future.isDone());
+        dependency.complete(null);
+        assertEquals("done", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void submitAfterPropagatesFailure() {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        CompletableFuture<Void> dependency = new CompletableFuture<>();
+        CompletableFuture<String> future = group.submitAfter(dependency, () -> {
+            throw new IllegalStateException();
+        });
+        dependency.complete(null);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void cancelBeforeDependencySkipsTask() throws Exception {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        CompletableFuture<Void> dependency = new CompletableFuture<>();
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Void> future = group.submitAfter(dependency, () -> ran.set(true));
+        future.cancel(true);
+        dependency.complete(null);
+        group.submit(() -> null).get(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    public void cancelWhileRunningInterruptsTask() throws Exception {
+        FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+        CompletableFuture<Void> dependency = new CompletableFuture<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Void> future = group.submitAfter(dependency, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(30000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        dependency.complete(null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        future.cancel(true);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+}
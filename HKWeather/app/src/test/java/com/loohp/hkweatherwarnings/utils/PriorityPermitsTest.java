@@ -0,0 +1,80 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class PriorityPermitsTest {
+
+    private static CompletableFuture<Void> acquire(FetchGroup group, PriorityPermits permits, List<String> order, String name) {
+        return group.submit(() -> {
+            permits.acquire();
+            order.add(name);
+            permits.release();
+            return null;
+        });
+    }
+
+    private static void awaitWaiting(PriorityPermits permits, int count) throws InterruptedException {
+        while (permits.getWaitingCount() < count) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void higherPriorityWaiterIsGrantedFirst() throws Exception {
+        PriorityPermits permits = new PriorityPermits(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        permits.acquire();
+        CompletableFuture<Void> background = acquire(new FetchGroup(FetchPriority.BACKGROUND), permits, order, "background");
+        awaitWaiting(permits, 1);
+        CompletableFuture<Void> interactive = acquire(new FetchGroup(FetchPriority.USER_INTERACTIVE), permits, order, "interactive");
+        awaitWaiting(permits, 2);
+        permits.release();
+        CompletableFuture.allOf(background, interactive).get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("interactive", "background"), order);
+    }
+
+    @Test
+    public void raisedWaiterOvertakesEarlierWaiter() throws Exception {
+        PriorityPermits permits = new PriorityPermits(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        permits.acquire();
+        CompletableFuture<Void> first = acquire(new FetchGroup(FetchPriority.BACKGROUND), permits, order, "first");
+        awaitWaiting(permits, 1);
+        FetchGroup raised = new FetchGroup(FetchPriority.BACKGROUND);
+        CompletableFuture<Void> second = acquire(raised, permits, order, "second");
+        awaitWaiting(permits, 2);
+        raised.raisePriority(FetchPriority.TILE);
+        permits.release();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("second", "first"), order);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class SingleFlightTest {
+
+    private static void awaitCoalesced(long count) throws InterruptedException {
+        while (HTTPRequestUtils.getCoalescedRequestCount() < count) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitCoalesced(SingleFlight<?, ?> flight, long count) throws InterruptedException {
+        while (flight.getCoalescedCount() < count) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void followerRaisesLeaderPriority() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = new FetchGroup(FetchPriority.BACKGROUND).submit(() -> flight.execute("key", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "value";
+        }));
+        while (flight.getInFlightCount() == 0) {
+            Thread.sleep(5);
+        }
+        CompletableFuture<String> follower = new FetchGroup(FetchPriority.USER_INTERACTIVE).submit(() -> flight.execute("key", () -> "unused"));
+        awaitCoalesced(flight, 1);
+        assertEquals(FetchPriority.USER_INTERACTIVE, ((FetchScheduler.Task<?>) leader).getPriority());
+        release.countDown();
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void coalescedJSONCallersGetSeparateCopies() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await();
+                return new MockResponse().setBody("{\"value\":1}");
+            }
+        });
+        server.start();
+        try {
+            String link = server.url("/shared.json").toString();
+            long coalesced = HTTPRequestUtils.getCoalescedRequestCount();
+            FetchGroup group = new FetchGroup(FetchPriority.USER_INTERACTIVE);
+            CompletableFuture<JSONObject> leader = group.submit(() -> HTTPRequestUtils.getJSONResponse(link));
+            server.takeRequest(5, TimeUnit.SECONDS);
+            CompletableFuture<JSONObject> follower = group.submit(() -> HTTPRequestUtils.getJSONResponse(link));
+            awaitCoalesced(coalesced + 1);
+            release.countDown();
+
+            JSONObject leaderResult = leader.get(5, TimeUnit.SECONDS);
+            JSONObject followerResult = follower.get(5, TimeUnit.SECONDS);
+            assertNotSame(leaderResult, followerResult);
+            followerResult.put("value", 2);
+            followerResult.put("extra", true);
+            assertEquals(1, leaderResult.getInt("value"));
+            assertFalse(leaderResult.has("extra"));
+            assertEquals(1, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+}
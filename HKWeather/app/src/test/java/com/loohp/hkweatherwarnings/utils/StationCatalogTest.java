@@ -0,0 +1,84 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class StationCatalogTest {
+
+    private static StationCatalog catalog;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        String path = System.getProperty("station.catalog");
+        assertNotNull("station.catalog is not set, run through the Gradle test task", path);
+        try (InputStream input = new FileInputStream(path)) {
+            catalog = StationCatalog.read(input);
+        }
+    }
+
+    private static void assertSameStations(StationIndex expected, StationIndex actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            String id = expected.getId(i);
+            int match = -1;
+            for (int j = 0; j < actual.size(); j++) {
+                if (actual.getId(j).equals(id)) {
+                    match = j;
+                    break;
+                }
+            }
+            assertTrue("missing " + id, match >= 0);
+            assertEquals(expected.getNameEn(i), actual.getNameEn(match));
+            assertEquals(expected.getNameZh(i), actual.getNameZh(match));
+            assertEquals(id, expected.getLatitude(i), actual.getLatitude(match), 0);
+            assertEquals(id, expected.getLongitude(i), actual.getLongitude(match), 0);
+        }
+    }
+
+    @Test
+    public void catalogMatchesStationSources() throws IOException {
+        assertSameStations(StationIndexTest.fromGeoJSON(StationIndexTest.readJSON("src/main/stations/latest_1min_temperature.json")), catalog.getTemperatureStations());
+        assertSameStations(StationIndexTest.fromGeoJSON(StationIndexTest.readJSON("src/main/stations/latest_1min_humidity.json")), catalog.getHumidityStations());
+        assertSameStations(StationIndexTest.fromGeoJSON(StationIndexTest.readJSON("src/main/stations/latest_10min_wind.json")), catalog.getWindStations());
+        assertSameStations(StationIndexTest.fromCoordinates(StationIndexTest.readJSON("src/main/stations/forecast_stations.json").getJSONObject("stations")), catalog.getForecastStations());
+    }
+
+    @Test
+    public void catalogStationsAreFoundAtTheirOwnPosition() {
+        for (StationIndex index : new StationIndex[] {catalog.getTemperatureStations(), catalog.getHumidityStations(), catalog.getWindStations(), catalog.getForecastStations()}) {
+            for (int i = 0; i < index.size(); i++) {
+                int nearest = index.findNearest(index.getLatitude(i), index.getLongitude(i));
+                assertEquals(0, index.getDistance(nearest, index.getLatitude(i), index.getLongitude(i)), 0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class StationIndexBenchmark {
+
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 10000;
+    private static final int QUERY_POINTS = 1024;
+
+    private static double[][] queries(Random random) {
+        double[][] queries = new double[QUERY_POINTS][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[] {22.2 + random.nextDouble() * 0.3, 113.9 + random.nextDouble() * 0.4};
+        }
+        return queries;
+    }
+
+    private static void compare(String name, StationIndex index) throws Exception {
+        double[][] queries = queries(new Random(7));
+        for (double[] query : queries) {
+            int expected = StationIndexTest.findNearestBruteForce(index, query[0], query[1]);
+            assertEquals(index.getDistance(expected, query[0], query[1]), index.getDistance(index.findNearest(query[0], query[1]), query[0], query[1]), 0);
+        }
+        BenchmarkUtils.record(StationIndexBenchmark.class, name + " linear", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> StationIndexTest.findNearestBruteForce(index, queries[i % QUERY_POINTS][0], queries[i % QUERY_POINTS][1])));
+        BenchmarkUtils.record(StationIndexBenchmark.class, name + " grid", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> index.findNearest(queries[i % QUERY_POINTS][0], queries[i % QUERY_POINTS][1])));
+    }
+
+    @Test
+    public void benchmarkTemperatureStations() throws Exception {
+        compare("temperature stations", StationIndexTest.fromGeoJSON(StationIndexTest.readJSON("src/main/stations/latest_1min_temperature.json")));
+    }
+
+    @Test
+    public void benchmarkHundredfoldStations() throws Exception {
+        compare("hundredfold stations", StationIndexTest.randomIndex(new Random(13), 3900));
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class StationIndexTest {
+
+    private static final double MIN_LATITUDE = 22.0;
+    private static final double MAX_LATITUDE = 22.7;
+    private static final double MIN_LONGITUDE = 113.7;
+    private static final double MAX_LONGITUDE = 114.5;
+    private static final int QUERIES = 10000;
+
+    private static List<StationIndex> indexes;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        indexes = new ArrayList<>();
+        indexes.add(fromGeoJSON(readJSON("src/main/stations/latest_1min_temperature.json")));
+        indexes.add(fromGeoJSON(readJSON("src/main/stations/latest_1min_humidity.json")));
+        indexes.add(fromGeoJSON(readJSON("src/main/stations/latest_10min_wind.json")));
+        indexes.add(fromCoordinates(readJSON("src/main/stations/forecast_stations.json").getJSONObject("stations")));
+        indexes.add(randomIndex(new Random(13), 3900));
+    }
+
+    static JSONObject readJSON(String path) throws IOException {
+        return new JSONObject(new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8));
+    }
+
+    static StationIndex fromGeoJSON(JSONObject featureCollection) {
+        JSONArray features = featureCollection.optJSONArray("features");
+        int size = features == null ? 0 : features.length();
+        String[] ids = new String[size];
+        String[] namesEn = new String[size];
+        String[] namesZh = new String[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            JSONObject feature = features.optJSONObject(i);
+            JSONObject properties = feature.optJSONObject("properties");
+            JSONArray coordinates = feature.optJSONObject("geometry").optJSONArray("coordinates");
+            ids[i] = properties.optString("gml_id");
+            namesEn[i] = properties.optString("AutomaticWeatherStation_en");
+            namesZh[i] = properties.optString("AutomaticWeatherStation_uc");
+            latitudes[i] = coordinates.optDouble(1);
+            longitudes[i] = coordinates.optDouble(0);
+        }
+        return new StationIndex(ids, namesEn, namesZh, latitudes, longitudes);
+    }
+
+    static StationIndex fromCoordinates(JSONObject stations) {
+        List<String> keys = new ArrayList<>(stations.length());
+        for (Iterator<String> itr = stations.keys(); itr.hasNext(); ) {
+            keys.add(itr.next());
+        }
+        int size = keys.size();
+        String[] ids = keys.toArray(new String[0]);
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            JSONArray position = stations.optJSONArray(ids[i]);
+            latitudes[i] = position.optDouble(0);
+            longitudes[i] = position.optDouble(1);
+        }
+        return new StationIndex(ids, ids, ids, latitudes, longitudes);
+    }
+
+    static StationIndex randomIndex(Random random, int size) {
+        String[] ids = new String[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = String.valueOf(i);
+            latitudes[i] = 22.15 + random.nextDouble() * 0.4;
+            longitudes[i] = 113.85 + random.nextDouble() * 0.5;
+        }
+        return new StationIndex(ids, ids, ids, latitudes, longitudes);
+    }
+
+    static int findNearestBruteForce(StationIndex index, double latitude, double longitude) {
+        int nearest = -1;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < index.size(); i++) {
+            double distance = index.getDistance(i, latitude, longitude);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    @Test
+    public void findNearestMatchesBruteForce() {
+        Random random = new Random(42);
+        for (StationIndex index : indexes) {
+            for (int i = 0; i < QUERIES; i++) {
+                double latitude = MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+                double longitude = MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+                int expected = findNearestBruteForce(index, latitude, longitude);
+                int actual = index.findNearest(latitude, longitude);
+                assertEquals(latitude + "," + longitude, index.getDistance(expected, latitude, longitude), index.getDistance(actual, latitude, longitude), 0);
+            }
+        }
+    }
+
+    @Test
+    public void findNearestAtStationReturnsStation() {
+        for (StationIndex index : indexes) {
+            for (int i = 0; i < index.size(); i++) {
+                int nearest = index.findNearest(index.getLatitude(i), index.getLongitude(i));
+                assertEquals(0, index.getDistance(nearest, index.getLatitude(i), index.getLongitude(i)), 0);
+            }
+        }
+    }
+
+    @Test
+    public void findNearestOnEmptyIndex() {
+        StationIndex index = new StationIndex(new String[0], new String[0], new String[0], new double[0], new double[0]);
+        assertEquals(-1, index.findNearest(22.3, 114.17));
+    }
+
+}
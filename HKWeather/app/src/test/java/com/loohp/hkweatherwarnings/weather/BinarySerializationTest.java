@@ -0,0 +1,172 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.weather;
+
+import static org.junit.Assert.assertEquals;
+
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.cache.BinarySerializable;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class BinarySerializationTest {
+
+    static DisplayableInfo displayableInfo(int seed) {
+        return new DisplayableInfo(seed % 2 == 0, "資訊 info " + seed);
+    }
+
+    static HeatStressAtWorkInfo heatStressAtWorkInfo() {
+        return new HeatStressAtWorkInfo("The Amber Heat Stress at Work Warning is in force.", HeatStressAtWorkWarningLevel.AMBER, HeatStressAtWorkWarningAction.ISSUE, LocalDateTime.of(2025, 7, 20, 12, 15), LocalDateTime.of(2025, 7, 20, 12, 0));
+    }
+
+    static SpecialTyphoonInfo specialTyphoonInfo() {
+        return new SpecialTyphoonInfo(WeatherWarningsType.TC8NE, displayableInfo(1), displayableInfo(2), displayableInfo(3), displayableInfo(4), displayableInfo(5));
+    }
+
+    static LocalForecastInfo localForecastInfo() {
+        return new LocalForecastInfo("An area of low pressure will bring showers.", "", "Yellow Fire Danger Warning", "Weather forecast for tonight and tomorrow", "Mainly cloudy with a few showers.", "Hot with sunny periods.", LocalDateTime.of(2025, 7, 20, 11, 45));
+    }
+
+    static HourlyWeatherInfo hourlyWeatherInfo(int hour) {
+        return new HourlyWeatherInfo(LocalDateTime.of(2025, 7, 20, 0, 0).plusHours(hour), 28 + hour % 5 * 0.5F, 70 + hour % 20, hour * 15 % 360, 10 + hour % 8, WeatherStatusIcon.values()[hour % WeatherStatusIcon.values().length]);
+    }
+
+    static ForecastWeatherInfo forecastWeatherInfo(int day) {
+        return new ForecastWeatherInfo(LocalDate.of(2025, 7, 21).plusDays(day), 33 - day % 3, 27, 95, 65, day * 10 % 100, WeatherInfo.RangeSign.values()[day % 3], WeatherStatusIcon.values()[day % WeatherStatusIcon.values().length], "South force 3 to 4.", "Sunny periods and a few showers.");
+    }
+
+    static CurrentWeatherInfo currentWeatherInfo() {
+        List<ForecastWeatherInfo> forecastInfo = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            forecastInfo.add(forecastWeatherInfo(i));
+        }
+        List<HourlyWeatherInfo> hourlyWeatherInfo = new ArrayList<>();
+        for (int i = 0; i < 72; i++) {
+            hourlyWeatherInfo.add(hourlyWeatherInfo(i));
+        }
+        Map<CurrentWeatherInfo.DataSource, Long> updateTimes = new EnumMap<>(CurrentWeatherInfo.DataSource.class);
+        for (CurrentWeatherInfo.DataSource dataSource : CurrentWeatherInfo.DataSource.values()) {
+            updateTimes.put(dataSource, 1752984000000L + dataSource.ordinal() * 1000L);
+        }
+        return new CurrentWeatherInfo(LocalDate.of(2025, 7, 20), 33, 27, 95, 65, 40, WeatherInfo.RangeSign.LARGER_THAN, WeatherStatusIcon._53, "Hong Kong Observatory", WeatherStatusIcon._54, 30.2F, 78, 7, "South", 14, 25,
+                LocalTime.of(5, 51), LocalTime.of(12, 26), LocalTime.of(19, 9), LocalTime.of(0, 45), null, LocalTime.of(14, 2),
+                localForecastInfo(), "An area of low pressure will bring showers.", forecastInfo, hourlyWeatherInfo, heatStressAtWorkInfo(), specialTyphoonInfo(), updateTimes);
+    }
+
+    static byte[] toBytes(BinarySerializable value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        value.serialize(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static <T extends BinarySerializable> void assertRoundTrip(T value, BinaryCodec.Reader<T> reader) throws IOException {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(toBytes(value));
+        assertEquals(value, reader.read(new DataInputStream(bytes)));
+        assertEquals(0, bytes.available());
+    }
+
+    @Test
+    public void displayableInfoRoundTrip() throws IOException {
+        assertRoundTrip(displayableInfo(0), DisplayableInfo::deserialize);
+        assertRoundTrip(new DisplayableInfo(false, null), DisplayableInfo::deserialize);
+    }
+
+    @Test
+    public void heatStressAtWorkInfoRoundTrip() throws IOException {
+        assertRoundTrip(heatStressAtWorkInfo(), HeatStressAtWorkInfo::deserialize);
+        assertRoundTrip(new HeatStressAtWorkInfo(null, null, null, null, null), HeatStressAtWorkInfo::deserialize);
+    }
+
+    @Test
+    public void specialTyphoonInfoRoundTrip() throws IOException {
+        assertRoundTrip(specialTyphoonInfo(), SpecialTyphoonInfo::deserialize);
+    }
+
+    @Test
+    public void localForecastInfoRoundTrip() throws IOException {
+        assertRoundTrip(localForecastInfo(), LocalForecastInfo::deserialize);
+    }
+
+    @Test
+    public void hourlyWeatherInfoRoundTrip() throws IOException {
+        for (int i = 0; i < 24; i++) {
+            assertRoundTrip(hourlyWeatherInfo(i), HourlyWeatherInfo::deserialize);
+        }
+    }
+
+    @Test
+    public void forecastWeatherInfoRoundTrip() throws IOException {
+        for (int i = 0; i < 9; i++) {
+            assertRoundTrip(forecastWeatherInfo(i), ForecastWeatherInfo::deserialize);
+        }
+    }
+
+    @Test
+    public void weatherWarningsChangeRoundTrip() throws IOException {
+        for (WeatherWarningsType type : WeatherWarningsType.values()) {
+            for (WeatherWarningsChange.Action action : WeatherWarningsChange.Action.values()) {
+                assertRoundTrip(new WeatherWarningsChange(type, action, 1752984000000L), WeatherWarningsChange::deserialize);
+            }
+        }
+    }
+
+    @Test
+    public void currentWeatherInfoRoundTrip() throws IOException {
+        assertRoundTrip(currentWeatherInfo(), CurrentWeatherInfo::deserialize);
+    }
+
+    @Test
+    public void currentWeatherInfoWithoutOptionalPartsRoundTrip() throws IOException {
+        CurrentWeatherInfo full = currentWeatherInfo();
+        CurrentWeatherInfo partial = new CurrentWeatherInfo(full.getDate(), full.getHighestTemperature(), full.getLowestTemperature(), full.getMaxRelativeHumidity(), full.getMinRelativeHumidity(), full.getChanceOfRain(), full.getChanceOfRainRangeSign(), full.getWeatherIcon(), null, null, full.getCurrentTemperature(), full.getCurrentHumidity(), full.getUvIndex(), null, full.getWindSpeed(), full.getGust(),
+                null, null, null, null, null, null,
+                null, null, Collections.emptyList(), Collections.emptyList(), null, null, Collections.emptyMap());
+        assertRoundTrip(partial, CurrentWeatherInfo::deserialize);
+    }
+
+    @Test
+    public void listRoundTrip() throws IOException {
+        List<WeatherWarningsChange> list = Arrays.asList(new WeatherWarningsChange(WeatherWarningsType.TC1, WeatherWarningsChange.Action.ISSUE, 1L), new WeatherWarningsChange(WeatherWarningsType.TC3, WeatherWarningsChange.Action.CANCEL, 2L));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryCodec.writeList(out, list);
+        out.flush();
+        assertEquals(list, BinaryCodec.readList(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), WeatherWarningsChange::deserialize));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of HKWeather.
+ *
+ * Copyright (C) 2025. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2025. Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.loohp.hkweatherwarnings.weather;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.loohp.hkweatherwarnings.cache.BinaryCodec;
+import com.loohp.hkweatherwarnings.utils.BenchmarkUtils;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class CurrentWeatherInfoBenchmark {
+
+    private static final int WARMUP = 1000;
+    private static final int ITERATIONS = 3000;
+    private static final int WEATHER_CACHE_VERSION = 2;
+
+    private static byte[] toJson(CurrentWeatherInfo info) {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("value", info.serialize());
+        jsonObject.put("updateTime", 1752984000000L);
+        jsonObject.put("updateSuccessful", true);
+        return jsonObject.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static CurrentWeatherInfo fromJson(byte[] bytes) {
+        JSONObject jsonObject = new JSONObject(new String(bytes, StandardCharsets.UTF_8));
+        jsonObject.optLong("updateTime");
+        jsonObject.optBoolean("updateSuccessful");
+        return CurrentWeatherInfo.deserialize(jsonObject.optJSONObject("value"));
+    }
+
+    private static byte[] toBinary(CurrentWeatherInfo info) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryCodec.writeHeader(out, WEATHER_CACHE_VERSION);
+        out.writeLong(1752984000000L);
+        out.writeBoolean(true);
+        out.writeBoolean(true);
+        info.serialize(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static CurrentWeatherInfo fromBinary(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        BinaryCodec.readHeader(in, WEATHER_CACHE_VERSION);
+        in.readLong();
+        in.readBoolean();
+        return in.readBoolean() ? CurrentWeatherInfo.deserialize(in) : null;
+    }
+
+    @Test
+    public void benchmarkLoad() throws Exception {
+        CurrentWeatherInfo info = BinarySerializationTest.currentWeatherInfo();
+        byte[] json = toJson(info);
+        byte[] binary = toBinary(info);
+        assertEquals(info, fromJson(json));
+        assertEquals(info, fromBinary(binary));
+
+        assertTrue(binary.length < json.length);
+
+        BenchmarkUtils.record(CurrentWeatherInfoBenchmark.class, "json load " + json.length + " B", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> fromJson(json)));
+        BenchmarkUtils.record(CurrentWeatherInfoBenchmark.class, "binary load " + binary.length + " B", BenchmarkUtils.measure(WARMUP, ITERATIONS, i -> fromBinary(binary)));
+    }
+
+}